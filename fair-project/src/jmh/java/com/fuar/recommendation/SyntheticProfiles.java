@@ -0,0 +1,102 @@
+package com.fuar.recommendation;
+
+import com.fuar.model.Education;
+import com.fuar.model.Publication;
+import com.fuar.model.Skill;
+import com.fuar.model.User;
+import com.fuar.model.UserInfo;
+import com.fuar.model.WorkExperience;
+import com.fuar.recommendation.model.UserFeatureVector;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Kıyaslamalar için sabit tohumlu sentetik profiller üretir.
+ * Terimler, gerçek verideki gibi birkaç popüler terimin çok sık geçtiği çarpık bir dağılımdan seçilir.
+ */
+public final class SyntheticProfiles {
+
+    private static final int VOCABULARY_SIZE = 5_000;
+
+    private final Random random;
+
+    public SyntheticProfiles(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Her ailede verilen sayıda terim içeren bir özellik vektörü üretir.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param termsPerFamily Aile başına terim sayısı
+     * @return Özellik vektörü
+     */
+    public UserFeatureVector featureVector(long userId, int termsPerFamily) {
+        User user = new User();
+        user.setId(userId);
+
+        UserFeatureVector vector = new UserFeatureVector(user);
+        vector.setSkillWeights(weights(0, termsPerFamily));
+        vector.setSectorWeights(weights(1, termsPerFamily));
+        vector.setExpertiseWeights(weights(2, termsPerFamily));
+        vector.setInterestWeights(weights(3, termsPerFamily));
+        vector.setEducationFieldWeights(weights(4, termsPerFamily));
+        return vector;
+    }
+
+    /**
+     * Verilen sayıda beceri, iş deneyimi, eğitim ve yayın içeren bir kullanıcı üretir.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param itemsPerSection Bölüm başına kayıt sayısı
+     * @return Kullanıcı
+     */
+    public User user(long userId, int itemsPerSection) {
+        Set<Skill> skills = new HashSet<>();
+        Set<WorkExperience> experiences = new HashSet<>();
+        Set<Education> educations = new HashSet<>();
+        Set<Publication> publications = new HashSet<>();
+
+        for (int i = 0; i < itemsPerSection; i++) {
+            skills.add(Skill.builder().id((long) i).name(term("Skill")).build());
+            experiences.add(WorkExperience.builder().id((long) i).sector(term("Sector")).position(term("Position")).build());
+            educations.add(Education.builder().id((long) i).major(term("Major")).degree(term("Degree")).build());
+            publications.add(Publication.builder().id((long) i).topic(term("Topic")).build());
+        }
+
+        UserInfo userInfo = new UserInfo();
+        userInfo.setId(userId);
+        userInfo.setSkills(skills);
+        userInfo.setWorkExperiences(experiences);
+        userInfo.setEducations(educations);
+        userInfo.setPublications(publications);
+
+        User user = new User();
+        user.setId(userId);
+        user.setUserInfo(userInfo);
+        return user;
+    }
+
+    private Map<Integer, Double> weights(int family, int count) {
+        // Her aile sözlükte kendi kimlik aralığını kullanır
+        Map<Integer, Double> weights = new HashMap<>();
+        while (weights.size() < count) {
+            weights.put(family * VOCABULARY_SIZE + termIndex(), 0.1 + random.nextDouble());
+        }
+        return weights;
+    }
+
+    private String term(String prefix) {
+        return prefix + "-" + termIndex();
+    }
+
+    private int termIndex() {
+        // Karesi alınmış tekdüze sayı küçük indeksleri öne çıkarır
+        double u = random.nextDouble();
+        return (int) (u * u * VOCABULARY_SIZE);
+    }
+}
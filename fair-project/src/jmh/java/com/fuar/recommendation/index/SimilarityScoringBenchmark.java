@@ -0,0 +1,99 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.recommendation.SyntheticProfiles;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benzerlik skorlamasının sıcak yolunu ölçer: iki kullanıcı arasındaki seyrek kosinüs ve
+ * ters indeks (kesin) veya MinHash/LSH (yaklaşık) aday üretimiyle tek bir kullanıcının en yakın K komşusunun bulunması.
+ * <p>
+ * Ters indeks ile MinHash karşılaştırması için kullanılan çalıştırma:
+ * <pre>
+ * ./gradlew jmhJar
+ * java -jar build/libs/fair-project-0.0.1-SNAPSHOT-jmh.jar "SimilarityScoringBenchmark.topKNeighbors" \
+ *     -p userCount=10000 -p termsPerFamily=20 -wi 3 -w 2s -i 5 -r 2s -f 1
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityScoringBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int userCount;
+
+    @Param({"5", "20", "50"})
+    int termsPerFamily;
+
+    private SparseFeatureVector[] vectors;
+    private InvertedIndex invertedIndex;
+    private MinHashLshIndex minHashIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticProfiles profiles = new SyntheticProfiles(42);
+        List<SparseFeatureVector> source = new ArrayList<>(userCount);
+        for (long userId = 1; userId <= userCount; userId++) {
+            source.add(SparseFeatureVector.of(userId, profiles.featureVector(userId, termsPerFamily)));
+        }
+        vectors = source.toArray(new SparseFeatureVector[0]);
+        invertedIndex = InvertedIndex.build(source);
+        minHashIndex = MinHashLshIndex.build(source, 32, 2);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        ScoreAccumulator accumulator;
+        TopKNeighbors neighbors;
+
+        @Setup(Level.Trial)
+        public void setUp(SimilarityScoringBenchmark benchmark) {
+            accumulator = new ScoreAccumulator(benchmark.userCount);
+            neighbors = new TopKNeighbors(50);
+        }
+    }
+
+    @Benchmark
+    public double pairSimilarity() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return vectors[random.nextInt(vectors.length)].similarity(vectors[random.nextInt(vectors.length)],
+                ScoringWeights.defaults());
+    }
+
+    @Benchmark
+    public float topKNeighbors(ThreadState state) {
+        state.neighbors.clear();
+        SparseFeatureVector query = vectors[ThreadLocalRandom.current().nextInt(vectors.length)];
+        NeighborComputationEngine.computeNeighbors(invertedIndex, query, ScoringWeights.defaults(),
+                state.accumulator, state.neighbors);
+        return state.neighbors.threshold();
+    }
+
+    @Benchmark
+    public float topKNeighborsMinHash(ThreadState state) {
+        state.neighbors.clear();
+        SparseFeatureVector query = vectors[ThreadLocalRandom.current().nextInt(vectors.length)];
+        NeighborComputationEngine.computeNeighbors(minHashIndex, query, ScoringWeights.defaults(),
+                state.accumulator, state.neighbors);
+        return state.neighbors.threshold();
+    }
+}
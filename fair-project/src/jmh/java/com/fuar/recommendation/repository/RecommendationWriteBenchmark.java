@@ -0,0 +1,125 @@
+package com.fuar.recommendation.repository;
+
+import com.fuar.model.User;
+import com.fuar.recommendation.model.UserRecommendation;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Öneri satırlarının yazma hızını gömülü bir PostgreSQL üzerinde ölçer: toplu JDBC ifadeleriyle
+ * ({@link RecommendationJdbcRepository}) ve satır başına tek ifadeyle yazma. Sonuç saniyedeki satır sayısıdır.
+ * PostgreSQL ikili dosyaları ilk çalıştırmada Maven deposundan indirilir; süreç root olarak çalıştırılamaz.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationWriteBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private EmbeddedPostgres postgres;
+    private JdbcTemplate jdbcTemplate;
+    private RecommendationJdbcRepository repository;
+    private List<User> targetUsers;
+    private List<User> recommendedUsers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        // Uygulamanın bağlantı adresiyle aynı şekilde toplu eklemeler tek ifadeye yeniden yazılır
+        DataSource dataSource = postgres.getDatabase("postgres", "postgres", Map.of("reWriteBatchedInserts", "true"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user_recommendation (" +
+                "id BIGSERIAL PRIMARY KEY, target_user_id BIGINT NOT NULL, recommended_user_id BIGINT NOT NULL, " +
+                "score DOUBLE PRECISION, status VARCHAR(20), created_at TIMESTAMP, last_updated TIMESTAMP)");
+        jdbcTemplate.execute("CREATE INDEX ON user_recommendation (target_user_id)");
+        repository = new RecommendationJdbcRepository(jdbcTemplate, new NamedParameterJdbcTemplate(dataSource));
+
+        targetUsers = new ArrayList<>();
+        recommendedUsers = new ArrayList<>();
+        for (long i = 0; i < ROWS; i++) {
+            targetUsers.add(user(i / 10 + 1));
+            recommendedUsers.add(user(i % 1000 + 1));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE user_recommendation");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int batchedInsert() {
+        return repository.insertRecommendations(recommendations());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int rowByRowInsert() {
+        int inserted = 0;
+        for (UserRecommendation recommendation : recommendations()) {
+            inserted += jdbcTemplate.update(
+                    "INSERT INTO user_recommendation (target_user_id, recommended_user_id, score, status, created_at, last_updated) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)",
+                    recommendation.getTargetUser().getId(), recommendation.getRecommendedUser().getId(),
+                    recommendation.getScore(), recommendation.getStatus().name(),
+                    new Timestamp(recommendation.getCreatedAt().getTime()),
+                    new Timestamp(recommendation.getLastUpdated().getTime()));
+        }
+        return inserted;
+    }
+
+    private List<UserRecommendation> recommendations() {
+        Date now = new Date();
+        List<UserRecommendation> recommendations = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            UserRecommendation recommendation = new UserRecommendation();
+            recommendation.setUser(targetUsers.get(i));
+            recommendation.setRecommendedUser(recommendedUsers.get(i));
+            recommendation.setScore(0.5);
+            recommendation.setStatus(UserRecommendation.RecommendationStatus.NEW);
+            recommendation.setCreatedAt(now);
+            recommendation.setLastUpdated(now);
+            recommendations.add(recommendation);
+        }
+        return recommendations;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
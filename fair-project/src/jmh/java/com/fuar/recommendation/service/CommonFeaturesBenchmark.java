@@ -0,0 +1,57 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.recommendation.SyntheticProfiles;
+import com.fuar.recommendation.index.FeatureFamily;
+import com.fuar.recommendation.index.SparseFeatureVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Öneri nedenleri için iki kullanıcının ortak özelliklerinin bulunmasını ölçer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommonFeaturesBenchmark {
+
+    private static final int PROFILE_POOL_SIZE = 1024;
+
+    @Param({"5", "20", "50"})
+    int termsPerFamily;
+
+    private SparseFeatureVector[] vectors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticProfiles profiles = new SyntheticProfiles(42);
+        vectors = new SparseFeatureVector[PROFILE_POOL_SIZE];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = SparseFeatureVector.of((long) i + 1, profiles.featureVector(i + 1, termsPerFamily));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> findCommonSkills() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SparseFeatureVector first = vectors[random.nextInt(vectors.length)];
+        SparseFeatureVector second = vectors[random.nextInt(vectors.length)];
+        return RecommendationReasonService.findCommonFeatures(first, second, FeatureFamily.SKILL, 3);
+    }
+}
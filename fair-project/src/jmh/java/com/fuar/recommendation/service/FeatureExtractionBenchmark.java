@@ -0,0 +1,94 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.model.User;
+import com.fuar.recommendation.SyntheticProfiles;
+import com.fuar.recommendation.index.TermDictionary;
+import com.fuar.recommendation.model.UserFeatureVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profil bölümlerinden özellik çıkarımını ölçer. Depolar kullanılmadığından servis boş bağımlılıklarla oluşturulur.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeatureExtractionBenchmark {
+
+    private static final int PROFILE_POOL_SIZE = 1024;
+
+    @Param({"5", "20", "50"})
+    int itemsPerSection;
+
+    private final FeatureExtractionService service = new FeatureExtractionService(null, null, null, new TermDictionary(), null);
+    private User[] users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticProfiles profiles = new SyntheticProfiles(42);
+        users = new User[PROFILE_POOL_SIZE];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = profiles.user(i + 1, itemsPerSection);
+        }
+    }
+
+    private User nextUser() {
+        return users[ThreadLocalRandom.current().nextInt(users.length)];
+    }
+
+    @Benchmark
+    public UserFeatureVector extractSkillFeatures() {
+        User user = nextUser();
+        UserFeatureVector vector = new UserFeatureVector(user);
+        service.extractSkillFeatures(user, vector);
+        return vector;
+    }
+
+    @Benchmark
+    public UserFeatureVector extractSectorFeatures() {
+        User user = nextUser();
+        UserFeatureVector vector = new UserFeatureVector(user);
+        service.extractSectorFeatures(user, vector);
+        return vector;
+    }
+
+    @Benchmark
+    public UserFeatureVector extractExpertiseFeatures() {
+        User user = nextUser();
+        UserFeatureVector vector = new UserFeatureVector(user);
+        service.extractExpertiseFeatures(user, vector);
+        return vector;
+    }
+
+    @Benchmark
+    public UserFeatureVector extractInterestFeatures() {
+        User user = nextUser();
+        UserFeatureVector vector = new UserFeatureVector(user);
+        service.extractInterestFeatures(user, vector);
+        return vector;
+    }
+
+    @Benchmark
+    public UserFeatureVector extractEducationFeatures() {
+        User user = nextUser();
+        UserFeatureVector vector = new UserFeatureVector(user);
+        service.extractEducationFeatures(user, vector);
+        return vector;
+    }
+}
@@ -2,8 +2,10 @@ package com.fuar;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FairApplication {
     public static void main(String[] args) {
         SpringApplication.run(FairApplication.class, args);
@@ -0,0 +1,45 @@
+package com.fuar.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the inbox read model (last message pointer and unread counters) for conversations
+ * created before these columns existed. Conversations that already have a last message are
+ * skipped, so the backfill runs once per conversation and is a no-op afterwards.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ConversationInboxBackfill implements ApplicationRunner {
+
+    private static final String BACKFILL_SQL =
+            "UPDATE conversations c SET " +
+            "last_message_id = (SELECT m.id FROM messages m WHERE m.conversation_id = c.id " +
+            "ORDER BY m.timestamp DESC, m.id DESC LIMIT 1), " +
+            "initiator_unread_count = (SELECT COUNT(*) FROM messages m WHERE m.conversation_id = c.id " +
+            "AND m.sender_id <> c.initiator_id AND m.read = false), " +
+            "recipient_unread_count = (SELECT COUNT(*) FROM messages m WHERE m.conversation_id = c.id " +
+            "AND m.sender_id <> c.recipient_id AND m.read = false) " +
+            "WHERE c.last_message_id IS NULL " +
+            "AND EXISTS (SELECT 1 FROM messages m WHERE m.conversation_id = c.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            int updated = jdbcTemplate.update(BACKFILL_SQL);
+            if (updated > 0) {
+                log.info("Backfilled inbox columns for {} conversations", updated);
+            }
+        } catch (Exception e) {
+            // Log error and continue - the inbox shows stale counters until the next send or read
+            log.error("Failed to backfill conversation inbox columns", e);
+        }
+    }
+}
@@ -2,8 +2,8 @@ package com.fuar.config;
 
 import com.fuar.security.DevWebSocketAuthInterceptor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Profile;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
@@ -12,9 +12,12 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 /**
  * Development-only WebSocket configuration with lenient authentication
- * Only activate this in development environments
+ * Only activate this in development environments.
+ * Its in-memory broker cannot coexist with the external broker relay, so it is disabled
+ * when messaging.broker.mode=relay.
  */
 @Configuration
+@ConditionalOnProperty(name = "messaging.broker.mode", havingValue = "simple", matchIfMissing = true)
 @EnableWebSocketMessageBroker
 @RequiredArgsConstructor
 public class DevWebSocketConfig implements WebSocketMessageBrokerConfigurer {
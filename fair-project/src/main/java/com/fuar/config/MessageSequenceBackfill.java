@@ -0,0 +1,76 @@
+package com.fuar.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Numbers messages saved before per-conversation sequence numbers existed.
+ * Affected conversations are locked like a sender would lock them, so messages sent while the backfill
+ * runs are numbered after it without gaps or duplicates. Legacy messages keep their (timestamp, id) order.
+ * Once every message has a sequence number the backfill only checks and does nothing.
+ * It runs once all singletons are created and before the web server starts, so no resume request
+ * is served while legacy messages are still unnumbered.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MessageSequenceBackfill implements SmartInitializingSingleton {
+
+    private static final String LOCK_CONVERSATIONS_SQL =
+            "SELECT c.id FROM conversations c WHERE EXISTS " +
+            "(SELECT 1 FROM messages m WHERE m.conversation_id = c.id AND m.sequence IS NULL) " +
+            "ORDER BY c.id FOR UPDATE";
+
+    private static final String NUMBER_MESSAGES_SQL =
+            "WITH numbered AS (" +
+            "SELECT m.id, c.last_sequence + ROW_NUMBER() OVER " +
+            "(PARTITION BY m.conversation_id ORDER BY m.timestamp, m.id) AS sequence " +
+            "FROM messages m JOIN conversations c ON c.id = m.conversation_id " +
+            "WHERE m.sequence IS NULL AND m.conversation_id = ANY (?)) " +
+            "UPDATE messages m SET sequence = n.sequence FROM numbered n WHERE m.id = n.id";
+
+    private static final String UPDATE_LAST_SEQUENCE_SQL =
+            "UPDATE conversations c SET last_sequence = " +
+            "(SELECT MAX(m.sequence) FROM messages m WHERE m.conversation_id = c.id) " +
+            "WHERE c.id = ANY (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            Integer numbered = new TransactionTemplate(transactionManager).execute(status -> {
+                List<Long> conversationIds = jdbcTemplate.queryForList(LOCK_CONVERSATIONS_SQL, Long.class);
+                if (conversationIds.isEmpty()) {
+                    return 0;
+                }
+                int updated = jdbcTemplate.update(NUMBER_MESSAGES_SQL,
+                        ps -> ps.setArray(1, toArray(ps.getConnection(), conversationIds)));
+                jdbcTemplate.update(UPDATE_LAST_SEQUENCE_SQL,
+                        ps -> ps.setArray(1, toArray(ps.getConnection(), conversationIds)));
+                return updated;
+            });
+            if (numbered != null && numbered > 0) {
+                log.info("Assigned sequence numbers to {} messages", numbered);
+            }
+        } catch (Exception e) {
+            // Log error and continue - resume skips unnumbered messages until the backfill succeeds
+            log.error("Failed to backfill message sequence numbers", e);
+        }
+    }
+
+    private static Array toArray(Connection connection, List<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+}
@@ -2,6 +2,8 @@ package com.fuar.config;
 
 import com.fuar.security.WebSocketAuthInterceptor;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
@@ -22,11 +24,36 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  */
 @Configuration
 @EnableWebSocketMessageBroker
+@Slf4j
 @RequiredArgsConstructor
 public class WebSocketConfigV2 implements WebSocketMessageBrokerConfigurer {
 
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
 
+    @Value("${messaging.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${messaging.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${messaging.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${messaging.broker.relay.client-login:guest}")
+    private String relayClientLogin;
+
+    @Value("${messaging.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode;
+
+    @Value("${messaging.broker.relay.system-login:guest}")
+    private String relaySystemLogin;
+
+    @Value("${messaging.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode;
+
+    @Value("${messaging.broker.relay.heartbeat-ms:10000}")
+    private long relayHeartbeatMs;
+
     /**
      * WebSocket bağlantıları için STOMP endpoint'lerini kaydeder.
      * WebSocket desteklemeyen tarayıcılar için SockJS yedek seçenekleri sunar.
@@ -49,24 +76,52 @@ public class WebSocketConfigV2 implements WebSocketMessageBrokerConfigurer {
 
     /**
      * Mesaj broker ayarlarını yapılandırır.
-     * İstemci mesajları için hedef önekleri belirler ve basit bir bellek içi broker etkinleştirir.
+     * {@code messaging.broker.mode=simple} (varsayılan) ile bellek içi basit broker kullanılır; kullanıcı hedefleri
+     * yalnızca oturumu tutan düğümde çözülür. {@code relay} ile mesajlar harici bir STOMP broker'ına (ör. Artemis)
+     * aktarılır ve kullanıcı kayıtları düğümler arasında yayınlanır; böylece birden fazla backend kopyası çalışabilir.
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // Anında teslimat için optimize edilmiş ayarlarla mesaj broker'ı yapılandır
-        registry.setApplicationDestinationPrefixes("/app")
-                .enableSimpleBroker("/topic", "/queue", "/user/queue", "/user")
-                // Daha hızlı mesaj iletimi için daha küçük tampon boyutları ve daha hızlı kalp atışı
-                .setTaskScheduler(new ConcurrentTaskScheduler())
-                .setHeartbeatValue(new long[] {3000, 3000});
+        registry.setApplicationDestinationPrefixes("/app");
+        
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            configureBrokerRelay(registry);
+        } else {
+            // Anında teslimat için optimize edilmiş ayarlarla mesaj broker'ı yapılandır
+            registry.enableSimpleBroker("/topic", "/queue", "/user/queue", "/user")
+                    // Daha hızlı mesaj iletimi için daha küçük tampon boyutları ve daha hızlı kalp atışı
+                    .setTaskScheduler(new ConcurrentTaskScheduler())
+                    .setHeartbeatValue(new long[] {3000, 3000});
+            
+            System.out.println("Mesaj broker'ı anında teslimat için optimize edilmiş ayarlarla yapılandırıldı");
+            System.out.println("Gereken tüm broker önekleri etkinleştirildi: /topic, /queue, /user/queue, /user");
+            System.out.println("Daha duyarlı bağlantılar için kalp atışı aralığı 3 saniyeye düşürüldü");
+        }
                 
         // Daha açık bir kullanıcı hedef öneki kullan
         registry.setUserDestinationPrefix("/user");
-        
-        System.out.println("Mesaj broker'ı anında teslimat için optimize edilmiş ayarlarla yapılandırıldı");
         System.out.println("Kullanıcı hedef öneki açıkça /user olarak ayarlandı");
-        System.out.println("Gereken tüm broker önekleri etkinleştirildi: /topic, /queue, /user/queue, /user");
-        System.out.println("Daha duyarlı bağlantılar için kalp atışı aralığı 3 saniyeye düşürüldü");
+    }
+
+    /**
+     * Harici STOMP broker aktarımını yapılandırır.
+     * Bir düğümde çözülemeyen kullanıcı hedefleri broker üzerinden diğer düğümlere yayınlanır; her düğüm kendi
+     * oturumlarını kullanıcı kayıt konusuna periyodik olarak bildirir.
+     */
+    private void configureBrokerRelay(MessageBrokerRegistry registry) {
+        registry.enableStompBrokerRelay("/topic", "/queue")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(relayClientLogin)
+                .setClientPasscode(relayClientPasscode)
+                .setSystemLogin(relaySystemLogin)
+                .setSystemPasscode(relaySystemPasscode)
+                .setSystemHeartbeatSendInterval(relayHeartbeatMs)
+                .setSystemHeartbeatReceiveInterval(relayHeartbeatMs)
+                .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                .setUserRegistryBroadcast("/topic/simp-user-registry");
+        
+        log.info("Relaying messages to the external STOMP broker at {}:{}", relayHost, relayPort);
     }
 
     /**
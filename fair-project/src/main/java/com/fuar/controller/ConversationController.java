@@ -3,6 +3,8 @@ package com.fuar.controller;
 import com.fuar.dto.ConversationDTO;
 import com.fuar.dto.ConversationListDTO;
 import com.fuar.dto.MessageDTO;
+import com.fuar.dto.MessagePageDTO;
+import com.fuar.dto.MessageResumeDTO;
 import com.fuar.dto.SendMessageRequest;
 import com.fuar.service.MessageService;
 import lombok.RequiredArgsConstructor;
@@ -39,6 +41,33 @@ public class ConversationController {
         return ResponseEntity.ok(messageService.getConversation(conversationId, currentUserId));
     }
 
+    /**
+     * Get a page of a conversation's history, oldest first.
+     * Without a cursor the newest messages are returned; use "before" to scroll back
+     * and "after" to fetch messages newer than a previously returned cursor.
+     */
+    @GetMapping("/{conversationId}/messages")
+    public ResponseEntity<MessagePageDTO> getMessages(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int size) {
+        Long currentUserId = getCurrentUserId();
+        return ResponseEntity.ok(messageService.getMessages(conversationId, currentUserId, before, after, size));
+    }
+
+    /**
+     * Get the messages sent after a sequence number, e.g. after a reconnect
+     */
+    @GetMapping("/{conversationId}/since")
+    public ResponseEntity<MessageResumeDTO> getMessagesSince(
+            @PathVariable Long conversationId,
+            @RequestParam("seq") long sequence,
+            @RequestParam(defaultValue = "200") int limit) {
+        Long currentUserId = getCurrentUserId();
+        return ResponseEntity.ok(messageService.getMessagesSince(conversationId, currentUserId, sequence, limit));
+    }
+
     /**
      * Get or create a conversation with another user
      */
@@ -13,19 +13,28 @@
 package com.fuar.controller;
 
 import com.fuar.dto.MessageDTO;
+import com.fuar.dto.MessageResumeDTO;
+import com.fuar.dto.ResumeRequest;
 import com.fuar.dto.SendMessageRequest;
 import com.fuar.dto.TypingIndicatorRequest;
+import com.fuar.exception.ErrorResponse;
+import com.fuar.exception.ResourceNotFoundException;
 import com.fuar.model.User;
 import com.fuar.service.MessageService;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -34,9 +43,13 @@ import java.util.Map;
  * Bu sınıf, kullanıcılar arasındaki gerçek zamanlı mesajlaşmayı yönetir.
  */
 @Controller
+@Slf4j
 @RequiredArgsConstructor
 public class WebSocketMessageController {
 
+    // Messages replayed per resume frame; clients resume again while hasMore is set
+    private static final int RESUME_BATCH_SIZE = 200;
+
     private final MessageService messageService;
     private final SimpMessagingTemplate messagingTemplate;
 
@@ -77,17 +90,9 @@ public class WebSocketMessageController {
                 System.out.println("Session attributes: " + headerAccessor.getSessionAttributes());
             }
             
-            // Send the message and let the service handle the WebSocket notification
+            // Send the message; the service delivers it to the recipient after its transaction commits
             MessageDTO messageDTO = messageService.sendMessage(senderId, messageRequest.getRecipientId(), messageRequest.getContent());
             
-            // Directly send message to recipient via WebSocket controller too
-            // This provides a redundant delivery path in case the service method fails
-            messagingTemplate.convertAndSendToUser(
-                    messageRequest.getRecipientId().toString(),
-                    "/queue/messages",
-                    messageDTO
-            );
-            
             // Log successful message processing
             System.out.println("Message processed successfully via WebSocket.");
             System.out.println("Created message with ID: " + messageDTO.getId());
@@ -113,6 +118,54 @@ public class WebSocketMessageController {
         messageService.markMessagesAsRead(conversationId, userId);
     }
     
+    /**
+     * Replay the messages a client missed while disconnected
+     * Clients will send to: /app/chat.resume with the last sequence number they have,
+     * and receive the missing messages on /user/queue/resume.
+     * Failures are answered on /user/queue/errors by {@link #handleException(Exception)}
+     */
+    @MessageMapping("/chat.resume")
+    public void resume(@Payload ResumeRequest request, Principal principal) {
+        if (principal == null) {
+            throw new IllegalStateException("User not authenticated");
+        }
+        
+        Long userId = extractUserId(principal);
+        long sequence = request.getSequence() != null ? request.getSequence() : 0L;
+        MessageResumeDTO missed = messageService.getMessagesSince(
+                request.getConversationId(), userId, sequence, RESUME_BATCH_SIZE);
+        
+        messagingTemplate.convertAndSendToUser(
+                userId.toString(),
+                "/queue/resume",
+                missed
+        );
+    }
+    
+    /**
+     * Report a failed WebSocket request to the session that sent it
+     * Clients subscribe to: /user/queue/errors
+     */
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public ErrorResponse handleException(Exception e) {
+        HttpStatus status;
+        if (e instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (e instanceof IllegalArgumentException || e instanceof IllegalStateException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+        }
+        
+        if (status == HttpStatus.INTERNAL_SERVER_ERROR) {
+            log.error("Error processing WebSocket request", e);
+        } else {
+            log.warn("Rejected WebSocket request: {}", e.getMessage());
+        }
+        return new ErrorResponse(status.value(), e.getMessage(), LocalDateTime.now());
+    }
+    
     /**
      * Handle typing indicator
      * Clients will send to: /app/chat.typing
@@ -20,5 +20,6 @@ public class ConversationDTO {
     private LocalDateTime updatedAt;
     private MessageDTO lastMessage;
     private int unreadCount;
-    private List<MessageDTO> messages;
+    private List<MessageDTO> messages; // Newest page only, oldest first
+    private String beforeCursor; // Pass to GET /{id}/messages?before= to load older messages
 }
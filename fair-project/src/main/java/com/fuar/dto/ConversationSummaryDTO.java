@@ -20,4 +20,5 @@ public class ConversationSummaryDTO {
     private String lastMessageContent;
     private LocalDateTime lastMessageTimestamp;
     private int unreadCount;
+    private long lastSequence; // Sequence of the newest message; a client behind this can resume from its own last sequence
 }
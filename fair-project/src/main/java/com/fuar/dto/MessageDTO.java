@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 public class MessageDTO {
     private Long id;
     private Long conversationId;
+    private Long sequence; // Position within the conversation, starting at 1 without gaps
     private UserDTO sender;
     private String content;
     private LocalDateTime timestamp;
@@ -0,0 +1,18 @@
+package com.fuar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessagePageDTO {
+    private List<MessageDTO> messages; // Oldest first
+    private String beforeCursor; // Pass as "before" to load older messages; null when the start of the history is reached
+    private String afterCursor; // Pass as "after" to load newer messages; a full page means more may follow
+}
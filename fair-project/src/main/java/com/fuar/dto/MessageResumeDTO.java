@@ -0,0 +1,19 @@
+package com.fuar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageResumeDTO {
+    private Long conversationId;
+    private List<MessageDTO> messages; // Messages after the requested sequence, in sequence order
+    private long lastSequence; // Sequence of the newest message in the conversation
+    private boolean hasMore; // True if the batch was full; resume again from the last returned sequence
+}
@@ -0,0 +1,15 @@
+package com.fuar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumeRequest {
+    private Long conversationId;
+    private Long sequence; // Last sequence number the client has; 0 to replay from the start
+}
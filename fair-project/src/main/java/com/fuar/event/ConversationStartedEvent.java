@@ -0,0 +1,15 @@
+package com.fuar.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a new conversation is created between two users.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ConversationStartedEvent {
+
+    private final Long initiatorId;
+    private final Long recipientId;
+}
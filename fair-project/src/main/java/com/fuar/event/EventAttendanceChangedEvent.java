@@ -0,0 +1,16 @@
+package com.fuar.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a user registers for or unregisters from an event.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EventAttendanceChangedEvent {
+
+    private final Long eventId;
+    private final Long userId;
+    private final boolean attending;
+}
@@ -0,0 +1,16 @@
+package com.fuar.event;
+
+import com.fuar.dto.MessageDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a chat message has been saved; delivered to the recipient after the transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MessageSentEvent {
+
+    private final Long recipientId;
+    private final MessageDTO message;
+}
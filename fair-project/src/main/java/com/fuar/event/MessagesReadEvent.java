@@ -0,0 +1,18 @@
+package com.fuar.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a user has read the messages of a conversation; the other participant
+ * receives a read receipt after the transaction commits.
+ */
+@Getter
+@RequiredArgsConstructor
+public class MessagesReadEvent {
+
+    private final Long conversationId;
+    private final Long readerId;
+    private final Long notifyUserId;
+    private final int count;
+}
@@ -0,0 +1,15 @@
+package com.fuar.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Published when a profile section that feeds recommendations changes
+ * (skills, profile fields, education, work experience or publications).
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserProfileChangedEvent {
+
+    private final Long userId;
+}
@@ -9,8 +9,8 @@ import com.fuar.model.Message;
 import com.fuar.model.User;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class MessageMapper {
@@ -26,6 +26,7 @@ public class MessageMapper {
         return MessageDTO.builder()
                 .id(message.getId())
                 .conversationId(message.getConversation().getId())
+                .sequence(message.getSequence())
                 .sender(toUserDTO(message.getSender()))
                 .content(message.getContent())
                 .timestamp(message.getTimestamp())
@@ -34,20 +35,16 @@ public class MessageMapper {
     }
 
     /**
-     * Convert a Conversation entity to ConversationDTO with messages
+     * Convert a Conversation entity to ConversationDTO with a page of its newest messages
      */
-    public ConversationDTO toConversationDTO(Conversation conversation, List<Message> messages, int unreadCount) {
+    public ConversationDTO toConversationDTO(Conversation conversation, List<MessageDTO> messages,
+                                             String beforeCursor, int unreadCount) {
         if (conversation == null) {
             return null;
         }
 
-        List<MessageDTO> messageDTOs = messages.stream()
-                .map(this::toMessageDTO)
-                .collect(Collectors.toList());
-
-        // Get the last message if there are any
-        MessageDTO lastMessage = messages.isEmpty() ? null : 
-                toMessageDTO(messages.get(messages.size() - 1));
+        // The last message comes from the conversation's pointer, not from the loaded page
+        MessageDTO lastMessage = toMessageDTO(conversation.getLastMessage());
 
         return ConversationDTO.builder()
                 .id(conversation.getId())
@@ -57,28 +54,28 @@ public class MessageMapper {
                 .updatedAt(conversation.getUpdatedAt())
                 .lastMessage(lastMessage)
                 .unreadCount(unreadCount)
-                .messages(messageDTOs)
+                .messages(messages)
+                .beforeCursor(beforeCursor)
                 .build();
     }
 
     /**
-     * Convert a Conversation entity to ConversationSummaryDTO
+     * Convert a Conversation entity to ConversationSummaryDTO.
+     * Reads only the conversation row and its last-message pointer, never the message list.
      */
-    public ConversationSummaryDTO toConversationSummaryDTO(Conversation conversation, User currentUser, int unreadCount) {
+    public ConversationSummaryDTO toConversationSummaryDTO(Conversation conversation, Long currentUserId, int unreadCount) {
         if (conversation == null) {
             return null;
         }
 
-        User otherUser = conversation.getInitiator().getId().equals(currentUser.getId()) 
+        User otherUser = conversation.getInitiator().getId().equals(currentUserId) 
                 ? conversation.getRecipient() 
                 : conversation.getInitiator();
 
         // Get last message content and timestamp
-        String lastMessageContent = null;
-        if (!conversation.getMessages().isEmpty()) {
-            Message lastMessage = conversation.getMessages().get(conversation.getMessages().size() - 1);
-            lastMessageContent = lastMessage.getContent();
-        }
+        Message lastMessage = conversation.getLastMessage();
+        String lastMessageContent = lastMessage != null ? lastMessage.getContent() : null;
+        LocalDateTime lastMessageTimestamp = lastMessage != null ? lastMessage.getTimestamp() : conversation.getUpdatedAt();
 
         return ConversationSummaryDTO.builder()
                 .id(conversation.getId())
@@ -87,8 +84,9 @@ public class MessageMapper {
                 .otherUser(toUserDTO(otherUser))
                 .updatedAt(conversation.getUpdatedAt())
                 .lastMessageContent(lastMessageContent)
-                .lastMessageTimestamp(conversation.getUpdatedAt())
+                .lastMessageTimestamp(lastMessageTimestamp)
                 .unreadCount(unreadCount)
+                .lastSequence(conversation.getLastSequence())
                 .build();
     }
 
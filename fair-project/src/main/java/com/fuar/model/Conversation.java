@@ -19,7 +19,10 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "conversations")
+@Table(name = "conversations", indexes = {
+        @Index(name = "idx_conversations_initiator_updated", columnList = "initiator_id, updated_at"),
+        @Index(name = "idx_conversations_recipient_updated", columnList = "recipient_id, updated_at")
+})
 public class Conversation {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -36,14 +39,41 @@ public class Conversation {
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
-    @Column(nullable = false)
+    @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    // Inbox read model: pointer to the newest message and per-participant unread counters,
+    // maintained in the send and mark-read transactions so the inbox never touches the messages table.
+    // No FK constraint, so deleting a conversation's messages does not depend on clearing the pointer first.
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_message_id", foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Message lastMessage;
+
+    // Sequence number of the newest message; incremented under a row lock for every message sent
+    @Column(nullable = false, columnDefinition = "bigint not null default 0")
+    @Builder.Default
+    private long lastSequence = 0;
+
+    // Messages sent by the recipient that the initiator has not read yet
+    @Column(nullable = false, columnDefinition = "integer not null default 0")
+    @Builder.Default
+    private int initiatorUnreadCount = 0;
+
+    // Messages sent by the initiator that the recipient has not read yet
+    @Column(nullable = false, columnDefinition = "integer not null default 0")
+    @Builder.Default
+    private int recipientUnreadCount = 0;
+
     @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("timestamp ASC") // Mesajları kronolojik sıraya göre getir
     @Builder.Default
     private List<Message> messages = new ArrayList<>();
 
+    // Unread message count for one of the participants
+    public int getUnreadCountFor(Long userId) {
+        return initiator.getId().equals(userId) ? initiatorUnreadCount : recipientUnreadCount;
+    }
+
     // Kolaylık için mesaj ekleme metodu
     public void addMessage(Message message) {
         messages.add(message);
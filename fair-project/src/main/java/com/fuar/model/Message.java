@@ -18,7 +18,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+        // Keyset pagination of a conversation's history by (timestamp, id)
+        @Index(name = "idx_messages_conversation_timestamp_id", columnList = "conversation_id, timestamp, id"),
+        // Gap-free resume: messages after a known sequence number are a range scan of this index
+        @Index(name = "uk_messages_conversation_sequence", columnList = "conversation_id, sequence", unique = true)
+})
 public class Message {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,4 +46,8 @@ public class Message {
 
     @Column(nullable = false)
     private boolean read;
+
+    // Position within the conversation, starting at 1 without gaps
+    @Column
+    private Long sequence;
 }
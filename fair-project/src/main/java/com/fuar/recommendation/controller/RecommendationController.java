@@ -1,25 +1,40 @@
 package com.fuar.recommendation.controller;
 
-import com.fuar.dto.UserDTO;
 import com.fuar.model.User;
 import com.fuar.recommendation.dto.RecommendationDTO;
 import com.fuar.recommendation.dto.RecommendationDetailDTO;
-import com.fuar.recommendation.dto.RecommendationReasonDTO;
+import com.fuar.recommendation.dto.RecommendationInteractionDTO;
+import com.fuar.recommendation.dto.RecommendationJobDTO;
+import com.fuar.recommendation.dto.RecommendationPageDTO;
+import com.fuar.recommendation.dto.ScoringWeightsDTO;
+import com.fuar.recommendation.index.FeatureFamily;
+import com.fuar.recommendation.index.ScoringWeights;
+import com.fuar.recommendation.job.RecommendationJob;
+import com.fuar.recommendation.job.RecommendationJobService;
+import com.fuar.recommendation.mapper.RecommendationMapper;
+import com.fuar.recommendation.model.RecommendationInteraction;
 import com.fuar.recommendation.model.RecommendationReason;
 import com.fuar.recommendation.model.UserRecommendation;
+import com.fuar.recommendation.service.RecommendationFeedbackService;
 import com.fuar.recommendation.service.RecommendationService;
+import com.fuar.recommendation.service.ScoringWeightsService;
 import com.fuar.service.UserService;
-import org.springdoc.core.annotations.ParameterObject;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -34,8 +49,15 @@ import java.util.stream.Collectors;
 @Tag(name = "Recommendations", description = "Kullanıcı öneri sistemi API'leri")
 public class RecommendationController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_FEEDBACK_BATCH = 500;
+
     private final RecommendationService recommendationService;
+    private final RecommendationFeedbackService feedbackService;
+    private final ScoringWeightsService scoringWeightsService;
     private final UserService userService;
+    private final RecommendationJobService recommendationJobService;
+    private final RecommendationMapper recommendationMapper;
 
     /**
      * Oturum açmış kullanıcı için önerileri getirir.
@@ -56,7 +78,7 @@ public class RecommendationController {
         List<UserRecommendation> recommendations = recommendationService.getRecommendationsForUser(user.getId(), limit);
         
         List<RecommendationDTO> dtos = recommendations.stream()
-                .map(this::convertToDTO)
+                .map(recommendationMapper::toRecommendationDTO)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(dtos);
@@ -79,7 +101,7 @@ public class RecommendationController {
         List<UserRecommendation> recommendations = recommendationService.getRecommendationsForUser(userId, limit);
         
         List<RecommendationDTO> dtos = recommendations.stream()
-                .map(this::convertToDTO)
+                .map(recommendationMapper::toRecommendationDTO)
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(dtos);
@@ -105,38 +127,90 @@ public class RecommendationController {
                 recommendationService.getRecommendationsWithReasonsForUser(user.getId(), limit);
         
         List<RecommendationDetailDTO> dtos = recommendationsWithReasons.entrySet().stream()
-                .map(entry -> convertToDetailDTO(entry.getKey(), entry.getValue()))
+                .map(entry -> recommendationMapper.toDetailDTO(entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(dtos);
     }
     
+    /**
+     * Oturum açmış kullanıcı için önerilerin bir sayfasını nedenleriyle birlikte getirir.
+     * İlk sayfa imleçsiz istenir; sonraki sayfalar bir önceki yanıttaki nextCursor ile alınır.
+     * 
+     * @param userDetails Oturum açmış kullanıcı detayları
+     * @param cursor Önceki sayfanın nextCursor değeri (ilk sayfa için boş)
+     * @param size Sayfa boyutu (varsayılan: 20, en fazla 100)
+     * @return Öneri sayfası
+     */
+    @GetMapping("/page")
+    @Operation(summary = "Kullanıcı için önerileri sayfalı getirir", 
+               description = "Oturum açmış kullanıcının önerilerini skor sırasında, imleç tabanlı sayfalarla ve nedenleriyle getirir")
+    public ResponseEntity<RecommendationPageDTO> getRecommendationPageForCurrentUser(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        
+        if (size < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        
+        Double afterScore = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                afterScore = Double.valueOf(decoded.substring(0, separator));
+                afterId = Long.valueOf(decoded.substring(separator + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+        
+        User user = userService.findUserByUsername(userDetails.getUsername());
+        
+        Map<UserRecommendation, List<RecommendationReason>> page = 
+                recommendationService.getRecommendationPage(user.getId(), afterScore, afterId, pageSize);
+        
+        RecommendationPageDTO dto = new RecommendationPageDTO();
+        dto.setItems(page.entrySet().stream()
+                .map(entry -> recommendationMapper.toDetailDTO(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+        
+        // Sayfa dolu değilse son sayfadır
+        UserRecommendation last = null;
+        for (UserRecommendation recommendation : page.keySet()) {
+            last = recommendation;
+        }
+        if (last != null && page.size() == pageSize) {
+            String position = last.getScore() + ":" + last.getId();
+            dto.setNextCursor(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(position.getBytes(StandardCharsets.UTF_8)));
+        }
+        
+        return ResponseEntity.ok(dto);
+    }
+    
     /**
      * Belirli bir öneri için detayları getirir.
      * 
+     * @param userDetails Oturum açmış kullanıcı detayları
      * @param recommendationId Öneri ID'si
-     * @return Detaylı öneri bilgisi
+     * @return Detaylı öneri bilgisi, öneri kullanıcıya ait değilse 404
      */
     @GetMapping("/{recommendationId}")
     @Operation(summary = "Belirli bir öneri için detayları getirir", 
-               description = "Belirli bir öneri için detaylı bilgi ve nedenler getirir")
+               description = "Oturum açmış kullanıcıya yapılmış bir öneri için detaylı bilgi ve nedenler getirir")
     public ResponseEntity<RecommendationDetailDTO> getRecommendationDetails(
+            @AuthenticationPrincipal UserDetails userDetails,
             @PathVariable Long recommendationId) {
         
-        UserRecommendation recommendation = recommendationService.getRecommendationsForUser(null, 100).stream()
-                .filter(r -> r.getId().equals(recommendationId))
-                .findFirst()
-                .orElse(null);
-        
-        if (recommendation == null) {
-            return ResponseEntity.notFound().build();
-        }
-        
-        List<RecommendationReason> reasons = recommendationService.getReasonsForRecommendation(recommendationId);
-        
-        RecommendationDetailDTO dto = convertToDetailDTO(recommendation, reasons);
+        User user = userService.findUserByUsername(userDetails.getUsername());
         
-        return ResponseEntity.ok(dto);
+        return recommendationService.getRecommendationDetail(recommendationId, user.getId())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
     
     /**
@@ -160,96 +234,202 @@ public class RecommendationController {
         UserRecommendation updatedRecommendation = 
                 recommendationService.updateRecommendationStatus(recommendationId, status);
         
-        return ResponseEntity.ok(convertToDTO(updatedRecommendation));
+        return ResponseEntity.ok(recommendationMapper.toRecommendationDTO(updatedRecommendation));
+    }
+    
+    /**
+     * Oturum açmış kullanıcının öneri etkileşimlerini (gösterim, tıklama, kabul, red) toplu olarak kaydeder.
+     * Olaylar arka planda gruplar halinde yazılır; yanıt olaylar tampona alındığında döner.
+     * 
+     * @param userDetails Oturum açmış kullanıcı detayları
+     * @param events Etkileşim olayları (en fazla 500)
+     * @return Kabul edilen olay sayısı
+     */
+    @PostMapping("/feedback")
+    @Operation(summary = "Öneri etkileşimlerini toplu kaydeder", 
+               description = "Gösterim, tıklama, kabul ve red olaylarını tek istekte kabul eder ve arka planda toplu olarak yazar")
+    public ResponseEntity<Map<String, Integer>> submitFeedback(
+            @AuthenticationPrincipal UserDetails userDetails,
+            @RequestBody List<RecommendationInteractionDTO> events) {
+        
+        if (events == null || events.isEmpty() || events.size() > MAX_FEEDBACK_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        User user = userService.findUserByUsername(userDetails.getUsername());
+        
+        long now = System.currentTimeMillis();
+        List<RecommendationInteraction> interactions = new ArrayList<>(events.size());
+        for (RecommendationInteractionDTO event : events) {
+            if (event.getRecommendationId() == null || event.getType() == null) {
+                return ResponseEntity.badRequest().build();
+            }
+            RecommendationInteraction.InteractionType type;
+            try {
+                type = RecommendationInteraction.InteractionType.valueOf(event.getType());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            // Gelecekteki zaman damgaları sunucu zamanına çekilir
+            long occurredAt = event.getOccurredAt() != null ? Math.min(event.getOccurredAt(), now) : now;
+            interactions.add(new RecommendationInteraction(
+                    event.getRecommendationId(), user.getId(), type, new Date(occurredAt)));
+        }
+        
+        if (!feedbackService.submit(interactions)) {
+            log.warn("Recommendation feedback buffer is full, rejecting {} events", interactions.size());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", interactions.size()));
     }
     
     /**
-     * Yöneticiler için öneri sistemini tetikler ve tüm kullanıcılar için öneriler üretir.
+     * Yöneticiler için öneri sistemini tetikler. Üretim arka planda çalışır; yanıt hemen
+     * iş bilgisiyle döner ve ilerleme /jobs/{jobId} üzerinden izlenir.
      * 
-     * @return Üretilen öneri sayısı
+     * @param recommendationsPerUser Her kullanıcı için oluşturulacak öneri sayısı
+     * @return Kuyruğa eklenen (ya da zaten aktif olan) iş
      */
     @PostMapping("/generate")
+    @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Öneri sistemini tetikler", 
-               description = "Tüm kullanıcılar için benzerlik hesaplamalarını ve öneri üretimini tetikler (yöneticiler için)")
-    public ResponseEntity<Map<String, Integer>> generateRecommendations(
+               description = "Tüm kullanıcılar için benzerlik hesaplamalarını ve öneri üretimini arka planda başlatır (yöneticiler için)")
+    public ResponseEntity<RecommendationJobDTO> generateRecommendations(
             @RequestParam(defaultValue = "5") int recommendationsPerUser) {
         
-        int count = recommendationService.generateRecommendationsForAllUsers(recommendationsPerUser);
-        
-        return ResponseEntity.ok(Map.of("generatedRecommendations", count));
+        RecommendationJob job = recommendationJobService.submit(recommendationsPerUser);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(convertToJobDTO(job));
     }
     
     /**
-     * UserRecommendation nesnesini RecommendationDTO'ya dönüştürür.
+     * Benzerlik skorunu oluşturan güncel aile ağırlıklarını getirir.
      * 
-     * @param recommendation Dönüştürülecek UserRecommendation nesnesi
-     * @return RecommendationDTO nesnesi
+     * @return Normalize edilmiş ağırlıklar
      */
-    private RecommendationDTO convertToDTO(UserRecommendation recommendation) {
-        User recommendedUser = recommendation.getRecommendedUser();
-        
-        RecommendationDTO dto = new RecommendationDTO();
-        dto.setId(recommendation.getId());
-        dto.setUserId(recommendation.getTargetUser().getId());
-        dto.setRecommendedUserId(recommendedUser.getId());
-        dto.setRecommendedUserName(recommendedUser.getName());
-        
-        // Kullanıcı adını ekleyelim
-        if (recommendedUser != null) {
-            dto.setRecommendedUserFullName(recommendedUser.getName() != null ? recommendedUser.getName() : "");
-            
-            // Önerilen kullanıcının tam bilgilerini de ekleyelim (profil resmi dahil)
-            UserDTO userDTO = UserDTO.builder()
-                    .id(recommendedUser.getId())
-                    .name(recommendedUser.getName())
-                    .email(recommendedUser.getEmail())
-                    .image(recommendedUser.getImage())
-                    .build();
-            dto.setRecommendedUser(userDTO);
-        }
+    @GetMapping("/weights")
+    @Operation(summary = "Skor ağırlıklarını getirir", 
+               description = "Benzerlik skorunda beceri, sektör, uzmanlık, ilgi alanı ve eğitim ailelerinin güncel ağırlıklarını getirir")
+    public ResponseEntity<ScoringWeightsDTO> getScoringWeights() {
+        return ResponseEntity.ok(convertToWeightsDTO(scoringWeightsService.reload()));
+    }
+    
+    /**
+     * Benzerlik skorunu oluşturan aile ağırlıklarını değiştirir.
+     * Komşular yeniden hesaplanmaz; saklanan aile benzerlikleri sonraki okumalarda yeni ağırlıklarla
+     * harmanlanır ve daha önce oluşturulan öneriler ilk okunduklarında arka planda yenilenir.
+     * Ağırlıklar veritabanına kaydedilir ve tüm uygulama örneklerinde geçerli olur.
+     * 
+     * @param request Yeni ağırlıklar (boş aileler değişmez)
+     * @return Normalize edilmiş yeni ağırlıklar
+     */
+    @PutMapping("/weights")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Skor ağırlıklarını değiştirir", 
+               description = "Aile ağırlıklarını yeniden hesaplama yapmadan günceller; ağırlıklar toplamı 1 olacak şekilde normalize edilir (yöneticiler için)")
+    public ResponseEntity<ScoringWeightsDTO> updateScoringWeights(@RequestBody ScoringWeightsDTO request) {
+        Map<FeatureFamily, Double> weights = new EnumMap<>(FeatureFamily.class);
+        weights.put(FeatureFamily.SKILL, request.getSkill());
+        weights.put(FeatureFamily.SECTOR, request.getSector());
+        weights.put(FeatureFamily.EXPERTISE, request.getExpertise());
+        weights.put(FeatureFamily.INTEREST, request.getInterest());
+        weights.put(FeatureFamily.EDUCATION, request.getEducation());
         
-        dto.setScore(recommendation.getScore());
-        dto.setStatus(recommendation.getStatus() != null ? recommendation.getStatus().name() : "NEW");
-        dto.setCreatedAt(recommendation.getCreatedAt() != null ? recommendation.getCreatedAt().getTime() : null);
+        try {
+            return ResponseEntity.ok(convertToWeightsDTO(scoringWeightsService.update(weights)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected scoring weights update: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Son öneri üretim işlerini getirir.
+     * 
+     * @return İş listesi (en yeniden en eskiye)
+     */
+    @GetMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Öneri üretim işlerini listeler", 
+               description = "Son öneri üretim işlerini durum ve ilerleme bilgileriyle getirir (yöneticiler için)")
+    public ResponseEntity<List<RecommendationJobDTO>> getGenerationJobs() {
+        List<RecommendationJobDTO> dtos = recommendationJobService.getRecentJobs().stream()
+                .map(this::convertToJobDTO)
+                .collect(Collectors.toList());
         
-        return dto;
+        return ResponseEntity.ok(dtos);
     }
     
     /**
-     * UserRecommendation ve RecommendationReason nesnelerini RecommendationDetailDTO'ya dönüştürür.
+     * Bir öneri üretim işinin durumunu ve ilerlemesini getirir.
      * 
-     * @param recommendation Dönüştürülecek UserRecommendation nesnesi
-     * @param reasons Dönüştürülecek RecommendationReason nesneleri
-     * @return RecommendationDetailDTO nesnesi
+     * @param jobId İş ID'si
+     * @return İş bilgisi
      */
-    private RecommendationDetailDTO convertToDetailDTO(UserRecommendation recommendation, List<RecommendationReason> reasons) {
-        RecommendationDetailDTO dto = new RecommendationDetailDTO();
-        dto.setRecommendation(convertToDTO(recommendation));
-        
-        List<RecommendationReasonDTO> reasonDTOs = new ArrayList<>();
-        if (reasons != null) {
-            reasonDTOs = reasons.stream()
-                    .map(this::convertToReasonDTO)
-                    .collect(Collectors.toList());
-        }
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Öneri üretim işinin durumunu getirir", 
+               description = "Bir öneri üretim işinin aşamasını, sayaçlarını ve sonucunu getirir (yöneticiler için)")
+    public ResponseEntity<RecommendationJobDTO> getGenerationJob(@PathVariable String jobId) {
+        return recommendationJobService.getJob(jobId)
+                .map(job -> ResponseEntity.ok(convertToJobDTO(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Bir öneri üretim işini iptal eder.
+     * 
+     * @param jobId İş ID'si
+     * @return İptal istenen iş bilgisi
+     */
+    @DeleteMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Öneri üretim işini iptal eder", 
+               description = "Kuyruktaki işi hemen, çalışan işi bir sonraki kontrol noktasında durdurur (yöneticiler için)")
+    public ResponseEntity<RecommendationJobDTO> cancelGenerationJob(@PathVariable String jobId) {
+        return recommendationJobService.cancel(jobId)
+                .map(job -> ResponseEntity.ok(convertToJobDTO(job)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * RecommendationJob nesnesini RecommendationJobDTO'ya dönüştürür.
+     * 
+     * @param job Dönüştürülecek RecommendationJob nesnesi
+     * @return RecommendationJobDTO nesnesi
+     */
+    private RecommendationJobDTO convertToJobDTO(RecommendationJob job) {
+        RecommendationJobDTO dto = new RecommendationJobDTO();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus().name());
+        dto.setPhase(job.getPhase() != null ? job.getPhase().name() : null);
+        dto.setRecommendationsPerUser(job.getRecommendationsPerUser());
+        dto.setUsersProcessed(job.getUsersProcessed());
+        dto.setPairsScored(job.getPairsScored());
+        dto.setRowsWritten(job.getRowsWritten());
+        dto.setGeneratedRecommendations(job.getGeneratedRecommendations());
+        dto.setErrorMessage(job.getErrorMessage());
+        dto.setSubmittedAt(job.getSubmittedAt().getTime());
+        dto.setStartedAt(job.getStartedAt() != null ? job.getStartedAt().getTime() : null);
+        dto.setFinishedAt(job.getFinishedAt() != null ? job.getFinishedAt().getTime() : null);
         
-        dto.setReasons(reasonDTOs);
         return dto;
     }
     
     /**
-     * RecommendationReason nesnesini RecommendationReasonDTO'ya dönüştürür.
+     * ScoringWeights nesnesini ScoringWeightsDTO'ya dönüştürür.
      * 
-     * @param reason Dönüştürülecek RecommendationReason nesnesi
-     * @return RecommendationReasonDTO nesnesi
+     * @param weights Dönüştürülecek ağırlıklar
+     * @return ScoringWeightsDTO nesnesi
      */
-    private RecommendationReasonDTO convertToReasonDTO(RecommendationReason reason) {
-        RecommendationReasonDTO dto = new RecommendationReasonDTO();
-        dto.setId(reason.getId());
-        dto.setType(reason.getType());
-        dto.setDescription(reason.getDescription());
-        dto.setScore(reason.getScore());
-        
+    private ScoringWeightsDTO convertToWeightsDTO(ScoringWeights weights) {
+        ScoringWeightsDTO dto = new ScoringWeightsDTO();
+        dto.setSkill(weights.weight(FeatureFamily.SKILL));
+        dto.setSector(weights.weight(FeatureFamily.SECTOR));
+        dto.setExpertise(weights.weight(FeatureFamily.EXPERTISE));
+        dto.setInterest(weights.weight(FeatureFamily.INTEREST));
+        dto.setEducation(weights.weight(FeatureFamily.EDUCATION));
+        dto.setUpdatedAt(weights.getUpdatedAt());
         return dto;
     }
 }
@@ -0,0 +1,14 @@
+package com.fuar.recommendation.dto;
+
+import lombok.Data;
+
+/**
+ * İstemcinin bildirdiği öneri etkileşimi için DTO (Data Transfer Object) sınıfı.
+ */
+@Data
+public class RecommendationInteractionDTO {
+    
+    private Long recommendationId;
+    private String type;        // IMPRESSION, CLICK, ACCEPT, REJECT
+    private Long occurredAt;    // Epoch milisaniye; boşsa sunucu zamanı kullanılır
+}
@@ -0,0 +1,23 @@
+package com.fuar.recommendation.dto;
+
+import lombok.Data;
+
+/**
+ * Arka plan öneri üretim işi için DTO (Data Transfer Object) sınıfı.
+ */
+@Data
+public class RecommendationJobDTO {
+    
+    private String id;
+    private String status;
+    private String phase;
+    private Integer recommendationsPerUser;
+    private Long usersProcessed;
+    private Long pairsScored;
+    private Long rowsWritten;
+    private Integer generatedRecommendations;
+    private String errorMessage;
+    private Long submittedAt;
+    private Long startedAt;
+    private Long finishedAt;
+}
@@ -0,0 +1,15 @@
+package com.fuar.recommendation.dto;
+
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Sayfalı öneri listesi için DTO (Data Transfer Object) sınıfı.
+ * Sonraki sayfa için opak bir imleç içerir; son sayfada imleç null'dır.
+ */
+@Data
+public class RecommendationPageDTO {
+    
+    private List<RecommendationDetailDTO> items;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.fuar.recommendation.dto;
+
+import lombok.Data;
+
+/**
+ * Benzerlik skoru aile ağırlıkları için DTO (Data Transfer Object) sınıfı.
+ * Güncellemede boş bırakılan aileler mevcut ağırlıklarını korur.
+ */
+@Data
+public class ScoringWeightsDTO {
+    
+    private Double skill;
+    private Double sector;
+    private Double expertise;
+    private Double interest;
+    private Double education;
+    private Long updatedAt;     // Epoch milisaniye; yapılandırmadan gelen ağırlıklar için 0
+}
@@ -0,0 +1,16 @@
+package com.fuar.recommendation.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Bir kullanıcının kayıtlı önerilerinin eksik ya da eski olduğu okuma sırasında fark edildiğinde yayınlanır.
+ * Yenileme arka planda yapılır; okuma isteği beklemez.
+ */
+@Getter
+@RequiredArgsConstructor
+public class RecommendationRefreshRequestedEvent {
+
+    private final Long userId;
+    private final int count;
+}
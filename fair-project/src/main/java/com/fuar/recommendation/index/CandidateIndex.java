@@ -0,0 +1,35 @@
+package com.fuar.recommendation.index;
+
+/**
+ * Bir sorgu kullanıcısı için aday komşuları bulup skorlarını biriktiren değiştirilemez indeks.
+ * Kullanıcılar indeks içinde 0..size-1 arası sıra numaralarıyla (dense index) adreslenir.
+ */
+public interface CandidateIndex {
+
+    /**
+     * Sorgu kullanıcısının aday komşularının skorlarını biriktirir. Sorgu kullanıcısının kendisi biriktirilmez.
+     *
+     * @param query Sorgu vektörü
+     * @param accumulator Sıfırlanmış skor tamponu (en az {@link #size()} boyutunda)
+     * @param weights Aile benzerliklerini harmanlayan güncel ağırlıklar
+     */
+    void accumulate(SparseFeatureVector query, ScoreAccumulator accumulator, ScoringWeights weights);
+
+    /**
+     * İndeksteki kullanıcı sayısı.
+     */
+    int size();
+
+    /**
+     * Sıra numarasındaki kullanıcının vektörü.
+     */
+    SparseFeatureVector vectorAt(int denseIndex);
+
+    /**
+     * Kullanıcının indeks içindeki sıra numarası.
+     *
+     * @param userId Kullanıcı ID'si
+     * @return Sıra numarası, kullanıcı indekste yoksa -1
+     */
+    int denseIndexOf(Long userId);
+}
@@ -0,0 +1,188 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.event.EventAttendanceChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Kullanıcı × etkinlik katılım matrisini seyrek komşuluk listeleri olarak bellekte tutan indeks.
+ * Her kullanıcı için katıldığı etkinliklerin, her etkinlik için katılımcıların sıralı {@code long[]} listesi saklanır.
+ * İki kullanıcının ortak etkinlik sayısı listelerin birleştirilmesiyle, çift başına SQL sorgusu olmadan bulunur.
+ * <p>
+ * İndeks ilk kullanımda {@code event_attendees} tablosundan yüklenir, katılım değişiklikleriyle artımlı olarak
+ * güncellenir ve tam öneri üretiminde yeniden oluşturulur.
+ */
+@Component
+@Slf4j
+public class CoAttendanceIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxEventSize;
+
+    private volatile Map<Long, long[]> eventsByUser = new ConcurrentHashMap<>();
+    private volatile Map<Long, long[]> usersByEvent = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    public CoAttendanceIndex(JdbcTemplate jdbcTemplate,
+                             @Value("${recommendation.co-attendance.max-event-size:1000}") int maxEventSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxEventSize = maxEventSize;
+    }
+
+    /**
+     * Katılım matrisini veritabanından yeniden oluşturur.
+     *
+     * @return Yüklenen katılım kaydı sayısı
+     */
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, Set<Long>> userEvents = new HashMap<>();
+        Map<Long, Set<Long>> eventUsers = new HashMap<>();
+        int[] rows = new int[1];
+
+        jdbcTemplate.query("SELECT user_id, event_id FROM event_attendees", rs -> {
+            long userId = rs.getLong(1);
+            long eventId = rs.getLong(2);
+            userEvents.computeIfAbsent(userId, key -> new HashSet<>()).add(eventId);
+            eventUsers.computeIfAbsent(eventId, key -> new HashSet<>()).add(userId);
+            rows[0]++;
+        });
+
+        eventsByUser = toSortedArrays(userEvents);
+        usersByEvent = toSortedArrays(eventUsers);
+        loaded = true;
+        log.info("Co-attendance index rebuilt: {} registrations, {} users, {} events in {} ms",
+                rows[0], userEvents.size(), eventUsers.size(), System.currentTimeMillis() - start);
+        return rows[0];
+    }
+
+    /**
+     * İki kullanıcının birlikte katıldığı etkinlik sayısı.
+     *
+     * @param userId Birinci kullanıcı ID'si
+     * @param otherId İkinci kullanıcı ID'si
+     * @return Ortak etkinlik sayısı
+     */
+    public int sharedEvents(Long userId, Long otherId) {
+        ensureLoaded();
+        return SortedLongArrays.intersectionCount(eventsOf(userId), eventsOf(otherId));
+    }
+
+    /**
+     * İki kullanıcının katılım vektörleri arasındaki kosinüs benzerliği:
+     * ortak etkinlik sayısı / √(|E₁|·|E₂|). Değer 0 ile 1 arasındadır.
+     *
+     * @param userId Birinci kullanıcı ID'si
+     * @param otherId İkinci kullanıcı ID'si
+     * @return Birlikte katılım skoru
+     */
+    public double score(Long userId, Long otherId) {
+        ensureLoaded();
+        long[] events = eventsOf(userId);
+        long[] otherEvents = eventsOf(otherId);
+        if (events.length == 0 || otherEvents.length == 0) {
+            return 0.0;
+        }
+        int shared = SortedLongArrays.intersectionCount(events, otherEvents);
+        return shared / Math.sqrt((double) events.length * otherEvents.length);
+    }
+
+    /**
+     * Kullanıcıyla en çok etkinliği paylaşan kullanıcıları birlikte katılım skoruna göre bulur.
+     * Katılımcı sayısı sınırı aşan etkinlikler aday üretiminde atlanır; bu etkinlikler
+     * neredeyse herkesi aday yapar ve ayırt edici değildir.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param limit En fazla aday sayısı
+     * @param excluded Hariç tutulan adaylar
+     * @return Skora göre sıralanabilir aday heap'i
+     */
+    public TopKNeighbors topCoAttendees(Long userId, int limit, LongPredicate excluded) {
+        ensureLoaded();
+        TopKNeighbors result = new TopKNeighbors(Math.max(1, limit));
+        long[] events = eventsOf(userId);
+        if (events.length == 0) {
+            return result;
+        }
+
+        Map<Long, int[]> sharedCounts = new HashMap<>();
+        for (long eventId : events) {
+            long[] attendees = usersByEvent.getOrDefault(eventId, SortedLongArrays.EMPTY);
+            if (attendees.length > maxEventSize) {
+                continue;
+            }
+            for (long attendee : attendees) {
+                if (!excluded.test(attendee)) {
+                    sharedCounts.computeIfAbsent(attendee, key -> new int[1])[0]++;
+                }
+            }
+        }
+
+        for (Map.Entry<Long, int[]> entry : sharedCounts.entrySet()) {
+            int otherEventCount = eventsOf(entry.getKey()).length;
+            float score = (float) (entry.getValue()[0] / Math.sqrt((double) events.length * otherEventCount));
+            result.offer(entry.getKey(), score);
+        }
+        return result;
+    }
+
+    /**
+     * Etkinlik kaydı değiştiğinde matrisi günceller.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAttendanceChanged(EventAttendanceChangedEvent event) {
+        if (!loaded) {
+            // İlk yükleme bu değişikliği zaten içerecek
+            return;
+        }
+        long userId = event.getUserId();
+        long eventId = event.getEventId();
+        if (event.isAttending()) {
+            eventsByUser.compute(userId, (key, ids) -> SortedLongArrays.insert(orEmpty(ids), eventId));
+            usersByEvent.compute(eventId, (key, ids) -> SortedLongArrays.insert(orEmpty(ids), userId));
+        } else {
+            eventsByUser.computeIfPresent(userId, (key, ids) -> emptyToNull(SortedLongArrays.remove(ids, eventId)));
+            usersByEvent.computeIfPresent(eventId, (key, ids) -> emptyToNull(SortedLongArrays.remove(ids, userId)));
+        }
+    }
+
+    private long[] eventsOf(Long userId) {
+        return eventsByUser.getOrDefault(userId, SortedLongArrays.EMPTY);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    private static Map<Long, long[]> toSortedArrays(Map<Long, Set<Long>> source) {
+        Map<Long, long[]> result = new ConcurrentHashMap<>(source.size() * 2);
+        for (Map.Entry<Long, Set<Long>> entry : source.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray());
+        }
+        return result;
+    }
+
+    private static long[] orEmpty(long[] ids) {
+        return ids != null ? ids : SortedLongArrays.EMPTY;
+    }
+
+    private static long[] emptyToNull(long[] ids) {
+        return ids.length == 0 ? null : ids;
+    }
+}
@@ -0,0 +1,124 @@
+package com.fuar.recommendation.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Değiştirilemez bir temel aday indeksinin üzerine, temel indeks oluşturulduktan sonra değişen vektörleri
+ * ekleyen değiştirilemez görünüm.
+ * <p>
+ * Temel indekste bulunan ve sonradan değişen kullanıcılar sıra numaralarını korur; temel indeksin onlar için
+ * biriktirdiği eski skor, yeni vektörle tam benzerlik hesabının sonucuyla değiştirilir (silinen kullanıcılar
+ * için 0). Temel indekste olmayan yeni kullanıcılar {@code base.size()} numarasından itibaren sıralanır ve
+ * tam benzerlikleriyle biriktirilir. Böylece her değişiklikte tüm indeks yeniden oluşturulmaz; değişiklik
+ * sayısı büyüdüğünde {@link FeatureVectorIndex} yeni bir temel indeks oluşturur.
+ */
+final class DeltaCandidateIndex implements CandidateIndex {
+
+    private final CandidateIndex base;
+    private final int baseSize;
+
+    // Temel indekste bulunan değişmiş kullanıcıların sıra numaraları (artan) ve yeni vektörleri
+    private final int[] changedIndexes;
+    private final SparseFeatureVector[] changedVectors;
+
+    // Temel indekste bulunmayan yeni kullanıcılar
+    private final SparseFeatureVector[] added;
+    private final Map<Long, Integer> addedIndexByUserId;
+
+    // Değişiklik haritasının kopyası; null değer silinen kullanıcıdır
+    private final Map<Long, SparseFeatureVector> changes;
+
+    /**
+     * @param base Temel aday indeksi
+     * @param changes Temel indeksten sonra değişen kullanıcılar; null değer silinen kullanıcıdır
+     */
+    DeltaCandidateIndex(CandidateIndex base, Map<Long, SparseFeatureVector> changes) {
+        this.base = base;
+        this.baseSize = base.size();
+        this.changes = new HashMap<>(changes);
+
+        List<Map.Entry<Integer, SparseFeatureVector>> changed = new ArrayList<>();
+        List<SparseFeatureVector> newUsers = new ArrayList<>();
+        for (Map.Entry<Long, SparseFeatureVector> entry : changes.entrySet()) {
+            int denseIndex = base.denseIndexOf(entry.getKey());
+            SparseFeatureVector vector = entry.getValue();
+            if (denseIndex >= 0) {
+                // Silinen kullanıcı terimsiz vektörle temsil edilir; hiçbir adayla skoru olmaz
+                changed.add(Map.entry(denseIndex, vector != null ? vector : SparseFeatureVector.empty(entry.getKey())));
+            } else if (vector != null) {
+                newUsers.add(vector);
+            }
+        }
+
+        changed.sort(Map.Entry.comparingByKey());
+        this.changedIndexes = new int[changed.size()];
+        this.changedVectors = new SparseFeatureVector[changed.size()];
+        for (int i = 0; i < changedIndexes.length; i++) {
+            changedIndexes[i] = changed.get(i).getKey();
+            changedVectors[i] = changed.get(i).getValue();
+        }
+
+        this.added = newUsers.toArray(new SparseFeatureVector[0]);
+        this.addedIndexByUserId = new HashMap<>(added.length * 2);
+        for (int i = 0; i < added.length; i++) {
+            addedIndexByUserId.put(added[i].getUserId(), baseSize + i);
+        }
+    }
+
+    /**
+     * Temel indeksin skorlarını biriktirir, ardından değişen ve yeni kullanıcıların skorlarını
+     * yeni vektörleriyle tam olarak hesaplar.
+     */
+    @Override
+    public void accumulate(SparseFeatureVector query, ScoreAccumulator accumulator, ScoringWeights weights) {
+        base.accumulate(query, accumulator, weights);
+
+        Long queryUserId = query.getUserId();
+        for (int i = 0; i < changedIndexes.length; i++) {
+            SparseFeatureVector vector = changedVectors[i];
+            if (!vector.getUserId().equals(queryUserId)) {
+                accumulator.set(changedIndexes[i], (float) query.similarity(vector, weights));
+            }
+        }
+        for (int i = 0; i < added.length; i++) {
+            if (!added[i].getUserId().equals(queryUserId)) {
+                accumulator.add(baseSize + i, (float) query.similarity(added[i], weights));
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return baseSize + added.length;
+    }
+
+    /**
+     * Sıra numarasındaki kullanıcının güncel vektörü; silinen kullanıcılar için terimsiz bir vektör döner.
+     */
+    @Override
+    public SparseFeatureVector vectorAt(int denseIndex) {
+        if (denseIndex >= baseSize) {
+            return added[denseIndex - baseSize];
+        }
+        int position = Arrays.binarySearch(changedIndexes, denseIndex);
+        return position >= 0 ? changedVectors[position] : base.vectorAt(denseIndex);
+    }
+
+    @Override
+    public int denseIndexOf(Long userId) {
+        if (changes.containsKey(userId)) {
+            if (changes.get(userId) == null) {
+                return -1;
+            }
+            Integer addedIndex = addedIndexByUserId.get(userId);
+            if (addedIndex != null) {
+                return addedIndex;
+            }
+        }
+        return base.denseIndexOf(userId);
+    }
+}
@@ -0,0 +1,224 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.event.ConversationStartedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Her kullanıcı için bir daha önerilmeyecek kullanıcıları tutan bellek içi indeks:
+ * reddedilmiş öneriler ve mevcut konuşma partnerleri. Kullanıcının kendisi her zaman hariçtir.
+ * <p>
+ * Her kullanıcının hariç listesi sıralı bir {@code long[]} olarak tutulur; aday kontrolü ikili arama ile yapılır.
+ * İndeks ilk kullanımda {@code user_recommendation} durum geçmişinden ve {@code conversations} tablosundan yüklenir,
+ * sonrasında ret, geri alınan ret ve yeni konuşma olaylarıyla güncellenir. Başka düğümlerde yapılan değişiklikler bu
+ * olayları üretmediği için dağıtık üretim her turdan önce {@link #rebuild()} ile tabloları yeniden okur.
+ */
+@Component
+@Slf4j
+public class ExclusionIndex {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, long[]> excluded = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    // Yeniden okuma sürerken yapılan değişiklikler {kullanıcı, aday, 1 = hariç / 0 = dahil}; okuma yokken null
+    private final Object changeLock = new Object();
+    private List<long[]> changesDuringRebuild;
+
+    public ExclusionIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Kullanıcı için hariç tutulan adayları test eden bir koşul döndürür.
+     * Koşul çağrı anındaki listeyi kullanır; tek bir hesaplama boyunca tekrar tekrar çağrılabilir.
+     *
+     * @param userId Kullanıcı ID'si
+     * @return Aday hariç tutuluyorsa true dönen koşul
+     */
+    public LongPredicate exclusionsFor(Long userId) {
+        ensureLoaded();
+        long self = userId;
+        long[] ids = excluded.getOrDefault(userId, SortedLongArrays.EMPTY);
+        if (ids.length == 0) {
+            return candidate -> candidate == self;
+        }
+        return candidate -> candidate == self || SortedLongArrays.contains(ids, candidate);
+    }
+
+    /**
+     * Adayın kullanıcıya önerilip önerilemeyeceğini kontrol eder.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param candidateId Aday kullanıcı ID'si
+     * @return Aday hariç tutuluyorsa true
+     */
+    public boolean isExcluded(Long userId, Long candidateId) {
+        return exclusionsFor(userId).test(candidateId);
+    }
+
+    /**
+     * Adayı kullanıcının hariç listesine ekler.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param candidateId Bir daha önerilmeyecek kullanıcı ID'si
+     */
+    public void exclude(Long userId, Long candidateId) {
+        ensureLoaded();
+        synchronized (changeLock) {
+            apply(userId, candidateId, true);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(new long[]{userId, candidateId, 1});
+            }
+        }
+    }
+
+    /**
+     * Reddi geri alınan adayı kullanıcının hariç listesinden çıkarır. Çift başka bir nedenle (konuşma ya da
+     * aynı adayın başka bir reddi) hâlâ hariç tutuluyorsa listede kalır; bu yüzden değişiklik kaydedildikten
+     * sonra çağrılmalıdır.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param candidateId Yeniden önerilebilecek kullanıcı ID'si
+     */
+    public void include(Long userId, Long candidateId) {
+        ensureLoaded();
+        long[] ids = excluded.get(userId);
+        if (ids == null || !SortedLongArrays.contains(ids, candidateId) || isStillExcluded(userId, candidateId)) {
+            return;
+        }
+        synchronized (changeLock) {
+            apply(userId, candidateId, false);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(new long[]{userId, candidateId, 0});
+            }
+        }
+    }
+
+    /**
+     * Hariç tutma çiftlerini veritabanından yeniden okur ve her kullanıcının listesini okunan listeyle değiştirir.
+     * Okuma sürerken yerel olarak yapılan değişiklikler okunan listelerin üzerine yeniden uygulanır.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (changeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        Map<Long, long[]> fresh;
+        try {
+            fresh = read();
+        } catch (RuntimeException e) {
+            synchronized (changeLock) {
+                changesDuringRebuild = null;
+            }
+            throw e;
+        }
+        synchronized (changeLock) {
+            excluded.putAll(fresh);
+            excluded.keySet().retainAll(fresh.keySet());
+            for (long[] change : changesDuringRebuild) {
+                apply(change[0], change[1], change[2] == 1);
+            }
+            changesDuringRebuild = null;
+        }
+        loaded = true;
+        log.info("Exclusion index reloaded: {} users in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Yeni bir konuşma başladığında iki kullanıcı birbirine önerilmez.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConversationStarted(ConversationStartedEvent event) {
+        exclude(event.getInitiatorId(), event.getRecipientId());
+        exclude(event.getRecipientId(), event.getInitiatorId());
+    }
+
+    /**
+     * Kayıtlı kullanıcı sayısı (en az bir hariç adayı olan kullanıcılar).
+     */
+    public int size() {
+        ensureLoaded();
+        return excluded.size();
+    }
+
+    private void apply(long userId, long candidateId, boolean exclude) {
+        if (exclude) {
+            excluded.compute(userId, (key, ids) ->
+                    SortedLongArrays.insert(ids != null ? ids : SortedLongArrays.EMPTY, candidateId));
+        } else {
+            excluded.computeIfPresent(userId, (key, ids) -> {
+                long[] remaining = SortedLongArrays.remove(ids, candidateId);
+                return remaining.length > 0 ? remaining : null;
+            });
+        }
+    }
+
+    private boolean isStillExcluded(Long userId, Long candidateId) {
+        Boolean excludedPair = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM user_recommendation " +
+                "WHERE target_user_id = ? AND recommended_user_id = ? AND status = 'REJECTED') " +
+                "OR EXISTS (SELECT 1 FROM conversations " +
+                "WHERE (initiator_id = ? AND recipient_id = ?) OR (initiator_id = ? AND recipient_id = ?))",
+                Boolean.class, userId, candidateId, userId, candidateId, candidateId, userId);
+        return Boolean.TRUE.equals(excludedPair);
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    load();
+                    loaded = true;
+                }
+            }
+        }
+    }
+
+    private void load() {
+        long start = System.currentTimeMillis();
+        long pairs = 0;
+        for (Map.Entry<Long, long[]> entry : read().entrySet()) {
+            pairs += entry.getValue().length;
+            excluded.put(entry.getKey(), entry.getValue());
+        }
+        log.info("Exclusion index loaded: {} pairs for {} users in {} ms",
+                pairs, excluded.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Reddedilen önerileri ve konuşma partnerlerini kullanıcı başına sıralı dizi olarak okur.
+     */
+    private Map<Long, long[]> read() {
+        Map<Long, Set<Long>> pending = new HashMap<>();
+
+        jdbcTemplate.query(
+                "SELECT target_user_id, recommended_user_id FROM user_recommendation WHERE status = 'REJECTED'",
+                rs -> {
+                    pending.computeIfAbsent(rs.getLong(1), key -> new HashSet<>()).add(rs.getLong(2));
+                });
+        jdbcTemplate.query(
+                "SELECT initiator_id, recipient_id FROM conversations",
+                rs -> {
+                    pending.computeIfAbsent(rs.getLong(1), key -> new HashSet<>()).add(rs.getLong(2));
+                    pending.computeIfAbsent(rs.getLong(2), key -> new HashSet<>()).add(rs.getLong(1));
+                });
+
+        Map<Long, long[]> sorted = new HashMap<>(pending.size() * 2);
+        for (Map.Entry<Long, Set<Long>> entry : pending.entrySet()) {
+            sorted.put(entry.getKey(), entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray());
+        }
+        return sorted;
+    }
+}
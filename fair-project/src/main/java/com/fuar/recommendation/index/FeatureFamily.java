@@ -0,0 +1,42 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.recommendation.model.UserFeatureVector;
+
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Özellik vektöründeki özellik aileleri ve benzerlik hesabındaki varsayılan ağırlıkları.
+ */
+public enum FeatureFamily {
+    SKILL(0.3, UserFeatureVector::getSkillWeights),
+    SECTOR(0.2, UserFeatureVector::getSectorWeights),
+    EXPERTISE(0.2, UserFeatureVector::getExpertiseWeights),
+    INTEREST(0.15, UserFeatureVector::getInterestWeights),
+    EDUCATION(0.15, UserFeatureVector::getEducationFieldWeights);
+
+    private final double defaultWeight;
+    private final Function<UserFeatureVector, Map<Integer, Double>> accessor;
+
+    FeatureFamily(double defaultWeight, Function<UserFeatureVector, Map<Integer, Double>> accessor) {
+        this.defaultWeight = defaultWeight;
+        this.accessor = accessor;
+    }
+
+    /**
+     * Ağırlıklı ortalamada bu aileye verilen varsayılan ağırlık.
+     */
+    public double getDefaultWeight() {
+        return defaultWeight;
+    }
+
+    /**
+     * Özellik vektöründen bu aileye ait terim kimliği-ağırlık eşlemesini döndürür.
+     *
+     * @param featureVector Özellik vektörü
+     * @return Terim kimliği-ağırlık eşlemesi (null olabilir)
+     */
+    public Map<Integer, Double> weightsOf(UserFeatureVector featureVector) {
+        return accessor.apply(featureVector);
+    }
+}
@@ -0,0 +1,366 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.recommendation.model.UserFeatureVector;
+import com.fuar.recommendation.repository.UserFeatureVectorRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tüm kullanıcıların özellik vektörlerini bir kez yükleyip bellekte kompakt biçimde tutan indeks.
+ * Benzerlik hesapları her kullanıcı çifti için veritabanına gitmek yerine bu indeks üzerinden yapılır.
+ * <p>
+ * Aday indeksi (ters indeks veya MinHash/LSH) her değişiklikte yeniden oluşturulmaz: değişen vektörler küçük
+ * bir fark kümesinde tutulur ve son oluşturulan temel indeksin üzerine {@link DeltaCandidateIndex} olarak
+ * eklenir. Fark kümesi {@code recommendation.candidates.max-delta} sınırını aşınca yeni temel indeks arka
+ * planda oluşturulur; bu sırada okuyucular önceki temel indeksi ve fark kümesini kullanmaya devam eder.
+ */
+@Component
+@Slf4j
+public class FeatureVectorIndex implements DisposableBean {
+
+    private final UserFeatureVectorRepository featureVectorRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private volatile Map<Long, SparseFeatureVector> vectors = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+    private final AtomicLong modificationCount = new AtomicLong();
+
+    // Yazmalar, harita değişimi ve aday indeksi durumu bu kilit altında değiştirilir
+    private final Object writeLock = new Object();
+    // Yeniden oluşturma sürerken yapılan değişiklikler (null değer: silinen kullanıcı)
+    private Map<Long, SparseFeatureVector> rebuildJournal;
+
+    // Son oluşturulan temel aday indeksi, ondan sonra değişen kullanıcılar ve ikisinden oluşan görünüm
+    private CandidateIndex baseIndex;
+    private final Map<Long, DeltaEntry> delta = new HashMap<>();
+    private CandidateIndex candidateView;
+    // Veritabanından yeniden yüklemede artar; eski haritadan oluşturulan temel indeks kullanılmaz
+    private long generation;
+
+    private final Object compactionLock = new Object();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "candidate-index-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final boolean minHashCandidates;
+    private final int minHashBands;
+    private final int minHashRows;
+    private final int maxDelta;
+
+    public FeatureVectorIndex(UserFeatureVectorRepository featureVectorRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${recommendation.candidates.mode:inverted}") String candidateMode,
+                              @Value("${recommendation.candidates.minhash.bands:32}") int minHashBands,
+                              @Value("${recommendation.candidates.minhash.rows:2}") int minHashRows,
+                              @Value("${recommendation.candidates.max-delta:1000}") int maxDelta) {
+        this.featureVectorRepository = featureVectorRepository;
+        this.minHashCandidates = "minhash".equalsIgnoreCase(candidateMode);
+        this.minHashBands = minHashBands;
+        this.minHashRows = minHashRows;
+        this.maxDelta = maxDelta;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Tüm özellik vektörlerini veritabanından okuyarak indeksi yeniden oluşturur.
+     *
+     * @return İndekslenen vektör sayısı
+     */
+    public synchronized int rebuild() {
+        long start = System.currentTimeMillis();
+
+        synchronized (writeLock) {
+            rebuildJournal = new HashMap<>();
+        }
+        int count;
+        try {
+            // Okuyucular yeniden oluşturma sırasında eski haritayı görmeye devam eder
+            Map<Long, SparseFeatureVector> fresh = readOnlyTransaction.execute(status -> {
+                Map<Long, SparseFeatureVector> result = new ConcurrentHashMap<>();
+                for (UserFeatureVector featureVector : featureVectorRepository.findAll()) {
+                    if (featureVector.getUser() != null) {
+                        Long userId = featureVector.getUser().getId();
+                        result.put(userId, SparseFeatureVector.of(userId, featureVector));
+                    }
+                }
+                return result;
+            });
+
+            synchronized (writeLock) {
+                // Okuma sürerken yapılan değişiklikler okunan satırlardan daha yenidir; yeni haritanın üzerine uygulanır
+                rebuildJournal.forEach((userId, vector) -> {
+                    if (vector != null) {
+                        fresh.put(userId, vector);
+                    } else {
+                        fresh.remove(userId);
+                    }
+                });
+                vectors = fresh;
+                modificationCount.incrementAndGet();
+                generation++;
+                baseIndex = null;
+                delta.clear();
+                candidateView = null;
+            }
+            count = fresh.size();
+        } finally {
+            synchronized (writeLock) {
+                rebuildJournal = null;
+            }
+        }
+
+        loaded = true;
+        log.info("Feature vector index rebuilt: {} vectors in {} ms", count, System.currentTimeMillis() - start);
+        return count;
+    }
+
+    /**
+     * Kullanıcının kompakt özellik vektörünü döndürür. İndeks henüz yüklenmediyse önce yüklenir.
+     *
+     * @param userId Kullanıcı ID'si
+     * @return Kompakt özellik vektörü, yoksa null
+     */
+    public SparseFeatureVector get(Long userId) {
+        ensureLoaded();
+        return vectors.get(userId);
+    }
+
+    /**
+     * Güncellenen bir özellik vektörünü indekse yansıtır.
+     * Vektör kaydedildikten sonra işlem (transaction) dışında çağrılmalıdır; işlem içindeki yazmalar için
+     * {@link #putAfterCommit(UserFeatureVector)} kullanılır.
+     *
+     * @param featureVector Kaydedilmiş özellik vektörü
+     * @return İndekse eklenen kompakt vektör
+     */
+    public SparseFeatureVector put(UserFeatureVector featureVector) {
+        Long userId = featureVector.getUser().getId();
+        SparseFeatureVector sparse = SparseFeatureVector.of(userId, featureVector);
+        apply(userId, sparse);
+        return sparse;
+    }
+
+    /**
+     * Özellik vektörünü etkin işlem onaylandıktan sonra indekse yansıtır; işlem yoksa hemen yansıtır.
+     * Kompakt vektör hemen oluşturulur ve döndürülür; işlem geri alınırsa indekste hayalet vektör kalmaz.
+     *
+     * @param featureVector Kaydedilmiş özellik vektörü
+     * @return İndekse eklenecek kompakt vektör
+     */
+    public SparseFeatureVector putAfterCommit(UserFeatureVector featureVector) {
+        Long userId = featureVector.getUser().getId();
+        SparseFeatureVector sparse = SparseFeatureVector.of(userId, featureVector);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(userId, sparse);
+                }
+            });
+        } else {
+            apply(userId, sparse);
+        }
+        return sparse;
+    }
+
+    /**
+     * Kullanıcının vektörünü indeksten çıkarır.
+     *
+     * @param userId Kullanıcı ID'si
+     */
+    public void remove(Long userId) {
+        apply(userId, null);
+    }
+
+    /**
+     * Komşu hesabında kullanılacak aday indeksini döndürür.
+     * Varsayılan olarak kesin sonuç veren ters indeks kullanılır; {@code recommendation.candidates.mode=minhash}
+     * ile çok büyük kullanıcı sayılarında yaklaşık MinHash/LSH aday üretimine geçilir.
+     * Dönen indeks değiştirilemez bir anlık görüntüdür; son temel indeksten sonra değişen vektörleri de içerir.
+     */
+    public CandidateIndex candidateIndex() {
+        ensureLoaded();
+        while (true) {
+            synchronized (writeLock) {
+                if (baseIndex != null) {
+                    if (candidateView == null) {
+                        candidateView = delta.isEmpty() ? baseIndex : new DeltaCandidateIndex(baseIndex, deltaVectors());
+                    }
+                    if (delta.size() > maxDelta) {
+                        scheduleCompaction();
+                    }
+                    return candidateView;
+                }
+            }
+            // İlk yüklemeden ya da veritabanından yeniden yüklemeden sonra temel indeks henüz yok
+            compact();
+        }
+    }
+
+    /**
+     * Bekleyen değişiklikleri temel indekse katarak fark kümesi boş bir aday indeksi döndürür.
+     * Tüm kullanıcıların komşularının hesaplandığı tam üretimlerde, her sorgunun fark kümesinin tamamını
+     * tek tek skorlamaması için kullanılır.
+     */
+    public CandidateIndex compactedCandidateIndex() {
+        ensureLoaded();
+        compact();
+        return candidateIndex();
+    }
+
+    /**
+     * İndeksteki tüm vektörlerin değiştirilemez görünümünü döndürür.
+     */
+    public Collection<SparseFeatureVector> vectors() {
+        ensureLoaded();
+        return Collections.unmodifiableCollection(vectors.values());
+    }
+
+    /**
+     * Komşu heap'inden, her komşu için aile benzerliklerini de içeren sıralı bir liste oluşturur.
+     * Aile benzerlikleri saklandığı için genel skor, ağırlıklar değiştiğinde yeniden hesaplama yapılmadan
+     * okuma anında yeniden harmanlanabilir.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param neighbors Komşu heap'i
+     * @return Komşu listesi
+     */
+    public NeighborList neighborList(Long userId, TopKNeighbors neighbors) {
+        ensureLoaded();
+        Map<Long, SparseFeatureVector> current = vectors;
+        return NeighborList.of(current.get(userId), neighbors, current::get);
+    }
+
+    /**
+     * İndeksteki vektör sayısı.
+     */
+    public int size() {
+        ensureLoaded();
+        return vectors.size();
+    }
+
+    private void apply(Long userId, SparseFeatureVector vector) {
+        synchronized (writeLock) {
+            if (vector != null) {
+                vectors.put(userId, vector);
+            } else {
+                vectors.remove(userId);
+            }
+            if (rebuildJournal != null) {
+                rebuildJournal.put(userId, vector);
+            }
+            long sequence = modificationCount.incrementAndGet();
+            if (baseIndex != null) {
+                delta.put(userId, new DeltaEntry(vector, sequence));
+                candidateView = null;
+            }
+        }
+    }
+
+    /**
+     * Güncel vektörlerden yeni bir temel aday indeksi oluşturur. Oluşturma kilit dışında yapılır; bu sırada
+     * yazmalar ve okuyucular önceki temel indeksi kullanmaya devam eder. Oluşturma sırasında gelen değişiklikler
+     * fark kümesinde kalır.
+     */
+    private void compact() {
+        synchronized (compactionLock) {
+            List<SparseFeatureVector> snapshot;
+            long sequence;
+            long snapshotGeneration;
+            synchronized (writeLock) {
+                if (baseIndex != null && delta.isEmpty()) {
+                    return;
+                }
+                snapshot = new ArrayList<>(vectors.values());
+                sequence = modificationCount.get();
+                snapshotGeneration = generation;
+            }
+
+            long start = System.currentTimeMillis();
+            CandidateIndex fresh = minHashCandidates
+                    ? MinHashLshIndex.build(snapshot, minHashBands, minHashRows)
+                    : InvertedIndex.build(snapshot);
+
+            synchronized (writeLock) {
+                if (generation != snapshotGeneration) {
+                    // Oluşturma sırasında indeks veritabanından yeniden yüklendi; sonuç eski haritaya ait
+                    return;
+                }
+                baseIndex = fresh;
+                delta.values().removeIf(entry -> entry.sequence <= sequence);
+                candidateView = null;
+            }
+            log.debug("Candidate index built: {} vectors in {} ms", snapshot.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (compactionScheduled.compareAndSet(false, true)) {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact();
+                } catch (Exception e) {
+                    log.error("Candidate index compaction failed", e);
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+
+    private Map<Long, SparseFeatureVector> deltaVectors() {
+        Map<Long, SparseFeatureVector> changes = new HashMap<>(delta.size() * 2);
+        delta.forEach((userId, entry) -> changes.put(userId, entry.vector));
+        return changes;
+    }
+
+    @Override
+    public void destroy() {
+        compactionExecutor.shutdownNow();
+    }
+
+    /**
+     * Temel indeksten sonra değişen bir kullanıcının güncel vektörü (silindiyse null) ve değişiklik sırası.
+     */
+    private static final class DeltaEntry {
+        private final SparseFeatureVector vector;
+        private final long sequence;
+
+        DeltaEntry(SparseFeatureVector vector, long sequence) {
+            this.vector = vector;
+            this.sequence = sequence;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    rebuild();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.fuar.recommendation.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Özellik teriminden o terime sahip kullanıcıların listesine (posting list) giden değiştirilemez ters indeks.
+ * Her aile için postingler sıkıştırılmış satır (CSR) düzeninde tutulur ve ağırlıklar kullanıcının
+ * aile normuna bölünmüş olarak saklanır. Böylece bir kullanıcının tüm adaylarla benzerliği, yalnızca
+ * en az bir ortak terimi olan kullanıcılar üzerinde kısmi nokta çarpımları toplanarak bulunur
+ * (seyrek matris çarpımı).
+ */
+public final class InvertedIndex implements CandidateIndex {
+
+    private final SparseFeatureVector[] vectors;
+    private final Map<Long, Integer> denseIndexByUserId;
+    private final int termCount;
+
+    // [aile][terim] -> postingUsers/postingWeights içindeki başlangıç konumu
+    private final int[][] termOffsets;
+    private final int[][] postingUsers;
+    private final float[][] postingWeights;
+
+    private InvertedIndex(SparseFeatureVector[] vectors, Map<Long, Integer> denseIndexByUserId, int termCount,
+                          int[][] termOffsets, int[][] postingUsers, float[][] postingWeights) {
+        this.vectors = vectors;
+        this.denseIndexByUserId = denseIndexByUserId;
+        this.termCount = termCount;
+        this.termOffsets = termOffsets;
+        this.postingUsers = postingUsers;
+        this.postingWeights = postingWeights;
+    }
+
+    /**
+     * Verilen vektörlerden ters indeksi oluşturur; terim sayısı vektörlerdeki en büyük terim kimliğinden bulunur.
+     *
+     * @param source Kompakt özellik vektörleri
+     * @return Ters indeks
+     */
+    public static InvertedIndex build(Collection<SparseFeatureVector> source) {
+        int termCount = 0;
+        for (SparseFeatureVector vector : source) {
+            for (FeatureFamily family : FeatureFamily.values()) {
+                int[] termIds = vector.termIds(family);
+                if (termIds.length > 0) {
+                    // Kimlikler sıralı olduğundan en büyüğü sondadır
+                    termCount = Math.max(termCount, termIds[termIds.length - 1] + 1);
+                }
+            }
+        }
+        return build(source, termCount);
+    }
+
+    /**
+     * Verilen vektörlerden ters indeksi oluşturur.
+     *
+     * @param source Kompakt özellik vektörleri
+     * @param termCount Sözlükteki terim sayısı (terim kimlikleri bu değerden küçüktür)
+     * @return Ters indeks
+     */
+    public static InvertedIndex build(Collection<SparseFeatureVector> source, int termCount) {
+        SparseFeatureVector[] vectors = source.toArray(new SparseFeatureVector[0]);
+        Map<Long, Integer> denseIndexByUserId = new HashMap<>(vectors.length * 2);
+        for (int i = 0; i < vectors.length; i++) {
+            denseIndexByUserId.put(vectors[i].getUserId(), i);
+        }
+
+        FeatureFamily[] families = FeatureFamily.values();
+        int[][] termOffsets = new int[families.length][];
+        int[][] postingUsers = new int[families.length][];
+        float[][] postingWeights = new float[families.length][];
+
+        for (FeatureFamily family : families) {
+            int f = family.ordinal();
+
+            // 1. geçiş: terim başına posting sayısı
+            int[] offsets = new int[termCount + 1];
+            for (SparseFeatureVector vector : vectors) {
+                for (int termId : vector.termIds(family)) {
+                    if (termId < termCount) {
+                        offsets[termId + 1]++;
+                    }
+                }
+            }
+            for (int t = 0; t < termCount; t++) {
+                offsets[t + 1] += offsets[t];
+            }
+
+            // 2. geçiş: postingleri yerleştir
+            int[] users = new int[offsets[termCount]];
+            float[] weights = new float[offsets[termCount]];
+            int[] cursor = new int[termCount];
+            for (int u = 0; u < vectors.length; u++) {
+                SparseFeatureVector vector = vectors[u];
+                float norm = vector.norm(family);
+                if (norm <= 0f) {
+                    continue;
+                }
+                int[] ids = vector.termIds(family);
+                float[] values = vector.weights(family);
+                for (int k = 0; k < ids.length; k++) {
+                    int termId = ids[k];
+                    if (termId >= termCount) {
+                        continue;
+                    }
+                    int position = offsets[termId] + cursor[termId]++;
+                    users[position] = u;
+                    weights[position] = values[k] / norm;
+                }
+            }
+
+            termOffsets[f] = offsets;
+            postingUsers[f] = users;
+            postingWeights[f] = weights;
+        }
+
+        return new InvertedIndex(vectors, denseIndexByUserId, termCount, termOffsets, postingUsers, postingWeights);
+    }
+
+    /**
+     * Sorgu vektörüyle en az bir ortak terimi olan tüm kullanıcıların ağırlıklı benzerliklerini biriktirir.
+     * Sonuçta her adayın skoru, aile kosinüslerinin verilen ağırlıklarla toplamına eşittir.
+     * Sorgu kullanıcısının kendisi biriktirilmez.
+     *
+     * @param query Sorgu vektörü
+     * @param accumulator Sıfırlanmış skor tamponu (en az {@link #size()} boyutunda)
+     * @param scoringWeights Aile ağırlıkları
+     */
+    @Override
+    public void accumulate(SparseFeatureVector query, ScoreAccumulator accumulator, ScoringWeights scoringWeights) {
+        Integer self = denseIndexByUserId.get(query.getUserId());
+        int selfIndex = self != null ? self : -1;
+
+        for (FeatureFamily family : FeatureFamily.values()) {
+            int f = family.ordinal();
+            float queryNorm = query.norm(family);
+            if (queryNorm <= 0f) {
+                continue;
+            }
+
+            float familyWeight = (float) scoringWeights.weight(family);
+            int[] offsets = termOffsets[f];
+            int[] users = postingUsers[f];
+            float[] weights = postingWeights[f];
+            int[] ids = query.termIds(family);
+            float[] values = query.weights(family);
+
+            for (int k = 0; k < ids.length; k++) {
+                int termId = ids[k];
+                if (termId >= termCount) {
+                    continue;
+                }
+                float queryWeight = familyWeight * values[k] / queryNorm;
+                for (int p = offsets[termId]; p < offsets[termId + 1]; p++) {
+                    int candidate = users[p];
+                    if (candidate != selfIndex) {
+                        accumulator.add(candidate, queryWeight * weights[p]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * İndeksteki kullanıcı sayısı.
+     */
+    @Override
+    public int size() {
+        return vectors.length;
+    }
+
+    /**
+     * Sıra numarasındaki kullanıcının vektörü.
+     */
+    @Override
+    public SparseFeatureVector vectorAt(int denseIndex) {
+        return vectors[denseIndex];
+    }
+
+    /**
+     * Kullanıcının indeks içindeki sıra numarası.
+     *
+     * @param userId Kullanıcı ID'si
+     * @return Sıra numarası, kullanıcı indekste yoksa -1
+     */
+    @Override
+    public int denseIndexOf(Long userId) {
+        Integer index = denseIndexByUserId.get(userId);
+        return index != null ? index : -1;
+    }
+}
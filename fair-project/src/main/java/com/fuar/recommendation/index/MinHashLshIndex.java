@@ -0,0 +1,204 @@
+package com.fuar.recommendation.index;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MinHash imzaları ve LSH bantlaması ile yaklaşık aday bulan değiştirilemez indeks.
+ * <p>
+ * Her kullanıcının tüm ailelerdeki terim kümesi için {@code bands × rows} MinHash değeri hesaplanır.
+ * İmza bantlara bölünür ve her bant tek bir kovaya (bucket) özetlenir; en az bir bantta aynı kovaya düşen
+ * kullanıcılar adaydır. Jaccard benzerliği yaklaşık (1/bands)^(1/rows) eşiğinin üstündeki çiftler yüksek
+ * olasılıkla bulunur. Adaylar tam benzerlik hesabıyla skorlanır; yaklaşıklık yalnızca aday kümesindedir.
+ * Çok büyük kullanıcı sayılarında, popüler terimlerin uzun posting listelerini dolaşmaktan kaçınmak için kullanılır.
+ */
+public final class MinHashLshIndex implements CandidateIndex {
+
+    private final SparseFeatureVector[] vectors;
+    private final Map<Long, Integer> denseIndexByUserId;
+    private final int bands;
+    private final int rows;
+    private final long[] seeds;
+
+    // [bant][kullanıcı] -> kova anahtarı; imzası boş kullanıcılar için kullanılmaz
+    private final int[][] userBucketKeys;
+    private final boolean[] hasSignature;
+    // [bant] -> (kova anahtarı << 32 | kullanıcı) değerlerinin sıralı dizisi
+    private final long[][] bucketEntries;
+
+    private MinHashLshIndex(SparseFeatureVector[] vectors, Map<Long, Integer> denseIndexByUserId, int bands, int rows,
+                            long[] seeds, int[][] userBucketKeys, boolean[] hasSignature, long[][] bucketEntries) {
+        this.vectors = vectors;
+        this.denseIndexByUserId = denseIndexByUserId;
+        this.bands = bands;
+        this.rows = rows;
+        this.seeds = seeds;
+        this.userBucketKeys = userBucketKeys;
+        this.hasSignature = hasSignature;
+        this.bucketEntries = bucketEntries;
+    }
+
+    /**
+     * Verilen vektörlerden LSH indeksini oluşturur.
+     *
+     * @param source Kompakt özellik vektörleri
+     * @param bands Bant sayısı
+     * @param rows Bant başına MinHash değeri sayısı
+     * @return LSH indeksi
+     */
+    public static MinHashLshIndex build(Collection<SparseFeatureVector> source, int bands, int rows) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Bands and rows must be positive: " + bands + "x" + rows);
+        }
+        SparseFeatureVector[] vectors = source.toArray(new SparseFeatureVector[0]);
+        Map<Long, Integer> denseIndexByUserId = new HashMap<>(vectors.length * 2);
+        for (int i = 0; i < vectors.length; i++) {
+            denseIndexByUserId.put(vectors[i].getUserId(), i);
+        }
+
+        long[] seeds = new long[bands * rows];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = mix(0x5DEECE66DL + i);
+        }
+
+        int[][] userBucketKeys = new int[bands][vectors.length];
+        boolean[] hasSignature = new boolean[vectors.length];
+        long[] signature = new long[seeds.length];
+        for (int u = 0; u < vectors.length; u++) {
+            hasSignature[u] = signature(vectors[u], seeds, signature);
+            if (hasSignature[u]) {
+                for (int b = 0; b < bands; b++) {
+                    userBucketKeys[b][u] = bucketKey(signature, b, rows);
+                }
+            }
+        }
+
+        long[][] bucketEntries = new long[bands][];
+        for (int b = 0; b < bands; b++) {
+            long[] entries = new long[vectors.length];
+            int size = 0;
+            for (int u = 0; u < vectors.length; u++) {
+                if (hasSignature[u]) {
+                    entries[size++] = ((long) userBucketKeys[b][u] << 32) | u;
+                }
+            }
+            entries = Arrays.copyOf(entries, size);
+            Arrays.sort(entries);
+            bucketEntries[b] = entries;
+        }
+
+        return new MinHashLshIndex(vectors, denseIndexByUserId, bands, rows, seeds,
+                userBucketKeys, hasSignature, bucketEntries);
+    }
+
+    /**
+     * Sorgu kullanıcısıyla en az bir bantta aynı kovaya düşen adayları tam benzerlikleriyle biriktirir.
+     */
+    @Override
+    public void accumulate(SparseFeatureVector query, ScoreAccumulator accumulator, ScoringWeights weights) {
+        Integer self = denseIndexByUserId.get(query.getUserId());
+        int selfIndex = self != null ? self : -1;
+
+        int[] keys = new int[bands];
+        // Saklanan kova anahtarları yalnızca sorgu vektörü indekstekiyle aynıysa geçerlidir
+        if (selfIndex >= 0 && vectors[selfIndex] == query) {
+            if (!hasSignature[selfIndex]) {
+                return;
+            }
+            for (int b = 0; b < bands; b++) {
+                keys[b] = userBucketKeys[b][selfIndex];
+            }
+        } else {
+            long[] signature = new long[seeds.length];
+            if (!signature(query, seeds, signature)) {
+                return;
+            }
+            for (int b = 0; b < bands; b++) {
+                keys[b] = bucketKey(signature, b, rows);
+            }
+        }
+
+        for (int b = 0; b < bands; b++) {
+            long[] entries = bucketEntries[b];
+            long key = keys[b];
+            for (int p = lowerBound(entries, key << 32); p < entries.length && (entries[p] >> 32) == key; p++) {
+                int candidate = (int) entries[p];
+                // Önceki bir bantta skorlanan aday, skoru 0 çıkmış olsa bile tekrar hesaplanmaz
+                if (candidate != selfIndex && accumulator.visit(candidate)) {
+                    accumulator.add(candidate, (float) query.similarity(vectors[candidate], weights));
+                }
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return vectors.length;
+    }
+
+    @Override
+    public SparseFeatureVector vectorAt(int denseIndex) {
+        return vectors[denseIndex];
+    }
+
+    @Override
+    public int denseIndexOf(Long userId) {
+        Integer index = denseIndexByUserId.get(userId);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Vektörün tüm ailelerdeki terimleri üzerinden MinHash imzasını hesaplar.
+     *
+     * @return Vektörde en az bir terim varsa true
+     */
+    private static boolean signature(SparseFeatureVector vector, long[] seeds, long[] signature) {
+        Arrays.fill(signature, Long.MAX_VALUE);
+        boolean any = false;
+        for (FeatureFamily family : FeatureFamily.values()) {
+            long familyBits = (long) family.ordinal() << 32;
+            for (int termId : vector.termIds(family)) {
+                long element = familyBits | termId;
+                for (int h = 0; h < seeds.length; h++) {
+                    long value = mix(element ^ seeds[h]);
+                    if (value < signature[h]) {
+                        signature[h] = value;
+                    }
+                }
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    private static int bucketKey(long[] signature, int band, int rows) {
+        long hash = band;
+        for (int r = 0; r < rows; r++) {
+            hash = mix(hash * 31 + signature[band * rows + r]);
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int lowerBound(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // SplitMix64 karıştırma fonksiyonu
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,168 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.recommendation.job.GenerationProgress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongPredicate;
+
+/**
+ * Tüm kullanıcıların en yakın komşularını aday indeksi (ters indeks veya MinHash/LSH) üzerinde paralel olarak hesaplayan motor.
+ * Kullanıcı kümesi sabit boyutlu bloklara bölünür ve bloklar bir ForkJoinPool üzerinde skorlanır.
+ * Her kullanıcının komşu listesi tek bir görev tarafından üretildiği için sonuç dizisine
+ * kilitsiz yazılır; veritabanı erişimi yapılmaz. Kullanıcının hariç listesindeki adaylar
+ * ({@link ExclusionIndex}) heap'e alınmaz ve komşu listesinde yer kaplamaz.
+ */
+@Component
+@Slf4j
+public class NeighborComputationEngine implements DisposableBean {
+
+    private final ExclusionIndex exclusionIndex;
+    private final ForkJoinPool pool;
+    private final int blockSize;
+    private final ThreadLocal<ScoreAccumulator> accumulators = new ThreadLocal<>();
+
+    public NeighborComputationEngine(
+            ExclusionIndex exclusionIndex,
+            @Value("${recommendation.compute.parallelism:0}") int parallelism,
+            @Value("${recommendation.compute.block-size:256}") int blockSize) {
+        this.exclusionIndex = exclusionIndex;
+        int effectiveParallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(effectiveParallelism);
+        this.blockSize = Math.max(1, blockSize);
+        log.info("Neighbor computation engine started with parallelism {} and block size {}",
+                effectiveParallelism, this.blockSize);
+    }
+
+    /**
+     * İndeksteki her kullanıcı için en benzer K komşuyu hesaplar.
+     *
+     * @param candidateIndex Değiştirilemez aday indeksi anlık görüntüsü
+     * @param topK Kullanıcı başına komşu sayısı
+     * @param weights Aile ağırlıkları
+     * @param progress İlerleme raporu ve iptal kontrolü
+     * @return İndeks sırasıyla hizalı komşu listeleri
+     * @throws java.util.concurrent.CancellationException İptal istenirse
+     */
+    public TopKNeighbors[] computeAll(CandidateIndex candidateIndex, int topK, ScoringWeights weights,
+                                      GenerationProgress progress) {
+        TopKNeighbors[] results = new TopKNeighbors[candidateIndex.size()];
+        long start = System.currentTimeMillis();
+        pool.invoke(new BlockTask(candidateIndex, topK, weights, progress, results, 0, results.length));
+        log.info("Computed neighbors for {} users in {} ms", results.length, System.currentTimeMillis() - start);
+        return results;
+    }
+
+    /**
+     * Tek bir kullanıcının komşularını hesaplar ve heap'e aktarır.
+     *
+     * @param candidateIndex Aday indeksi
+     * @param query Sorgu vektörü
+     * @param weights Aile ağırlıkları
+     * @param accumulator Sıfırlanmış skor tamponu
+     * @param neighbors Doldurulacak komşu heap'i
+     * @return Skorlanan aday sayısı
+     */
+    public static int computeNeighbors(CandidateIndex candidateIndex, SparseFeatureVector query, ScoringWeights weights,
+                                       ScoreAccumulator accumulator, TopKNeighbors neighbors) {
+        return computeNeighbors(candidateIndex, query, weights, accumulator, neighbors, candidate -> false);
+    }
+
+    /**
+     * Tek bir kullanıcının komşularını hesaplar; hariç tutulan adayları atlar.
+     * Hariç listesi yalnızca heap eşiğini geçen adaylar için kontrol edilir.
+     *
+     * @param candidateIndex Aday indeksi
+     * @param query Sorgu vektörü
+     * @param weights Aile ağırlıkları
+     * @param accumulator Sıfırlanmış skor tamponu
+     * @param neighbors Doldurulacak komşu heap'i
+     * @param excluded Aday kullanıcı ID'si hariç tutuluyorsa true dönen koşul
+     * @return Skorlanan aday sayısı
+     */
+    public static int computeNeighbors(CandidateIndex candidateIndex, SparseFeatureVector query, ScoringWeights weights,
+                                       ScoreAccumulator accumulator, TopKNeighbors neighbors,
+                                       LongPredicate excluded) {
+        try {
+            candidateIndex.accumulate(query, accumulator, weights);
+            for (int k = 0; k < accumulator.touchedCount(); k++) {
+                int candidate = accumulator.touchedIndex(k);
+                float score = accumulator.score(candidate);
+                if (score > 0f && score >= neighbors.threshold()) {
+                    long candidateUserId = candidateIndex.vectorAt(candidate).getUserId();
+                    if (!excluded.test(candidateUserId)) {
+                        neighbors.offer(candidateUserId, score);
+                    }
+                }
+            }
+            return accumulator.touchedCount();
+        } finally {
+            accumulator.reset();
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private ScoreAccumulator accumulatorFor(int userCount) {
+        ScoreAccumulator accumulator = accumulators.get();
+        if (accumulator == null || accumulator.capacity() < userCount) {
+            accumulator = new ScoreAccumulator(userCount);
+            accumulators.set(accumulator);
+        }
+        return accumulator;
+    }
+
+    private class BlockTask extends RecursiveAction {
+        private final CandidateIndex candidateIndex;
+        private final int topK;
+        private final ScoringWeights weights;
+        private final GenerationProgress progress;
+        private final TopKNeighbors[] results;
+        private final int from;
+        private final int to;
+
+        BlockTask(CandidateIndex candidateIndex, int topK, ScoringWeights weights, GenerationProgress progress,
+                  TopKNeighbors[] results, int from, int to) {
+            this.candidateIndex = candidateIndex;
+            this.topK = topK;
+            this.weights = weights;
+            this.progress = progress;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= blockSize) {
+                progress.checkCancelled();
+                ScoreAccumulator accumulator = accumulatorFor(candidateIndex.size());
+                long pairsScored = 0;
+                for (int i = from; i < to; i++) {
+                    TopKNeighbors neighbors = new TopKNeighbors(topK);
+                    SparseFeatureVector query = candidateIndex.vectorAt(i);
+                    pairsScored += computeNeighbors(candidateIndex, query, weights, accumulator, neighbors,
+                            exclusionIndex.exclusionsFor(query.getUserId()));
+                    results[i] = neighbors;
+                }
+                progress.pairsScored(pairsScored);
+                progress.usersProcessed(to - from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BlockTask(candidateIndex, topK, weights, progress, results, from, middle),
+                    new BlockTask(candidateIndex, topK, weights, progress, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.fuar.recommendation.index;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+/**
+ * Bir kullanıcının skora göre azalan sırada komşu ID'leri ve skorları.
+ * Her komşu için aile benzerlikleri de tutulabilir ({@link FeatureFamily} sırasıyla, komşu başına
+ * {@link #FAMILY_COUNT} değer); bu sayede genel skor okuma anında farklı ağırlıklarla yeniden harmanlanabilir.
+ * Diziler paylaşılır; çağıranlar değiştirmemelidir.
+ */
+public final class NeighborList {
+
+    public static final int FAMILY_COUNT = FeatureFamily.values().length;
+
+    public static final NeighborList EMPTY = new NeighborList(new long[0], new float[0]);
+
+    private final long[] ids;
+    private final float[] scores;
+    // Komşu başına FAMILY_COUNT değer; aile benzerlikleri bilinmiyorsa null
+    private final float[] familyScores;
+
+    public NeighborList(long[] ids, float[] scores) {
+        this(ids, scores, null);
+    }
+
+    public NeighborList(long[] ids, float[] scores, float[] familyScores) {
+        if (ids.length != scores.length) {
+            throw new IllegalArgumentException("Ids and scores must have the same length");
+        }
+        if (familyScores != null && familyScores.length != ids.length * FAMILY_COUNT) {
+            throw new IllegalArgumentException("Family scores must hold " + FAMILY_COUNT + " values per neighbor");
+        }
+        this.ids = ids;
+        this.scores = scores;
+        this.familyScores = familyScores;
+    }
+
+    /**
+     * Heap içeriğinden sıralı bir liste oluşturur.
+     */
+    public static NeighborList of(TopKNeighbors neighbors) {
+        return new NeighborList(neighbors.sortedIds(), neighbors.sortedScores());
+    }
+
+    /**
+     * Heap içeriğinden, aile benzerlikleri vektörlerden hesaplanmış sıralı bir liste oluşturur.
+     * Vektörü bulunamayan komşuların aile benzerlikleri 0 olur.
+     *
+     * @param query Kullanıcının vektörü, yoksa null
+     * @param neighbors Komşu heap'i
+     * @param vectors Kullanıcı ID'sinden vektöre erişim
+     * @return Komşu listesi
+     */
+    public static NeighborList of(SparseFeatureVector query, TopKNeighbors neighbors,
+                                  LongFunction<SparseFeatureVector> vectors) {
+        long[] ids = neighbors.sortedIds();
+        float[] familyScores = new float[ids.length * FAMILY_COUNT];
+        if (query != null) {
+            for (int i = 0; i < ids.length; i++) {
+                SparseFeatureVector neighbor = vectors.apply(ids[i]);
+                if (neighbor != null) {
+                    query.familySimilarities(neighbor, familyScores, i * FAMILY_COUNT);
+                }
+            }
+        }
+        return new NeighborList(ids, neighbors.sortedScores(), familyScores);
+    }
+
+    /**
+     * Genel skorları verilen ağırlıklarla yeniden harmanlar ve listeyi yeni skora göre sıralar.
+     * Aile benzerlikleri bilinmiyorsa liste olduğu gibi döner.
+     *
+     * @param weights Aile ağırlıkları
+     * @return Yeniden skorlanmış liste
+     */
+    public NeighborList reweighted(ScoringWeights weights) {
+        if (familyScores == null || ids.length == 0) {
+            return this;
+        }
+
+        // Skor ve konum tek bir long içinde paketlenir; pozitif float'ların bit sırası sayısal sırayı korur
+        long[] order = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            float score = (float) weights.blend(familyScores, i * FAMILY_COUNT);
+            order[i] = ((long) Float.floatToIntBits(Math.max(score, 0f)) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        long[] sortedIds = new long[ids.length];
+        float[] sortedScores = new float[ids.length];
+        float[] sortedFamilyScores = new float[familyScores.length];
+        for (int k = 0; k < ids.length; k++) {
+            long packed = order[ids.length - 1 - k];
+            int i = (int) packed;
+            sortedIds[k] = ids[i];
+            sortedScores[k] = Float.intBitsToFloat((int) (packed >>> 32));
+            System.arraycopy(familyScores, i * FAMILY_COUNT, sortedFamilyScores, k * FAMILY_COUNT, FAMILY_COUNT);
+        }
+        return new NeighborList(sortedIds, sortedScores, sortedFamilyScores);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long idAt(int i) {
+        return ids[i];
+    }
+
+    public float scoreAt(int i) {
+        return scores[i];
+    }
+
+    public boolean hasFamilyScores() {
+        return familyScores != null;
+    }
+
+    /**
+     * Komşunun bir ailedeki benzerliği; aile benzerlikleri bilinmiyorsa 0.
+     */
+    public float familyScoreAt(int i, FeatureFamily family) {
+        return familyScores != null ? familyScores[i * FAMILY_COUNT + family.ordinal()] : 0f;
+    }
+}
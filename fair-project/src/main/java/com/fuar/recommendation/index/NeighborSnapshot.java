@@ -0,0 +1,259 @@
+package com.fuar.recommendation.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.IntFunction;
+
+/**
+ * Komşu grafiğinin bellek eşlemeli (memory-mapped) ikili anlık görüntüsü.
+ * <p>
+ * Dosya düzeni (big-endian):
+ * <pre>
+ * başlık:   magic(int) sürüm(int) K(int) kullanıcıSayısı(int) oluşturulma(long) nesil(long)
+ * ID'ler:   kullanıcıSayısı adet sıralı kullanıcı ID'si (long)
+ * kayıtlar: kullanıcı başına sabit genişlikte kayıt: komşuSayısı(int), K adet komşu ID'si (long), K adet skor (float),
+ *           K × aile sayısı adet aile benzerliği (float, komşu başına {@link FeatureFamily} sırasıyla)
+ * </pre>
+ * Kullanıcının kaydı, sıralı ID bölgesinde ikili arama ile bulunur; okuma için nesne oluşturulmaz ve
+ * veritabanına gidilmez. Değiştirilemez; yalnızca mutlak konumlu okumalar yapıldığı için eşzamanlı
+ * okuyucular tarafından paylaşılabilir. Aile benzerlikleri içermeyen eski sürüm dosyalar açılmaz;
+ * okuma yolu bir sonraki tam üretime kadar veritabanını kullanır.
+ */
+public final class NeighborSnapshot {
+
+    public static final int FORMAT_VERSION = 2;
+
+    static final int MAGIC = 0x464E5348; // "FNSH"
+    static final int HEADER_BYTES = 32;
+
+    private final ByteBuffer buffer;
+    private final int topK;
+    private final int userCount;
+    private final long createdAt;
+    private final long generation;
+    private final int recordBytes;
+    private final int recordsOffset;
+
+    private NeighborSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a neighbor snapshot file");
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported neighbor snapshot version: " + version);
+        }
+        this.buffer = buffer;
+        this.topK = buffer.getInt(8);
+        this.userCount = buffer.getInt(12);
+        this.createdAt = buffer.getLong(16);
+        this.generation = buffer.getLong(24);
+        this.recordBytes = recordBytes(topK);
+        this.recordsOffset = HEADER_BYTES + userCount * Long.BYTES;
+        if ((long) recordsOffset + (long) userCount * recordBytes != buffer.capacity()) {
+            throw new IOException("Truncated neighbor snapshot file");
+        }
+    }
+
+    /**
+     * Anlık görüntü dosyasını salt okunur olarak belleğe eşler.
+     *
+     * @param path Dosya yolu
+     * @return Anlık görüntü
+     * @throws IOException Dosya okunamazsa ya da geçersizse
+     */
+    public static NeighborSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // Eşleme kanal kapandıktan sonra da geçerli kalır
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new NeighborSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Komşu listelerini anlık görüntü dosyasına yazar.
+     * Listeler konuma göre istenir ve yazıldıktan sonra tutulmaz; tüm kullanıcıların aile benzerliklerinin
+     * aynı anda bellekte olması gerekmez.
+     *
+     * @param path Hedef dosya (varsa üzerine yazılır)
+     * @param userIds Kullanıcı ID'leri
+     * @param neighbors Kullanıcı konumundan o kullanıcının komşu listesine erişim
+     * @param topK Kayıt başına komşu kapasitesi
+     * @param createdAt Oluşturulma zamanı (epoch milisaniye)
+     * @param generation Nesil numarası
+     * @throws IOException Dosya yazılamazsa ya da tek eşleme sınırını aşarsa
+     */
+    public static void write(Path path, Long[] userIds, IntFunction<NeighborList> neighbors, int topK,
+                             long createdAt, long generation) throws IOException {
+        Integer[] order = new Integer[userIds.length];
+        for (int i = 0; i < userIds.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> userIds[i]));
+
+        long[] sortedIds = new long[userIds.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedIds[i] = userIds[order[i]];
+        }
+        try (Writer writer = writer(path, sortedIds, topK, createdAt, generation)) {
+            for (Integer i : order) {
+                writer.append(neighbors.apply(i));
+            }
+        }
+    }
+
+    /**
+     * Kayıtları sırayla eklenen bir anlık görüntü dosyası açar. Komşu listeleri veritabanından kullanıcı
+     * sırasıyla okunurken yazılabilir; hiçbir liste bellekte biriktirilmez.
+     *
+     * @param path Hedef dosya (varsa üzerine yazılır)
+     * @param sortedUserIds Artan sırada kullanıcı ID'leri; kayıtlar bu sırayla eklenmelidir
+     * @param topK Kayıt başına komşu kapasitesi
+     * @param createdAt Oluşturulma zamanı (epoch milisaniye)
+     * @param generation Nesil numarası
+     * @return Yazıcı; kapatıldığında her kullanıcının kaydı eklenmiş olmalıdır
+     * @throws IOException Dosya yazılamazsa ya da tek eşleme sınırını aşarsa
+     */
+    public static Writer writer(Path path, long[] sortedUserIds, int topK, long createdAt, long generation)
+            throws IOException {
+        int userCount = sortedUserIds.length;
+        long size = HEADER_BYTES + (long) userCount * Long.BYTES + (long) userCount * recordBytes(topK);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Neighbor snapshot too large for a single mapping: " + size + " bytes");
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(topK).putInt(userCount)
+                    .putLong(createdAt).putLong(generation);
+            for (long userId : sortedUserIds) {
+                out.putLong(userId);
+            }
+            return new Writer(out, topK, userCount);
+        }
+    }
+
+    /**
+     * Anlık görüntü dosyasına kullanıcı sırasıyla kayıt ekleyen yazıcı.
+     */
+    public static final class Writer implements Closeable {
+
+        private final MappedByteBuffer out;
+        private final int topK;
+        private final int userCount;
+        private int written;
+
+        private Writer(MappedByteBuffer out, int topK, int userCount) {
+            this.out = out;
+            this.topK = topK;
+            this.userCount = userCount;
+        }
+
+        /**
+         * Sıradaki kullanıcının komşu listesini yazar; K'dan fazla komşu kesilir.
+         *
+         * @param list Komşu listesi
+         */
+        public void append(NeighborList list) {
+            if (written == userCount) {
+                throw new IllegalStateException("All " + userCount + " neighbor snapshot records already written");
+            }
+            int count = Math.min(list.size(), topK);
+            out.putInt(count);
+            for (int k = 0; k < topK; k++) {
+                out.putLong(k < count ? list.idAt(k) : 0L);
+            }
+            for (int k = 0; k < topK; k++) {
+                out.putFloat(k < count ? list.scoreAt(k) : 0f);
+            }
+            for (int k = 0; k < topK; k++) {
+                for (FeatureFamily family : FeatureFamily.values()) {
+                    out.putFloat(k < count ? list.familyScoreAt(k, family) : 0f);
+                }
+            }
+            written++;
+        }
+
+        /**
+         * Dosyayı diske yazar.
+         *
+         * @throws IOException Her kullanıcının kaydı eklenmediyse
+         */
+        @Override
+        public void close() throws IOException {
+            out.force();
+            if (written != userCount) {
+                throw new IOException("Neighbor snapshot incomplete: " + written + " of " + userCount + " records written");
+            }
+        }
+    }
+
+    /**
+     * Kullanıcının komşu listesini döndürür.
+     *
+     * @param userId Kullanıcı ID'si
+     * @return Komşu listesi, kullanıcı anlık görüntüde yoksa null
+     */
+    public NeighborList find(long userId) {
+        int low = 0;
+        int high = userCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long id = buffer.getLong(HEADER_BYTES + middle * Long.BYTES);
+            if (id < userId) {
+                low = middle + 1;
+            } else if (id > userId) {
+                high = middle - 1;
+            } else {
+                return readRecord(middle);
+            }
+        }
+        return null;
+    }
+
+    private NeighborList readRecord(int position) {
+        int record = recordsOffset + position * recordBytes;
+        int count = buffer.getInt(record);
+        long[] ids = new long[count];
+        float[] scores = new float[count];
+        int idsOffset = record + Integer.BYTES;
+        float[] familyScores = new float[count * NeighborList.FAMILY_COUNT];
+        int scoresOffset = idsOffset + topK * Long.BYTES;
+        int familyOffset = scoresOffset + topK * Float.BYTES;
+        for (int k = 0; k < count; k++) {
+            ids[k] = buffer.getLong(idsOffset + k * Long.BYTES);
+            scores[k] = buffer.getFloat(scoresOffset + k * Float.BYTES);
+        }
+        for (int f = 0; f < familyScores.length; f++) {
+            familyScores[f] = buffer.getFloat(familyOffset + f * Float.BYTES);
+        }
+        return new NeighborList(ids, scores, familyScores);
+    }
+
+    private static int recordBytes(int topK) {
+        return Integer.BYTES + topK * (Long.BYTES + Float.BYTES + NeighborList.FAMILY_COUNT * Float.BYTES);
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+}
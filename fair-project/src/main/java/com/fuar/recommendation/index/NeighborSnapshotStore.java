@@ -0,0 +1,367 @@
+package com.fuar.recommendation.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Güncel komşu anlık görüntüsünü tutar ve okuma yoluna sunar.
+ * <p>
+ * Tam üretim bittiğinde yeni anlık görüntü geçici dosyaya yazılır, atomik olarak yerine taşınır ve
+ * referans değiştirilir; okuyucular hiçbir zaman yeniden hesaplamayı beklemez. Anlık görüntüden sonra
+ * artımlı olarak güncellenen komşu listeleri bellekteki bir katmanda tutulur ve önce oraya bakılır.
+ * Katmandaki her kayıt bir sürüm numarası taşır; yeni anlık görüntü yayımlandığında yalnızca hesaplama
+ * başlamadan önce yazılmış kayıtlar atılır, hesaplama sürerken yapılan artımlı güncellemeler korunur.
+ * Uygulama açılırken mevcut dosya belleğe eşlenir ve bu katman veritabanındaki daha yeni satırlardan doldurulur.
+ * Komşu listeleri başka düğümlerde hesaplandığında anlık görüntü doğrudan {@code user_similarity} tablosundan,
+ * satırlar kullanıcı sırasıyla okunurken yazılır ({@link #publishFromDatabase}).
+ */
+@Component
+@Slf4j
+public class NeighborSnapshotStore {
+
+    private static final String SNAPSHOT_FILE = "neighbors.snapshot";
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String NEIGHBOR_USER_IDS =
+            "SELECT DISTINCT user1_id FROM user_similarity ORDER BY user1_id";
+    private static final String NEIGHBOR_ROWS =
+            "SELECT user1_id, user2_id, similarity_score, skill_similarity, sector_similarity, " +
+            "expertise_similarity, interest_similarity, education_similarity FROM user_similarity " +
+            "ORDER BY user1_id, neighbor_rank";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final FeatureVectorIndex featureVectorIndex;
+    private final Path directory;
+    private final boolean enabled;
+
+    private final AtomicReference<NeighborSnapshot> current = new AtomicReference<>();
+    private final Map<Long, OverlayEntry> overlay = new ConcurrentHashMap<>();
+    private final AtomicLong overlayVersion = new AtomicLong();
+
+    public NeighborSnapshotStore(JdbcTemplate jdbcTemplate,
+                                 FeatureVectorIndex featureVectorIndex,
+                                 @Value("${recommendation.snapshot.dir:./data/recommendation}") String directory,
+                                 @Value("${recommendation.snapshot.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.featureVectorIndex = featureVectorIndex;
+        this.directory = Paths.get(directory);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Uygulama açıldığında mevcut anlık görüntüyü belleğe eşler.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Path file = directory.resolve(SNAPSHOT_FILE);
+        if (!enabled || !Files.exists(file)) {
+            return;
+        }
+
+        try {
+            NeighborSnapshot snapshot = NeighborSnapshot.open(file);
+            current.set(snapshot);
+            int changed = loadChangesSince(snapshot.getCreatedAt());
+            log.info("Neighbor snapshot loaded: generation {}, {} users, K={}, {} lists changed since",
+                    snapshot.getGeneration(), snapshot.getUserCount(), snapshot.getTopK(), changed);
+        } catch (Exception e) {
+            log.warn("Could not load neighbor snapshot {}, falling back to database: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Tam hesaplama başlamadan önce çağrılır; yayımlanacak anlık görüntünün hangi artımlı güncellemelerden
+     * daha yeni olduğunu işaretler.
+     *
+     * @return Hesaplama başlangıcı işareti
+     */
+    public Mark mark() {
+        return new Mark(overlayVersion.get());
+    }
+
+    /**
+     * Yeni bir anlık görüntü yazar ve mevcut olanın yerine koyar.
+     * Her komşunun aile benzerlikleri yazım sırasında özellik vektörü indeksinden hesaplanır.
+     * Katmandan yalnızca hesaplama başlamadan önce yazılmış kayıtlar atılır.
+     *
+     * @param userIds Kullanıcı ID'leri
+     * @param neighbors Aynı sırayla hizalı komşu listeleri
+     * @param topK Kayıt başına komşu kapasitesi
+     * @param computationStart Hesaplama başlamadan önce alınan işaret
+     */
+    public void publish(Long[] userIds, TopKNeighbors[] neighbors, int topK, Mark computationStart) {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        NeighborSnapshot previous = current.get();
+        long generation = previous != null ? previous.getGeneration() + 1 : 1;
+
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, SNAPSHOT_FILE, ".tmp");
+            try {
+                NeighborSnapshot.write(temp, userIds,
+                        i -> featureVectorIndex.neighborList(userIds[i], neighbors[i]), topK, start, generation);
+                install(temp, computationStart);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.info("Neighbor snapshot generation {} written: {} users in {} ms, {} newer lists kept in overlay",
+                    generation, userIds.length, System.currentTimeMillis() - start, overlay.size());
+        } catch (IOException e) {
+            log.error("Could not write neighbor snapshot", e);
+        }
+    }
+
+    /**
+     * Veritabanındaki tüm komşu listelerinden yeni bir anlık görüntü yazar ve mevcut olanın yerine koyar.
+     * Satırlar kullanıcı ve sıra düzeninde bir imleçle okunur ve okunurken dosyaya yazılır; listeler
+     * bellekte biriktirilmez. Dağıtık üretim turu bittiğinde her düğüm bu metotla okuma yolunu yeniler.
+     *
+     * @param topK Kayıt başına komşu kapasitesi
+     * @return Anlık görüntüdeki kullanıcı sayısı, yazılamadıysa -1
+     */
+    public int publishFromDatabase(int topK) {
+        if (!enabled) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        Mark computationStart = mark();
+        NeighborSnapshot previous = current.get();
+        long generation = previous != null ? previous.getGeneration() + 1 : 1;
+
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, SNAPSHOT_FILE, ".tmp");
+            int users;
+            try {
+                users = jdbcTemplate.execute((ConnectionCallback<Integer>) connection ->
+                        streamNeighbors(connection, temp, topK, start, generation));
+                install(temp, computationStart);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.info("Neighbor snapshot generation {} written from database: {} users in {} ms, {} newer lists kept in overlay",
+                    generation, users, System.currentTimeMillis() - start, overlay.size());
+            return users;
+        } catch (IOException | UncheckedIOException e) {
+            log.error("Could not write neighbor snapshot from database", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Anlık görüntüden sonra güncellenen bir komşu listesini kaydeder.
+     * Henüz anlık görüntü yoksa da kaydedilir; ilk anlık görüntü hesaplanırken yapılan güncellemeler kaybolmaz.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param neighbors Yeni komşu listesi
+     */
+    public void update(Long userId, NeighborList neighbors) {
+        if (enabled) {
+            overlay.put(userId, new OverlayEntry(neighbors, overlayVersion.incrementAndGet()));
+        }
+    }
+
+    /**
+     * Kullanıcının güncel komşu listesini döndürür.
+     *
+     * @param userId Kullanıcı ID'si
+     * @return Komşu listesi, anlık görüntü yoksa ya da kullanıcı içinde değilse null
+     */
+    public NeighborList find(Long userId) {
+        NeighborSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return null;
+        }
+        OverlayEntry updated = overlay.get(userId);
+        return updated != null ? updated.neighbors : snapshot.find(userId);
+    }
+
+    /**
+     * Kullanılabilir bir anlık görüntü varsa true.
+     */
+    public boolean isAvailable() {
+        return current.get() != null;
+    }
+
+    /**
+     * Yazılan dosyayı yerine taşır, belleğe eşler ve katmandan hesaplama başlamadan önce yazılmış kayıtları atar.
+     */
+    private void install(Path temp, Mark computationStart) throws IOException {
+        Path target = directory.resolve(SNAPSHOT_FILE);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        NeighborSnapshot snapshot = NeighborSnapshot.open(target);
+        current.set(snapshot);
+        overlay.values().removeIf(entry -> entry.version <= computationStart.version);
+    }
+
+    /**
+     * Komşu satırlarını kullanıcı sırasıyla okuyup anlık görüntü dosyasına yazar.
+     * Kullanıcı listesi ve satırlar aynı veri görüntüsünden okunur; PostgreSQL imleçle okumayı yalnızca
+     * işlem içinde yaptığından bağlantı okuma süresince otomatik onaydan çıkarılır.
+     */
+    private int streamNeighbors(Connection connection, Path file, int topK, long createdAt, long generation)
+            throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        int isolation = connection.getTransactionIsolation();
+        if (autoCommit) {
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            connection.setAutoCommit(false);
+        }
+        try {
+            long[] userIds = readNeighborUserIds(connection);
+            try (NeighborSnapshot.Writer writer = NeighborSnapshot.writer(file, userIds, topK, createdAt, generation);
+                 PreparedStatement ps = connection.prepareStatement(NEIGHBOR_ROWS)) {
+                ps.setFetchSize(FETCH_SIZE);
+                try (ResultSet rs = ps.executeQuery()) {
+                    long[] ids = new long[topK];
+                    float[] scores = new float[topK];
+                    float[] familyScores = new float[topK * NeighborList.FAMILY_COUNT];
+                    long userId = 0;
+                    int count = 0;
+                    while (rs.next()) {
+                        long rowUserId = rs.getLong(1);
+                        if (count > 0 && rowUserId != userId) {
+                            writer.append(neighborList(ids, scores, familyScores, count));
+                            count = 0;
+                        }
+                        userId = rowUserId;
+                        if (count < topK) {
+                            // Genel skor ve FeatureFamily sırasıyla aile benzerlikleri; NULL aile benzerliği 0 okunur
+                            ids[count] = rs.getLong(2);
+                            scores[count] = rs.getFloat(3);
+                            for (int f = 0; f < NeighborList.FAMILY_COUNT; f++) {
+                                familyScores[count * NeighborList.FAMILY_COUNT + f] = rs.getFloat(4 + f);
+                            }
+                            count++;
+                        }
+                    }
+                    if (count > 0) {
+                        writer.append(neighborList(ids, scores, familyScores, count));
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return userIds.length;
+        } finally {
+            if (autoCommit) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+                connection.setTransactionIsolation(isolation);
+            }
+        }
+    }
+
+    private static long[] readNeighborUserIds(Connection connection) throws SQLException {
+        long[] userIds = new long[1024];
+        int count = 0;
+        try (PreparedStatement ps = connection.prepareStatement(NEIGHBOR_USER_IDS)) {
+            ps.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (count == userIds.length) {
+                        userIds = Arrays.copyOf(userIds, count * 2);
+                    }
+                    userIds[count++] = rs.getLong(1);
+                }
+            }
+        }
+        return Arrays.copyOf(userIds, count);
+    }
+
+    private static NeighborList neighborList(long[] ids, float[] scores, float[] familyScores, int count) {
+        return new NeighborList(Arrays.copyOf(ids, count), Arrays.copyOf(scores, count),
+                Arrays.copyOf(familyScores, count * NeighborList.FAMILY_COUNT));
+    }
+
+    /**
+     * Anlık görüntüden sonra veritabanında güncellenen komşu listelerini katmana yükler.
+     */
+    private int loadChangesSince(long createdAt) {
+        Map<Long, List<Long>> idsByUser = new HashMap<>();
+        Map<Long, List<float[]>> scoresByUser = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT user1_id, user2_id, similarity_score, skill_similarity, sector_similarity, " +
+                "expertise_similarity, interest_similarity, education_similarity FROM user_similarity " +
+                "WHERE user1_id IN (SELECT DISTINCT user1_id FROM user_similarity WHERE last_updated > ?) " +
+                "ORDER BY user1_id, neighbor_rank",
+                rs -> {
+                    long userId = rs.getLong(1);
+                    // Genel skor ve FeatureFamily sırasıyla aile benzerlikleri; NULL aile benzerliği 0 okunur
+                    float[] scores = new float[1 + NeighborList.FAMILY_COUNT];
+                    for (int f = 0; f < scores.length; f++) {
+                        scores[f] = rs.getFloat(3 + f);
+                    }
+                    idsByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(rs.getLong(2));
+                    scoresByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(scores);
+                },
+                new Timestamp(createdAt));
+
+        idsByUser.forEach((userId, neighborIds) -> {
+            List<float[]> neighborScores = scoresByUser.get(userId);
+            long[] ids = new long[neighborIds.size()];
+            float[] scores = new float[neighborIds.size()];
+            float[] familyScores = new float[neighborIds.size() * NeighborList.FAMILY_COUNT];
+            for (int i = 0; i < ids.length; i++) {
+                float[] row = neighborScores.get(i);
+                ids[i] = neighborIds.get(i);
+                scores[i] = row[0];
+                System.arraycopy(row, 1, familyScores, i * NeighborList.FAMILY_COUNT, NeighborList.FAMILY_COUNT);
+            }
+            update(userId, new NeighborList(ids, scores, familyScores));
+        });
+        return idsByUser.size();
+    }
+
+    /**
+     * Tam hesaplamanın başladığı andaki katman sürümü.
+     */
+    public static final class Mark {
+        private final long version;
+
+        private Mark(long version) {
+            this.version = version;
+        }
+    }
+
+    private static final class OverlayEntry {
+        private final NeighborList neighbors;
+        private final long version;
+
+        OverlayEntry(NeighborList neighbors, long version) {
+            this.neighbors = neighbors;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.fuar.recommendation.index;
+
+import java.util.Arrays;
+
+/**
+ * Bir sorgu kullanıcısı için aday kullanıcıların kısmi skorlarını biriktiren yeniden kullanılabilir tampon.
+ * Yalnızca dokunulan adaylar takip edilir; böylece sıfırlama maliyeti aday sayısıyla orantılıdır.
+ * Skoru 0 çıkan adaylar da ziyaret edildi olarak işaretlenebilir; dokunulanlar arasındaki bu adayları
+ * okuyanlar pozitif olmayan skorları atlamalıdır.
+ * Bu sınıf iş parçacığı açısından güvenli değildir; her iş parçacığı kendi örneğini kullanmalıdır.
+ */
+public class ScoreAccumulator {
+
+    private final float[] scores;
+    private final boolean[] visited;
+    private final int[] touched;
+    private int touchedCount;
+
+    public ScoreAccumulator(int userCount) {
+        this.scores = new float[userCount];
+        this.visited = new boolean[userCount];
+        this.touched = new int[userCount];
+    }
+
+    /**
+     * Aday kullanıcının skoruna katkı ekler.
+     *
+     * @param denseIndex Adayın indeks içindeki sıra numarası
+     * @param contribution Eklenecek kısmi skor
+     */
+    public void add(int denseIndex, float contribution) {
+        if (contribution <= 0f) {
+            return;
+        }
+        visit(denseIndex);
+        scores[denseIndex] += contribution;
+    }
+
+    /**
+     * Adayı bu sorgu için ziyaret edildi olarak işaretler; skoru 0 kalsa bile tekrar skorlanmaması için kullanılır.
+     *
+     * @param denseIndex Adayın indeks içindeki sıra numarası
+     * @return Aday bu sorguda ilk kez ziyaret ediliyorsa true
+     */
+    public boolean visit(int denseIndex) {
+        if (visited[denseIndex]) {
+            return false;
+        }
+        visited[denseIndex] = true;
+        touched[touchedCount++] = denseIndex;
+        return true;
+    }
+
+    /**
+     * Aday kullanıcının biriktirilmiş skorunu verilen değerle değiştirir.
+     * Skoru 0'a düşen aday dokunulanlar arasında kalır.
+     *
+     * @param denseIndex Adayın indeks içindeki sıra numarası
+     * @param score Yeni skor
+     */
+    public void set(int denseIndex, float score) {
+        if (score <= 0f && !visited[denseIndex]) {
+            return;
+        }
+        visit(denseIndex);
+        scores[denseIndex] = Math.max(score, 0f);
+    }
+
+    /**
+     * Tamponun alabileceği en fazla kullanıcı sayısı.
+     */
+    public int capacity() {
+        return scores.length;
+    }
+
+    public int touchedCount() {
+        return touchedCount;
+    }
+
+    /**
+     * i'inci dokunulan adayın sıra numarası.
+     */
+    public int touchedIndex(int i) {
+        return touched[i];
+    }
+
+    public float score(int denseIndex) {
+        return scores[denseIndex];
+    }
+
+    /**
+     * Dokunulan adayları sıfırlayarak tamponu bir sonraki sorgu için hazırlar.
+     */
+    public void reset() {
+        if (touchedCount > scores.length / 4) {
+            Arrays.fill(scores, 0f);
+            Arrays.fill(visited, false);
+        } else {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+                visited[touched[i]] = false;
+            }
+        }
+        touchedCount = 0;
+    }
+}
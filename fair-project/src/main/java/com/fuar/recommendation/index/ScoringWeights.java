@@ -0,0 +1,104 @@
+package com.fuar.recommendation.index;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Aile benzerliklerini genel skora harmanlayan ağırlıkların değiştirilemez anlık görüntüsü.
+ * Ağırlıklar toplamları 1 olacak şekilde normalize edilir; böylece harmanlanmış skor 0 ile 1 arasında kalır.
+ */
+public final class ScoringWeights {
+
+    private static final ScoringWeights DEFAULTS = defaultWeights();
+
+    private final double[] weights;
+    private final long updatedAt;
+
+    private ScoringWeights(double[] weights, long updatedAt) {
+        this.weights = weights;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * {@link FeatureFamily} varsayılan ağırlıkları.
+     */
+    public static ScoringWeights defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Verilen ağırlıklardan normalize edilmiş bir anlık görüntü oluşturur.
+     * Eksik aileler için ağırlık 0 kabul edilir.
+     *
+     * @param familyWeights Aile ağırlıkları
+     * @param updatedAt Ağırlıkların geçerli olduğu zaman (epoch milisaniye)
+     * @return Ağırlıklar
+     * @throws IllegalArgumentException Ağırlık negatif ya da sonlu değilse veya hepsi 0 ise
+     */
+    public static ScoringWeights of(Map<FeatureFamily, Double> familyWeights, long updatedAt) {
+        double[] weights = new double[FeatureFamily.values().length];
+        double sum = 0.0;
+        for (FeatureFamily family : FeatureFamily.values()) {
+            Double weight = familyWeights.get(family);
+            double value = weight != null ? weight : 0.0;
+            if (!Double.isFinite(value) || value < 0) {
+                throw new IllegalArgumentException("Invalid weight for " + family + ": " + weight);
+            }
+            weights[family.ordinal()] = value;
+            sum += value;
+        }
+        if (sum <= 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+        for (int f = 0; f < weights.length; f++) {
+            weights[f] /= sum;
+        }
+        return new ScoringWeights(weights, updatedAt);
+    }
+
+    private static ScoringWeights defaultWeights() {
+        Map<FeatureFamily, Double> familyWeights = new EnumMap<>(FeatureFamily.class);
+        for (FeatureFamily family : FeatureFamily.values()) {
+            familyWeights.put(family, family.getDefaultWeight());
+        }
+        return of(familyWeights, 0L);
+    }
+
+    public double weight(FeatureFamily family) {
+        return weights[family.ordinal()];
+    }
+
+    /**
+     * Aile benzerliklerini harmanlar.
+     *
+     * @param familyScores Aile sırasına göre benzerlikler
+     * @param offset Dizideki ilk ailenin konumu
+     * @return Genel skor
+     */
+    public double blend(float[] familyScores, int offset) {
+        double total = 0.0;
+        for (int f = 0; f < weights.length; f++) {
+            total += weights[f] * familyScores[offset + f];
+        }
+        return total;
+    }
+
+    /**
+     * Ağırlıkların geçerli olmaya başladığı zaman; varsayılan ağırlıklar için 0.
+     * Bu zamandan önce oluşturulan skorlar eski ağırlıklarla hesaplanmıştır.
+     */
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Aile adına göre ağırlıklar.
+     */
+    public Map<FeatureFamily, Double> asMap() {
+        Map<FeatureFamily, Double> map = new EnumMap<>(FeatureFamily.class);
+        for (FeatureFamily family : FeatureFamily.values()) {
+            map.put(family, weights[family.ordinal()]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,97 @@
+package com.fuar.recommendation.index;
+
+import java.util.Arrays;
+
+/**
+ * Sıralı {@code long[]} kümeleri üzerinde kopyala-yaz (copy-on-write) yardımcıları.
+ * Diziler yerinde değiştirilmez; okuyucular kilitsiz olarak eski diziyi görmeye devam edebilir.
+ */
+final class SortedLongArrays {
+
+    static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    /**
+     * Değeri içeren yeni bir dizi döndürür; değer zaten varsa aynı dizi döner.
+     */
+    static long[] insert(long[] sorted, long value) {
+        int position = Arrays.binarySearch(sorted, value);
+        if (position >= 0) {
+            return sorted;
+        }
+        int insertAt = -position - 1;
+        long[] grown = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, grown, 0, insertAt);
+        grown[insertAt] = value;
+        System.arraycopy(sorted, insertAt, grown, insertAt + 1, sorted.length - insertAt);
+        return grown;
+    }
+
+    /**
+     * Değeri içermeyen yeni bir dizi döndürür; değer yoksa aynı dizi döner.
+     */
+    static long[] remove(long[] sorted, long value) {
+        int position = Arrays.binarySearch(sorted, value);
+        if (position < 0) {
+            return sorted;
+        }
+        if (sorted.length == 1) {
+            return EMPTY;
+        }
+        long[] shrunk = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, shrunk, 0, position);
+        System.arraycopy(sorted, position + 1, shrunk, position, sorted.length - position - 1);
+        return shrunk;
+    }
+
+    static boolean contains(long[] sorted, long value) {
+        return Arrays.binarySearch(sorted, value) >= 0;
+    }
+
+    /**
+     * İki sıralı dizinin ortak eleman sayısını birleştirme (merge) ile bulur.
+     */
+    static int intersectionCount(long[] a, long[] b) {
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                count++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * İki sıralı dizinin birleşimini birleştirme (merge) ile döndürür; biri diğerini kapsıyorsa o dizi döner.
+     */
+    static long[] union(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                merged[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                merged[n++] = b[j++];
+            } else {
+                merged[n++] = a[i++];
+                j++;
+            }
+        }
+        if (n == a.length) {
+            return a;
+        }
+        return n == b.length ? b : Arrays.copyOf(merged, n);
+    }
+}
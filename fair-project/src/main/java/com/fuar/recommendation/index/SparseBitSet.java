@@ -0,0 +1,78 @@
+package com.fuar.recommendation.index;
+
+/**
+ * Terim kimlikleri üzerinde sıkıştırılmış, değiştirilemez bit kümesi.
+ * Yalnızca en az bir biti dolu olan 64 bitlik kelimeler, kelime indeksine göre sıralı olarak tutulur.
+ * İki küme arasındaki kesişim büyüklüğü, ortak kelimeler üzerinde birleştirme ve {@link Long#bitCount} ile bulunur.
+ */
+public final class SparseBitSet {
+
+    private final int[] wordIndexes;
+    private final long[] words;
+    private final int cardinality;
+
+    private SparseBitSet(int[] wordIndexes, long[] words, int cardinality) {
+        this.wordIndexes = wordIndexes;
+        this.words = words;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Artan sırada ve tekrarsız terim kimliklerinden bit kümesi oluşturur.
+     *
+     * @param sortedTermIds Sıralı terim kimlikleri
+     * @return Bit kümesi
+     */
+    public static SparseBitSet of(int[] sortedTermIds) {
+        int wordCount = 0;
+        int previousWord = -1;
+        for (int termId : sortedTermIds) {
+            if ((termId >>> 6) != previousWord) {
+                previousWord = termId >>> 6;
+                wordCount++;
+            }
+        }
+
+        int[] wordIndexes = new int[wordCount];
+        long[] words = new long[wordCount];
+        int w = -1;
+        previousWord = -1;
+        for (int termId : sortedTermIds) {
+            int word = termId >>> 6;
+            if (word != previousWord) {
+                previousWord = word;
+                wordIndexes[++w] = word;
+            }
+            words[w] |= 1L << (termId & 63);
+        }
+        return new SparseBitSet(wordIndexes, words, sortedTermIds.length);
+    }
+
+    /**
+     * İki kümenin kesişimindeki eleman sayısı.
+     */
+    public int intersectionCount(SparseBitSet other) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < wordIndexes.length && j < other.wordIndexes.length) {
+            int a = wordIndexes[i];
+            int b = other.wordIndexes[j];
+            if (a == b) {
+                count += Long.bitCount(words[i++] & other.words[j++]);
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Kümedeki eleman sayısı.
+     */
+    public int cardinality() {
+        return cardinality;
+    }
+}
@@ -0,0 +1,213 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.recommendation.model.UserFeatureVector;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Bir kullanıcının özellik vektörünün bellek içi, değiştirilemez ve kompakt gösterimi.
+ * Her özellik ailesi için terim kimliğine göre sıralı paralel {@code int[]}/{@code float[]}
+ * dizileri ve önceden hesaplanmış vektör normu tutulur. Böylece kosinüs benzerliği
+ * kutulanmış nesneler ve veritabanı erişimi olmadan birleştirme (merge-join) ile hesaplanır.
+ * <p>
+ * Tüm terimleri eşit ağırlıklı olan aileler (beceri, uzmanlık ve ilgi alanları böyle çıkarılır) ayrıca
+ * {@link SparseBitSet} olarak tutulur; bu ailelerde kosinüs |A∩B| / √(|A|·|B|) olduğundan kesişim
+ * bit sayımıyla (popcount) bulunur.
+ */
+public final class SparseFeatureVector {
+
+    private static final int[] NO_TERMS = new int[0];
+    private static final float[] NO_WEIGHTS = new float[0];
+
+    private final Long userId;
+    private final int[][] termIds;
+    private final float[][] weights;
+    private final float[] norms;
+    // Ağırlıkları eşit olmayan ailelerde null
+    private final SparseBitSet[] bitSets;
+
+    private SparseFeatureVector(Long userId, int[][] termIds, float[][] weights, float[] norms, SparseBitSet[] bitSets) {
+        this.userId = userId;
+        this.termIds = termIds;
+        this.weights = weights;
+        this.norms = norms;
+        this.bitSets = bitSets;
+    }
+
+    /**
+     * Veritabanındaki özellik vektöründen kompakt gösterim oluşturur.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param featureVector Kaynak özellik vektörü (terimler {@link TermDictionary} kimlikleriyle)
+     * @return Kompakt özellik vektörü
+     */
+    public static SparseFeatureVector of(Long userId, UserFeatureVector featureVector) {
+        FeatureFamily[] families = FeatureFamily.values();
+        int[][] termIds = new int[families.length][];
+        float[][] weights = new float[families.length][];
+        float[] norms = new float[families.length];
+        SparseBitSet[] bitSets = new SparseBitSet[families.length];
+
+        for (FeatureFamily family : families) {
+            int f = family.ordinal();
+            Map<Integer, Double> source = family.weightsOf(featureVector);
+            if (source == null || source.isEmpty()) {
+                termIds[f] = NO_TERMS;
+                weights[f] = NO_WEIGHTS;
+                continue;
+            }
+
+            // Terim kimliği ve ağırlığı tek bir long içinde paketleyip sıralıyoruz
+            long[] packed = new long[source.size()];
+            int size = 0;
+            for (Map.Entry<Integer, Double> entry : source.entrySet()) {
+                if (entry.getKey() == null || entry.getKey() < 0 || entry.getValue() == null) {
+                    continue;
+                }
+                int termId = entry.getKey();
+                packed[size++] = ((long) termId << 32) | (Float.floatToRawIntBits(entry.getValue().floatValue()) & 0xFFFFFFFFL);
+            }
+            Arrays.sort(packed, 0, size);
+
+            int[] ids = new int[size];
+            float[] values = new float[size];
+            double sumOfSquares = 0.0;
+            boolean uniform = size > 0;
+            for (int i = 0; i < size; i++) {
+                ids[i] = (int) (packed[i] >>> 32);
+                values[i] = Float.intBitsToFloat((int) packed[i]);
+                sumOfSquares += (double) values[i] * values[i];
+                uniform &= values[i] == values[0];
+            }
+
+            termIds[f] = ids;
+            weights[f] = values;
+            norms[f] = (float) Math.sqrt(sumOfSquares);
+            if (uniform && norms[f] > 0f) {
+                bitSets[f] = SparseBitSet.of(ids);
+            }
+        }
+
+        return new SparseFeatureVector(userId, termIds, weights, norms, bitSets);
+    }
+
+    /**
+     * Hiç terimi olmayan bir vektör oluşturur; hiçbir kullanıcıyla benzerliği yoktur.
+     *
+     * @param userId Kullanıcı ID'si
+     * @return Terimsiz vektör
+     */
+    public static SparseFeatureVector empty(Long userId) {
+        int familyCount = FeatureFamily.values().length;
+        int[][] termIds = new int[familyCount][];
+        float[][] weights = new float[familyCount][];
+        Arrays.fill(termIds, NO_TERMS);
+        Arrays.fill(weights, NO_WEIGHTS);
+        return new SparseFeatureVector(userId, termIds, weights, new float[familyCount], new SparseBitSet[familyCount]);
+    }
+
+    /**
+     * İki vektör arasında belirli bir aile için kosinüs benzerliğini hesaplar.
+     *
+     * @param family Özellik ailesi
+     * @param other Diğer vektör
+     * @return Kosinüs benzerlik skoru (0-1 arasında)
+     */
+    public double cosine(FeatureFamily family, SparseFeatureVector other) {
+        int f = family.ordinal();
+        float norm1 = norms[f];
+        float norm2 = other.norms[f];
+        if (norm1 <= 0f || norm2 <= 0f) {
+            return 0.0;
+        }
+
+        // Eşit ağırlıklı kümelerde kosinüs yalnızca kesişim büyüklüğüne bağlıdır
+        SparseBitSet set1 = bitSets[f];
+        SparseBitSet set2 = other.bitSets[f];
+        if (set1 != null && set2 != null) {
+            int overlap = set1.intersectionCount(set2);
+            return overlap == 0 ? 0.0 : overlap / Math.sqrt((double) set1.cardinality() * set2.cardinality());
+        }
+
+        int[] ids1 = termIds[f];
+        int[] ids2 = other.termIds[f];
+        float[] w1 = weights[f];
+        float[] w2 = other.weights[f];
+
+        double dotProduct = 0.0;
+        int i = 0;
+        int j = 0;
+        while (i < ids1.length && j < ids2.length) {
+            int a = ids1[i];
+            int b = ids2[j];
+            if (a == b) {
+                dotProduct += (double) w1[i++] * w2[j++];
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        return dotProduct / ((double) norm1 * norm2);
+    }
+
+    /**
+     * Tüm ailelerin verilen ağırlıklarla ağırlıklı ortalamasını hesaplar.
+     *
+     * @param other Diğer vektör
+     * @param scoringWeights Aile ağırlıkları
+     * @return Genel benzerlik skoru
+     */
+    public double similarity(SparseFeatureVector other, ScoringWeights scoringWeights) {
+        double total = 0.0;
+        for (FeatureFamily family : FeatureFamily.values()) {
+            double weight = scoringWeights.weight(family);
+            if (weight > 0) {
+                total += cosine(family, other) * weight;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Her aile için kosinüs benzerliğini hesaplar ve diziye yazar.
+     *
+     * @param other Diğer vektör
+     * @param out Hedef dizi
+     * @param offset Dizideki ilk ailenin konumu
+     */
+    public void familySimilarities(SparseFeatureVector other, float[] out, int offset) {
+        for (FeatureFamily family : FeatureFamily.values()) {
+            out[offset + family.ordinal()] = (float) cosine(family, other);
+        }
+    }
+
+    // Aşağıdaki erişimciler iç dizileri kopyalamadan döndürür; çağıranlar dizileri değiştirmemelidir.
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public int[] termIds(FeatureFamily family) {
+        return termIds[family.ordinal()];
+    }
+
+    public float[] weights(FeatureFamily family) {
+        return weights[family.ordinal()];
+    }
+
+    public float norm(FeatureFamily family) {
+        return norms[family.ordinal()];
+    }
+
+    /**
+     * Ailenin bit kümesi gösterimi.
+     *
+     * @return Bit kümesi, ailenin ağırlıkları eşit değilse null
+     */
+    public SparseBitSet bitSet(FeatureFamily family) {
+        return bitSets[family.ordinal()];
+    }
+}
@@ -0,0 +1,263 @@
+package com.fuar.recommendation.index;
+
+import com.fuar.recommendation.model.FeatureTerm;
+import com.fuar.recommendation.repository.FeatureTermRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Özellik terimlerini kompakt tamsayı kimliklerine eşleyen, uygulama genelinde paylaşılan sözlük.
+ * Eşlemeler {@link FeatureTerm} tablosunda kalıcı olarak tutulur ve ilk kullanımda belleğe
+ * çift yönlü olarak yüklenir; özellik vektörleri terimleri yalnızca bu kimliklerle saklar ve karşılaştırır.
+ * Aynı terim için her zaman aynı kimlik döner.
+ * <p>
+ * Yeni terimler çağıranın işleminde (transaction) tek bir {@code INSERT ... ON CONFLICT DO NOTHING} ifadesiyle
+ * eklenir; kilit yalnızca kimliği belleğe kaydederken tutulur. İşlem içinde eklenen terimler işlem
+ * onaylanana kadar yalnızca o işleme görünür ve belleğe onaydan sonra alınır; böylece geri alınan bir
+ * işlemin kimliği bellekte kalmaz.
+ */
+@Component
+@Slf4j
+public class TermDictionary {
+
+    private static final String INSERT_TERM_SQL =
+            "INSERT INTO feature_term (term) VALUES (?) ON CONFLICT (term) DO NOTHING RETURNING id";
+    private static final String SELECT_TERM_SQL = "SELECT id FROM feature_term WHERE term = ?";
+
+    private final FeatureTermRepository termRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] terms = new String[0];
+    private volatile int maxId = -1;
+    private volatile boolean loaded;
+
+    /**
+     * Yalnızca bellekte tutulan, kalıcı olmayan bir sözlük oluşturur; kimlikler 0'dan başlayarak artar.
+     */
+    public TermDictionary() {
+        this.termRepository = null;
+        this.jdbcTemplate = null;
+        this.loaded = true;
+    }
+
+    @Autowired
+    public TermDictionary(FeatureTermRepository termRepository, JdbcTemplate jdbcTemplate) {
+        this.termRepository = termRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Terimi normalize eder: baştaki ve sondaki boşluklar kırpılır, küçük harfe çevrilir.
+     *
+     * @param term Ham terim
+     * @return Normalize edilmiş terim, terim boşsa null
+     */
+    public static String normalize(String term) {
+        if (term == null) {
+            return null;
+        }
+        String normalized = term.trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+
+    /**
+     * Terimin kimliğini döndürür, terim ilk kez görülüyorsa yeni kimlik atar ve kaydeder.
+     *
+     * @param term Terim
+     * @return Terim kimliği, terim boşsa -1
+     */
+    public int intern(String term) {
+        String normalized = normalize(term);
+        if (normalized == null) {
+            return -1;
+        }
+        ensureLoaded();
+        Integer id = ids.get(normalized);
+        if (id != null) {
+            return id;
+        }
+        if (termRepository == null) {
+            synchronized (this) {
+                id = ids.get(normalized);
+                if (id == null) {
+                    id = ids.size();
+                    register(id, normalized);
+                }
+                return id;
+            }
+        }
+
+        Map<String, Integer> pending = pendingTerms();
+        if (pending != null) {
+            id = pending.get(normalized);
+            if (id == null) {
+                id = persist(normalized);
+                pending.put(normalized, id);
+            }
+            return id;
+        }
+        // İşlem dışında ifade hemen kalıcı olur
+        id = persist(normalized);
+        synchronized (this) {
+            register(id, normalized);
+        }
+        return id;
+    }
+
+    /**
+     * Terimin kimliğini döndürür.
+     *
+     * @param term Terim
+     * @return Terim kimliği, terim sözlükte yoksa -1
+     */
+    public int idOf(String term) {
+        String normalized = normalize(term);
+        if (normalized == null) {
+            return -1;
+        }
+        ensureLoaded();
+        Integer id = ids.get(normalized);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Kimliğe karşılık gelen terimi döndürür. Kimlik bellekte yoksa başka bir örneğin eklediği terim
+     * olabileceğinden, bilinen en büyük kimlikten sonra eklenen terimler tablodan yüklenir.
+     *
+     * @param id Terim kimliği
+     * @return Terim, kimlik bilinmiyorsa null
+     */
+    public String termOf(int id) {
+        if (id < 0) {
+            return null;
+        }
+        ensureLoaded();
+        String term = lookup(id);
+        if (term == null && termRepository != null) {
+            synchronized (this) {
+                term = lookup(id);
+                if (term == null && id > maxId) {
+                    loadTermsAfter(maxId);
+                    term = lookup(id);
+                }
+            }
+        }
+        return term;
+    }
+
+    /**
+     * Başka örneklerin eklediği, bilinen en büyük kimlikten sonraki terimleri tablodan yükler.
+     * Dağıtık üretimde her turdan önce çağrılır.
+     */
+    public void refresh() {
+        if (termRepository == null) {
+            return;
+        }
+        ensureLoaded();
+        synchronized (this) {
+            loadTermsAfter(maxId);
+        }
+    }
+
+    /**
+     * Sözlükteki terim sayısı.
+     */
+    public int size() {
+        ensureLoaded();
+        return ids.size();
+    }
+
+    /**
+     * Terimi yoksa ekler ve kimliğini döndürür. Terim başka bir işlem tarafından eklenmişse (ya da eşzamanlı
+     * eklenip onaylandıysa) ekleme bir şey yapmaz ve mevcut kimlik okunur.
+     */
+    private int persist(String normalized) {
+        List<Integer> inserted = jdbcTemplate.queryForList(INSERT_TERM_SQL, Integer.class, normalized);
+        if (!inserted.isEmpty()) {
+            return inserted.get(0);
+        }
+        return jdbcTemplate.queryForObject(SELECT_TERM_SQL, Integer.class, normalized);
+    }
+
+    /**
+     * Etkin işlemde eklenen, henüz belleğe alınmamış terimler; işlem yoksa null.
+     * İşlem onaylandığında terimler belleğe kaydedilir, geri alındığında atılır.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Integer> pendingTerms() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Map<String, Integer> pending = (Map<String, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<String, Integer> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TermDictionary.this);
+                    if (status == STATUS_COMMITTED && !created.isEmpty()) {
+                        synchronized (TermDictionary.this) {
+                            created.forEach((term, id) -> register(id, term));
+                        }
+                    }
+                }
+            });
+            pending = created;
+        }
+        return pending;
+    }
+
+    private String lookup(int id) {
+        String[] current = terms;
+        return id < current.length ? current[id] : null;
+    }
+
+    private void loadTermsAfter(int lastKnownId) {
+        List<FeatureTerm> missing = termRepository.findByIdGreaterThanOrderByIdAsc(lastKnownId);
+        for (FeatureTerm featureTerm : missing) {
+            register(featureTerm.getId(), featureTerm.getTerm());
+        }
+        log.debug("Loaded {} feature terms added after id {}", missing.size(), lastKnownId);
+    }
+
+    private void register(int id, String term) {
+        String[] current = terms;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(id + 1, current.length * 2));
+        }
+        current[id] = term;
+        ids.put(term, id);
+        terms = current;
+        if (id > maxId) {
+            maxId = id;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    long start = System.currentTimeMillis();
+                    for (FeatureTerm featureTerm : termRepository.findAll()) {
+                        register(featureTerm.getId(), featureTerm.getTerm());
+                    }
+                    loaded = true;
+                    log.info("Term dictionary loaded: {} terms in {} ms", ids.size(), System.currentTimeMillis() - start);
+                }
+            }
+        }
+    }
+}
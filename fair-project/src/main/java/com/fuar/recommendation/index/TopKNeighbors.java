@@ -0,0 +1,145 @@
+package com.fuar.recommendation.index;
+
+import java.util.Arrays;
+
+/**
+ * Bir kullanıcının en benzer K komşusunu tutan sabit boyutlu min-heap.
+ * Heap'in kökünde en düşük skorlu komşu bulunur; yeni aday yalnızca bu skoru geçerse eklenir.
+ * Bu sınıf iş parçacığı açısından güvenli değildir.
+ */
+public class TopKNeighbors {
+
+    private final long[] ids;
+    private final float[] scores;
+    private int size;
+
+    public TopKNeighbors(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.ids = new long[capacity];
+        this.scores = new float[capacity];
+    }
+
+    /**
+     * Bir adayı değerlendirir; heap doluysa ve aday en zayıf komşudan iyiyse onun yerine geçer.
+     *
+     * @param neighborId Komşu kullanıcı ID'si
+     * @param score Benzerlik skoru
+     * @return Aday eklendiyse true
+     */
+    public boolean offer(long neighborId, float score) {
+        if (size < ids.length) {
+            ids[size] = neighborId;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (!less(ids[0], scores[0], neighborId, score)) {
+            return false;
+        }
+        ids[0] = neighborId;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    /**
+     * Heap doluysa yeni bir adayın girebilmesi için geçmesi gereken skor, değilse negatif sonsuz.
+     */
+    public float threshold() {
+        return size < ids.length ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return ids.length;
+    }
+
+    /**
+     * Komşu ID'lerini skora göre azalan sırada döndürür. Heap'in içeriğini değiştirmez.
+     */
+    public long[] sortedIds() {
+        return Arrays.copyOf(sorted().ids, size);
+    }
+
+    /**
+     * Komşu skorlarını {@link #sortedIds()} ile aynı sırada döndürür.
+     */
+    public float[] sortedScores() {
+        return Arrays.copyOf(sorted().scores, size);
+    }
+
+    /**
+     * Heap'i boşaltır; nesne yeniden kullanılabilir.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private TopKNeighbors sorted() {
+        TopKNeighbors copy = new TopKNeighbors(ids.length);
+        System.arraycopy(ids, 0, copy.ids, 0, size);
+        System.arraycopy(scores, 0, copy.scores, 0, size);
+        copy.size = size;
+
+        // Heap sort: kökteki en küçük eleman sona taşınarak azalan sıra elde edilir
+        for (int end = copy.size - 1; end > 0; end--) {
+            copy.swap(0, end);
+            copy.size = end;
+            copy.siftDown(0);
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!less(ids[index], scores[index], ids[parent], scores[parent])) {
+                break;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < size && less(ids[right], scores[right], ids[left], scores[left])) {
+                smallest = right;
+            }
+            if (!less(ids[smallest], scores[smallest], ids[index], scores[index])) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        float score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    // Eşit skorlarda büyük ID daha "zayıf" sayılır; böylece sıralama deterministik olur
+    private static boolean less(long idA, float scoreA, long idB, float scoreB) {
+        if (scoreA != scoreB) {
+            return scoreA < scoreB;
+        }
+        return idA > idB;
+    }
+}
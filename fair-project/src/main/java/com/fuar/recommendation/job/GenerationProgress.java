@@ -0,0 +1,51 @@
+package com.fuar.recommendation.job;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Öneri üretim hattının ilerlemesini raporladığı ve iptal isteğini kontrol ettiği arayüz.
+ * Varsayılan gerçekleştirmeler hiçbir şey yapmaz; senkron çağrılar {@link #NONE} kullanır.
+ */
+public interface GenerationProgress {
+
+    /**
+     * İlerleme takibi yapılmayan çağrılar için boş gerçekleştirme.
+     */
+    GenerationProgress NONE = new GenerationProgress() {
+    };
+
+    /**
+     * Üretim hattının aşamaları.
+     */
+    enum Phase {
+        EXTRACTING_FEATURES,
+        COMPUTING_NEIGHBORS,
+        STORING_NEIGHBORS,
+        GENERATING_RECOMMENDATIONS
+    }
+
+    default void phase(Phase phase) {
+    }
+
+    default void usersProcessed(int count) {
+    }
+
+    default void pairsScored(long count) {
+    }
+
+    default void rowsWritten(int count) {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * İptal istenmişse {@link CancellationException} fırlatır.
+     */
+    default void checkCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Recommendation generation was cancelled");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.fuar.recommendation.job;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Arka planda çalışan bir öneri üretim işini ve ilerleme sayaçlarını temsil eder.
+ * İş bilgileri yalnızca bellekte tutulur.
+ */
+public class RecommendationJob implements GenerationProgress {
+
+    public enum Status {
+        QUEUED,     // Kuyrukta bekliyor
+        RUNNING,    // Çalışıyor
+        COMPLETED,  // Başarıyla tamamlandı
+        FAILED,     // Hata ile sonlandı
+        CANCELLED   // İptal edildi
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final int recommendationsPerUser;
+    private final Date submittedAt = new Date();
+
+    private final AtomicLong usersProcessed = new AtomicLong();
+    private final AtomicLong pairsScored = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Phase phase;
+    private volatile Date startedAt;
+    private volatile Date finishedAt;
+    private volatile Integer generatedRecommendations;
+    private volatile String errorMessage;
+    private volatile boolean cancelRequested;
+    private volatile Future<?> future;
+
+    public RecommendationJob(int recommendationsPerUser) {
+        this.recommendationsPerUser = recommendationsPerUser;
+    }
+
+    @Override
+    public void phase(Phase phase) {
+        this.phase = phase;
+    }
+
+    @Override
+    public void usersProcessed(int count) {
+        usersProcessed.addAndGet(count);
+    }
+
+    @Override
+    public void pairsScored(long count) {
+        pairsScored.addAndGet(count);
+    }
+
+    @Override
+    public void rowsWritten(int count) {
+        rowsWritten.addAndGet(count);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+        startedAt = new Date();
+    }
+
+    void markCompleted(int generated) {
+        generatedRecommendations = generated;
+        finish(Status.COMPLETED);
+    }
+
+    void markFailed(Throwable error) {
+        errorMessage = error.getMessage();
+        finish(Status.FAILED);
+    }
+
+    void markCancelled() {
+        finish(Status.CANCELLED);
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    private void finish(Status finalStatus) {
+        status = finalStatus;
+        finishedAt = new Date();
+    }
+
+    /**
+     * İş kuyrukta ya da çalışır durumdaysa true.
+     */
+    public boolean isActive() {
+        return status == Status.QUEUED || status == Status.RUNNING;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getRecommendationsPerUser() {
+        return recommendationsPerUser;
+    }
+
+    public Date getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public Date getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Integer getGeneratedRecommendations() {
+        return generatedRecommendations;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public long getUsersProcessed() {
+        return usersProcessed.get();
+    }
+
+    public long getPairsScored() {
+        return pairsScored.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+}
@@ -0,0 +1,152 @@
+package com.fuar.recommendation.job;
+
+import com.fuar.recommendation.service.RecommendationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bu servis, tüm kullanıcılar için öneri üretimini HTTP isteğinden bağımsız olarak
+ * tek bir arka plan iş parçacığında çalıştırır ve işlerin durumunu takip eder.
+ * Dağıtık mod açıksa üretim {@link RecommendationWorkQueueService} üzerinden tüm düğümlere paylaştırılır.
+ */
+@Service
+@Slf4j
+public class RecommendationJobService implements DisposableBean {
+
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final RecommendationService recommendationService;
+    private final RecommendationWorkQueueService workQueueService;
+    private final ExecutorService executor;
+    private final Map<String, RecommendationJob> jobs = new LinkedHashMap<>();
+
+    public RecommendationJobService(
+            RecommendationService recommendationService,
+            RecommendationWorkQueueService workQueueService) {
+        this.recommendationService = recommendationService;
+        this.workQueueService = workQueueService;
+        // Aynı anda en fazla bir aktif iş bulunduğundan tek iş parçacığı yeterlidir
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recommendation-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tüm kullanıcılar için öneri üretim işini kuyruğa ekler.
+     * Aktif bir iş zaten varsa yeni iş oluşturulmaz, mevcut iş döndürülür; çünkü eşzamanlı
+     * iki tam üretim birbirinin sonuçlarının üzerine yazar.
+     *
+     * @param recommendationsPerUser Her kullanıcı için oluşturulacak öneri sayısı
+     * @return Kuyruğa eklenen ya da zaten aktif olan iş
+     */
+    public synchronized RecommendationJob submit(int recommendationsPerUser) {
+        for (RecommendationJob job : jobs.values()) {
+            if (job.isActive()) {
+                return job;
+            }
+        }
+
+        RecommendationJob job = new RecommendationJob(recommendationsPerUser);
+        job.setFuture(executor.submit(() -> run(job)));
+        jobs.put(job.getId(), job);
+        pruneFinishedJobs();
+
+        log.info("Recommendation job {} queued ({} recommendations per user)", job.getId(), recommendationsPerUser);
+        return job;
+    }
+
+    /**
+     * İşi ID'sine göre bulur.
+     *
+     * @param jobId İş ID'si
+     * @return İş, yoksa boş Optional
+     */
+    public synchronized Optional<RecommendationJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Son işleri en yeniden en eskiye sıralı olarak döndürür.
+     */
+    public synchronized List<RecommendationJob> getRecentJobs() {
+        List<RecommendationJob> recent = new ArrayList<>(jobs.values());
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    /**
+     * Bir işi iptal eder. Kuyruktaki iş hemen, çalışan iş bir sonraki kontrol noktasında durur.
+     *
+     * @param jobId İş ID'si
+     * @return İptal istenen iş, yoksa boş Optional
+     */
+    public synchronized Optional<RecommendationJob> cancel(String jobId) {
+        RecommendationJob job = jobs.get(jobId);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        if (job.isActive()) {
+            job.requestCancel();
+            if (job.getStatus() == RecommendationJob.Status.QUEUED && job.getFuture().cancel(false)) {
+                job.markCancelled();
+            }
+            log.info("Cancellation requested for recommendation job {}", jobId);
+        }
+        return Optional.of(job);
+    }
+
+    private void run(RecommendationJob job) {
+        if (job.isCancelled()) {
+            job.markCancelled();
+            return;
+        }
+
+        job.markRunning();
+        log.info("Recommendation job {} started", job.getId());
+
+        try {
+            // Aynı anda yalnızca bir düğüm tam üretim yapar; dağıtık modda işler diğer düğümlerle paylaşılır
+            int generated = workQueueService.runExclusively(() -> workQueueService.isEnabled()
+                    ? workQueueService.generate(job.getRecommendationsPerUser(), job)
+                    : recommendationService.generateRecommendationsForAllUsers(job.getRecommendationsPerUser(), job));
+            job.markCompleted(generated);
+            log.info("Recommendation job {} completed: {} recommendations, {} pairs scored, {} rows written",
+                    job.getId(), generated, job.getPairsScored(), job.getRowsWritten());
+        } catch (CancellationException e) {
+            job.markCancelled();
+            log.info("Recommendation job {} cancelled", job.getId());
+        } catch (Exception e) {
+            job.markFailed(e);
+            log.error("Recommendation job {} failed", job.getId(), e);
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        Iterator<RecommendationJob> iterator = jobs.values().iterator();
+        while (jobs.size() > MAX_RETAINED_JOBS && iterator.hasNext()) {
+            if (!iterator.next().isActive()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,370 @@
+package com.fuar.recommendation.job;
+
+import com.fuar.recommendation.index.CandidateIndex;
+import com.fuar.recommendation.index.CoAttendanceIndex;
+import com.fuar.recommendation.index.ExclusionIndex;
+import com.fuar.recommendation.index.FeatureVectorIndex;
+import com.fuar.recommendation.index.NeighborComputationEngine;
+import com.fuar.recommendation.index.NeighborSnapshotStore;
+import com.fuar.recommendation.index.ScoreAccumulator;
+import com.fuar.recommendation.index.ScoringWeights;
+import com.fuar.recommendation.index.SparseFeatureVector;
+import com.fuar.recommendation.index.TermDictionary;
+import com.fuar.recommendation.index.TopKNeighbors;
+import com.fuar.recommendation.model.RecommendationWorkItem;
+import com.fuar.recommendation.repository.RecommendationWorkQueueRepository;
+import com.fuar.recommendation.service.FeatureExtractionService;
+import com.fuar.recommendation.service.NeighborStoreService;
+import com.fuar.recommendation.service.RecommendationService;
+import com.fuar.recommendation.service.ScoringWeightsService;
+import com.fuar.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Bu servis, tam öneri üretimini birden fazla uygulama düğümüne dağıtır.
+ * <p>
+ * Koordinatör düğüm (üretimi başlatan düğüm) özellik vektörlerini çıkarır, kullanıcı ID'lerini sabit boyutlu
+ * aralıklara böler ve her aralığı {@code recommendation_work_item} tablosuna bir iş olarak yazar. Her düğüm
+ * zamanlanmış bir görevle bekleyen işleri {@code FOR UPDATE SKIP LOCKED} ile sahiplenir; aralıktaki kullanıcıların
+ * komşu listelerini kendi bellek içi indeksinden hesaplar, yazar, önerilerini oluşturur ve işi tamamlandı olarak
+ * işaretler. Kira süresi dolan işler (düğüm çöktüyse) başka bir düğüm tarafından yeniden alınır.
+ * Koordinatör de işlere katılır ve tüm işler bitene kadar ilerlemeyi raporlar.
+ * <p>
+ * Bir işin yazımları (komşu listeleri, öneriler ve tamamlanma) tek bir işlemde yapılır; işlem önce sahiplenme
+ * satırını kilitler ve sahiplik başka bir düğüme geçtiyse hiçbir şey yazmadan biter. Böylece kirası dolmuş
+ * yavaş bir düğüm, işi yeniden alan düğümün sonuçlarının üzerine yazamaz.
+ * Tur bittiğinde her düğüm okuma yolunun anlık görüntüsünü veritabanındaki komşu listelerinden yeniden yazar.
+ */
+@Service
+@Slf4j
+public class RecommendationWorkQueueService {
+
+    private final RecommendationWorkQueueRepository workQueueRepository;
+    private final UserRepository userRepository;
+    private final FeatureExtractionService featureExtractionService;
+    private final FeatureVectorIndex featureVectorIndex;
+    private final CoAttendanceIndex coAttendanceIndex;
+    private final ExclusionIndex exclusionIndex;
+    private final TermDictionary termDictionary;
+    private final NeighborStoreService neighborStoreService;
+    private final NeighborSnapshotStore snapshotStore;
+    private final RecommendationService recommendationService;
+    private final ScoringWeightsService scoringWeightsService;
+    private final TransactionTemplate transaction;
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final int rangeSize;
+    private final long leaseMs;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+
+    private String preparedRunId;
+    // Turun tüm işleri aynı ağırlıklarla skorlanır
+    private volatile ScoringWeights preparedWeights;
+    private volatile String syncedRunId;
+
+    public RecommendationWorkQueueService(
+            RecommendationWorkQueueRepository workQueueRepository,
+            UserRepository userRepository,
+            FeatureExtractionService featureExtractionService,
+            FeatureVectorIndex featureVectorIndex,
+            CoAttendanceIndex coAttendanceIndex,
+            ExclusionIndex exclusionIndex,
+            TermDictionary termDictionary,
+            NeighborStoreService neighborStoreService,
+            NeighborSnapshotStore snapshotStore,
+            RecommendationService recommendationService,
+            ScoringWeightsService scoringWeightsService,
+            PlatformTransactionManager transactionManager,
+            @Value("${recommendation.distributed.enabled:false}") boolean enabled,
+            @Value("${recommendation.distributed.node-id:}") String nodeId,
+            @Value("${recommendation.distributed.range-size:1000}") int rangeSize,
+            @Value("${recommendation.distributed.lease-ms:600000}") long leaseMs,
+            @Value("${recommendation.distributed.max-attempts:3}") int maxAttempts,
+            @Value("${recommendation.distributed.poll-interval-ms:2000}") long pollIntervalMs) {
+        this.workQueueRepository = workQueueRepository;
+        this.userRepository = userRepository;
+        this.featureExtractionService = featureExtractionService;
+        this.featureVectorIndex = featureVectorIndex;
+        this.coAttendanceIndex = coAttendanceIndex;
+        this.exclusionIndex = exclusionIndex;
+        this.termDictionary = termDictionary;
+        this.neighborStoreService = neighborStoreService;
+        this.snapshotStore = snapshotStore;
+        this.recommendationService = recommendationService;
+        this.scoringWeightsService = scoringWeightsService;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        // Aynı JVM'de birden fazla uygulama bağlamı da ayrı düğüm sayılır
+        this.nodeId = nodeId == null || nodeId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+        this.rangeSize = rangeSize;
+        this.leaseMs = leaseMs;
+        this.maxAttempts = maxAttempts;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    /**
+     * Dağıtık üretim modu açıksa true.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Verilen üretim işini küme genelinde tek başına çalıştırır; başka bir düğümde tam üretim sürüyorsa
+     * iş başlamadan hata verir. Hem yerel hem dağıtık üretim bu kilidi kullanır.
+     *
+     * @param generation Üretim işi
+     * @return Üretimin sonucu
+     * @throws IllegalStateException Başka bir düğümde üretim zaten çalışıyorsa
+     */
+    public <T> T runExclusively(Supplier<T> generation) {
+        return workQueueRepository.withGenerationLock(generation);
+    }
+
+    /**
+     * Koordinatör olarak bir üretim turu başlatır, işlere katılır ve tüm işler bitene kadar bekler.
+     * Çağıranın küme genelindeki üretim kilidini tuttuğu varsayılır.
+     *
+     * @param recommendationsPerUser Her kullanıcı için oluşturulacak öneri sayısı
+     * @param progress İlerleme raporu ve iptal kontrolü
+     * @return Toplam oluşturulan öneri sayısı
+     * @throws CancellationException İptal istenirse
+     */
+    public int generate(int recommendationsPerUser, GenerationProgress progress) {
+        // Kilit tutulduğuna göre bitmemiş işler çökmüş bir koordinatörden kalmıştır
+        int abandoned = workQueueRepository.cancelPending(null);
+        if (abandoned > 0) {
+            log.warn("Cancelled {} work items left over from an interrupted generation run", abandoned);
+        }
+
+        progress.phase(GenerationProgress.Phase.EXTRACTING_FEATURES);
+        featureExtractionService.extractFeaturesForAllUsers(progress);
+        progress.checkCancelled();
+
+        String runId = UUID.randomUUID().toString();
+        List<long[]> ranges = splitUserIds();
+        // Bu düğümün vektör indeksi ve terim sözlüğü çıkarma sırasında güncellendi; katılım ve hariç tutma indeksleri yenilenir
+        synchronized (this) {
+            coAttendanceIndex.rebuild();
+            exclusionIndex.rebuild();
+            preparedWeights = scoringWeightsService.reload();
+            preparedRunId = runId;
+        }
+        workQueueRepository.createItems(runId, ranges, recommendationsPerUser);
+        log.info("Distributed generation run {} started by node {}: {} work items of up to {} users",
+                runId, nodeId, ranges.size(), rangeSize);
+
+        progress.phase(GenerationProgress.Phase.GENERATING_RECOMMENDATIONS);
+        long reportedUsers = 0;
+        long reportedRows = 0;
+        while (true) {
+            // Koordinatör de bekleyen işleri işler; iş kalmadığında diğer düğümleri bekler
+            if (!progress.isCancelled() && processNextItem()) {
+                continue;
+            }
+
+            workQueueRepository.failExpired(runId, leaseMs, maxAttempts);
+            Map<RecommendationWorkItem.Status, long[]> summary = workQueueRepository.summarize(runId);
+            long[] done = summary.getOrDefault(RecommendationWorkItem.Status.DONE, new long[3]);
+            progress.usersProcessed((int) (done[1] - reportedUsers));
+            progress.rowsWritten((int) (done[2] - reportedRows));
+            reportedUsers = done[1];
+            reportedRows = done[2];
+
+            long unfinished = count(summary, RecommendationWorkItem.Status.PENDING)
+                    + count(summary, RecommendationWorkItem.Status.CLAIMED);
+            if (progress.isCancelled()) {
+                workQueueRepository.cancelPending(runId);
+                throw new CancellationException("Recommendation generation was cancelled");
+            }
+            if (unfinished == 0) {
+                break;
+            }
+            sleep(pollIntervalMs);
+        }
+
+        long failed = count(workQueueRepository.summarize(runId), RecommendationWorkItem.Status.FAILED);
+        syncSnapshot(runId);
+        if (failed > 0) {
+            throw new IllegalStateException("Distributed generation run " + runId + " finished with "
+                    + failed + " failed work items");
+        }
+        log.info("Distributed generation run {} completed: {} users, {} recommendations", runId, reportedUsers, reportedRows);
+        return (int) reportedRows;
+    }
+
+    /**
+     * Açılıştan önce biten turu kaydeder; o turun komşu listeleri açılışta yüklenen anlık görüntüdedir.
+     * Bundan sonra biten her tur, düğüm işlerine katılmasa da anlık görüntüyü yeniler.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rememberFinishedRun() {
+        if (enabled) {
+            syncedRunId = workQueueRepository.findLatestFinishedRun().orElse(null);
+        }
+    }
+
+    /**
+     * Bu düğüm için bekleyen işleri işler. Dağıtık mod kapalıysa hiçbir şey yapmaz.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.distributed.poll-interval-ms:2000}")
+    public void pollWorkItems() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            while (processNextItem()) {
+                // Kuyruk boşalana kadar devam et
+            }
+            workQueueRepository.findLatestFinishedRun().ifPresent(this::syncSnapshot);
+        } catch (Exception e) {
+            log.error("Error polling recommendation work queue", e);
+        }
+    }
+
+    /**
+     * Bir iş sahiplenir ve işler.
+     *
+     * @return Bir iş işlendiyse true, kuyrukta uygun iş yoksa false
+     */
+    private boolean processNextItem() {
+        Optional<RecommendationWorkItem> claimed = workQueueRepository.claim(nodeId, leaseMs, maxAttempts);
+        if (claimed.isEmpty()) {
+            return false;
+        }
+
+        RecommendationWorkItem item = claimed.get();
+        long start = System.currentTimeMillis();
+        try {
+            prepareForRun(item.getRunId());
+            List<Long> userIds = userRepository.findIdsBetween(item.getRangeStart(), item.getRangeEnd());
+            Long[] ids = userIds.toArray(new Long[0]);
+            TopKNeighbors[] neighbors = computeNeighbors(ids);
+
+            // Yazımlar yalnızca sahiplik hâlâ bu denemeye aitse ve hepsi birlikte onaylanır
+            Integer generated = transaction.execute(status -> {
+                if (!workQueueRepository.lockClaim(item.getId(), nodeId, item.getAttempts())) {
+                    return null;
+                }
+                neighborStoreService.replaceNeighbors(ids, neighbors);
+                int count = recommendationService.generateRecommendationsForUsers(userIds, item.getRecommendationsPerUser());
+                workQueueRepository.complete(item.getId(), nodeId, item.getAttempts(), userIds.size(), count);
+                return count;
+            });
+
+            if (generated == null) {
+                log.warn("Work item {} was reclaimed by another node before completion, discarding its results", item.getId());
+                return true;
+            }
+            log.debug("Work item {} ({}..{}) done on {}: {} users, {} recommendations in {} ms",
+                    item.getId(), item.getRangeStart(), item.getRangeEnd(), nodeId, userIds.size(), generated,
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Work item {} ({}..{}) failed on {} (attempt {})",
+                    item.getId(), item.getRangeStart(), item.getRangeEnd(), nodeId, item.getAttempts(), e);
+            workQueueRepository.fail(item.getId(), nodeId, maxAttempts, String.valueOf(e.getMessage()));
+        }
+        return true;
+    }
+
+    /**
+     * Yeni bir turun ilk işinden önce bellek içi indeksleri koordinatörün yazdığı vektörlerden ve
+     * diğer düğümlerin kaydettiği terim, ret, konuşma ve skor ağırlıklarından yeniden yükler.
+     */
+    private synchronized void prepareForRun(String runId) {
+        if (runId.equals(preparedRunId)) {
+            return;
+        }
+        termDictionary.refresh();
+        featureVectorIndex.rebuild();
+        coAttendanceIndex.rebuild();
+        exclusionIndex.rebuild();
+        preparedWeights = scoringWeightsService.reload();
+        preparedRunId = runId;
+    }
+
+    private TopKNeighbors[] computeNeighbors(Long[] ids) {
+        CandidateIndex candidateIndex = featureVectorIndex.candidateIndex();
+        ScoreAccumulator accumulator = new ScoreAccumulator(candidateIndex.size());
+        ScoringWeights weights = preparedWeights;
+        TopKNeighbors[] neighbors = new TopKNeighbors[ids.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            neighbors[i] = neighborStoreService.newNeighborHeap();
+            SparseFeatureVector vector = featureVectorIndex.get(ids[i]);
+            if (vector != null) {
+                NeighborComputationEngine.computeNeighbors(candidateIndex, vector, weights, accumulator, neighbors[i],
+                        exclusionIndex.exclusionsFor(ids[i]));
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Kullanıcı ID'lerini en fazla rangeSize kullanıcı içeren kapalı aralıklara böler.
+     */
+    private List<long[]> splitUserIds() {
+        List<long[]> ranges = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            List<Long> page = userRepository.findIdsAfter(afterId, PageRequest.of(0, rangeSize));
+            if (page.isEmpty()) {
+                return ranges;
+            }
+            long last = page.get(page.size() - 1);
+            ranges.add(new long[]{page.get(0), last});
+            afterId = last;
+        }
+    }
+
+    /**
+     * Tüm düğümlerin yazdığı komşu listelerinden okuma yolunun anlık görüntüsünü yeniden yazar.
+     */
+    private synchronized void syncSnapshot(String runId) {
+        if (runId.equals(syncedRunId)) {
+            return;
+        }
+        int users = snapshotStore.publishFromDatabase(neighborStoreService.getTopK());
+        log.info("Published neighbor snapshot of {} users after distributed run {}", users, runId);
+        syncedRunId = runId;
+    }
+
+    private static long count(Map<RecommendationWorkItem.Status, long[]> summary, RecommendationWorkItem.Status status) {
+        long[] values = summary.get(status);
+        return values != null ? values[0] : 0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for distributed work items");
+        }
+    }
+}
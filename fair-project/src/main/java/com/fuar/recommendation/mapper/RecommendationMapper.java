@@ -0,0 +1,96 @@
+package com.fuar.recommendation.mapper;
+
+import com.fuar.dto.UserDTO;
+import com.fuar.model.User;
+import com.fuar.recommendation.dto.RecommendationDTO;
+import com.fuar.recommendation.dto.RecommendationDetailDTO;
+import com.fuar.recommendation.dto.RecommendationReasonDTO;
+import com.fuar.recommendation.model.RecommendationReason;
+import com.fuar.recommendation.model.UserRecommendation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Öneri varlıklarını istemciye gönderilen DTO'lara dönüştürür.
+ * REST yanıtları ve WebSocket bildirimleri aynı dönüşümü kullanır.
+ */
+@Component
+public class RecommendationMapper {
+
+    /**
+     * UserRecommendation nesnesini RecommendationDTO'ya dönüştürür.
+     * 
+     * @param recommendation Dönüştürülecek UserRecommendation nesnesi
+     * @return RecommendationDTO nesnesi
+     */
+    public RecommendationDTO toRecommendationDTO(UserRecommendation recommendation) {
+        User recommendedUser = recommendation.getRecommendedUser();
+        
+        RecommendationDTO dto = new RecommendationDTO();
+        dto.setId(recommendation.getId());
+        dto.setUserId(recommendation.getTargetUser().getId());
+        dto.setRecommendedUserId(recommendedUser.getId());
+        dto.setRecommendedUserName(recommendedUser.getName());
+        
+        // Kullanıcı adını ekleyelim
+        if (recommendedUser != null) {
+            dto.setRecommendedUserFullName(recommendedUser.getName() != null ? recommendedUser.getName() : "");
+            
+            // Önerilen kullanıcının tam bilgilerini de ekleyelim (profil resmi dahil)
+            UserDTO userDTO = UserDTO.builder()
+                    .id(recommendedUser.getId())
+                    .name(recommendedUser.getName())
+                    .email(recommendedUser.getEmail())
+                    .image(recommendedUser.getImage())
+                    .build();
+            dto.setRecommendedUser(userDTO);
+        }
+        
+        dto.setScore(recommendation.getScore());
+        dto.setStatus(recommendation.getStatus() != null ? recommendation.getStatus().name() : "NEW");
+        dto.setCreatedAt(recommendation.getCreatedAt() != null ? recommendation.getCreatedAt().getTime() : null);
+        
+        return dto;
+    }
+    
+    /**
+     * UserRecommendation ve RecommendationReason nesnelerini RecommendationDetailDTO'ya dönüştürür.
+     * 
+     * @param recommendation Dönüştürülecek UserRecommendation nesnesi
+     * @param reasons Dönüştürülecek RecommendationReason nesneleri
+     * @return RecommendationDetailDTO nesnesi
+     */
+    public RecommendationDetailDTO toDetailDTO(UserRecommendation recommendation, List<RecommendationReason> reasons) {
+        RecommendationDetailDTO dto = new RecommendationDetailDTO();
+        dto.setRecommendation(toRecommendationDTO(recommendation));
+        
+        List<RecommendationReasonDTO> reasonDTOs = new ArrayList<>();
+        if (reasons != null) {
+            reasonDTOs = reasons.stream()
+                    .map(this::toReasonDTO)
+                    .collect(Collectors.toList());
+        }
+        
+        dto.setReasons(reasonDTOs);
+        return dto;
+    }
+    
+    /**
+     * RecommendationReason nesnesini RecommendationReasonDTO'ya dönüştürür.
+     * 
+     * @param reason Dönüştürülecek RecommendationReason nesnesi
+     * @return RecommendationReasonDTO nesnesi
+     */
+    public RecommendationReasonDTO toReasonDTO(RecommendationReason reason) {
+        RecommendationReasonDTO dto = new RecommendationReasonDTO();
+        dto.setId(reason.getId());
+        dto.setType(reason.getType());
+        dto.setDescription(reason.getDescription());
+        dto.setScore(reason.getScore());
+        
+        return dto;
+    }
+}
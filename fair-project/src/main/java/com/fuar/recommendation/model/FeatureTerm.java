@@ -0,0 +1,31 @@
+package com.fuar.recommendation.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+
+/**
+ * Bu sınıf, özellik vektörlerinde kullanılan normalize edilmiş bir terimi temsil eder.
+ * Özellik vektörleri terimleri metin olarak değil, bu tablodaki kimlikle saklar.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class FeatureTerm {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+    
+    // Normalize edilmiş (kırpılmış, küçük harfli) terim
+    @Column(nullable = false, unique = true)
+    private String term;
+    
+    public FeatureTerm(String term) {
+        this.term = term;
+    }
+}
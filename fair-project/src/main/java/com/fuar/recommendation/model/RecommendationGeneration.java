@@ -0,0 +1,28 @@
+package com.fuar.recommendation.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.util.Date;
+
+/**
+ * Bu sınıf, bir kullanıcının önerilerinin en son ne zaman ve kaç öneri istenerek oluşturulduğunu tutar.
+ * Öneri listesinin eskiyip eskimediğine satır sayısına bakılmadan bu kayıtla karar verilir; yeterli adayı
+ * olmayan bir kullanıcı her istekte yeniden üretim tetiklemez.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class RecommendationGeneration {
+    @Id
+    private Long userId;
+    
+    @Column(nullable = false)
+    private Date generatedAt;  // Önerilerin son oluşturulma zamanı
+    
+    @Column(nullable = false)
+    private Integer requestedCount;  // Son üretimde istenen öneri sayısı
+}
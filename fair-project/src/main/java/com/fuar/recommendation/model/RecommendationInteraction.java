@@ -0,0 +1,76 @@
+package com.fuar.recommendation.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.util.Date;
+
+/**
+ * Bu sınıf, kullanıcının bir öneriyle etkileşimini (gösterim, tıklama, kabul, red) temsil eder.
+ * Tablo yalnızca eklemeli bir olay günlüğüdür; öneriler yeniden oluşturulup silinse de kayıtlar korunur,
+ * bu yüzden öneriye yabancı anahtar yerine kimlikleriyle bağlanır.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_recommendation_interaction_recommendation", columnList = "recommendation_id"),
+        @Index(name = "idx_recommendation_interaction_user_time", columnList = "user_id, occurred_at")
+})
+@Data
+@NoArgsConstructor
+public class RecommendationInteraction {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "recommendation_id", nullable = false)
+    private Long recommendationId;
+    
+    @Column(name = "user_id", nullable = false)
+    private Long userId;  // Öneriyi alan kullanıcı
+    
+    @Column
+    private Long recommendedUserId;  // Önerilen kullanıcı
+    
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private InteractionType type;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private Date occurredAt;  // İstemcide olayın gerçekleştiği zaman
+    
+    public RecommendationInteraction(Long recommendationId, Long userId, InteractionType type, Date occurredAt) {
+        this.recommendationId = recommendationId;
+        this.userId = userId;
+        this.type = type;
+        this.occurredAt = occurredAt;
+    }
+    
+    public enum InteractionType {
+        IMPRESSION(null),                                        // Öneri ekranda gösterildi
+        CLICK(null),                                             // Öneriye tıklandı
+        ACCEPT(UserRecommendation.RecommendationStatus.ACCEPTED), // Öneri kabul edildi
+        REJECT(UserRecommendation.RecommendationStatus.REJECTED); // Öneri reddedildi
+        
+        private final UserRecommendation.RecommendationStatus resultingStatus;
+        
+        InteractionType(UserRecommendation.RecommendationStatus resultingStatus) {
+            this.resultingStatus = resultingStatus;
+        }
+        
+        /**
+         * Olayın öneriye kazandırdığı durum; durumu değiştirmeyen olaylar için null.
+         */
+        public UserRecommendation.RecommendationStatus getResultingStatus() {
+            return resultingStatus;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.fuar.recommendation.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.util.Date;
+
+/**
+ * Bu sınıf, dağıtık öneri üretiminde bir kullanıcı ID aralığını kapsayan iş birimini temsil eder.
+ * Koordinatör düğüm bir üretim turu için aralıkları bu tabloya yazar; her düğüm bekleyen bir işi
+ * {@code FOR UPDATE SKIP LOCKED} ile sahiplenir, aralıktaki kullanıcıların komşu listelerini ve
+ * önerilerini hesaplar ve işi tamamlandı olarak işaretler.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_recommendation_work_item_status", columnList = "status, id"),
+        @Index(name = "idx_recommendation_work_item_run", columnList = "run_id")
+})
+@Data
+@NoArgsConstructor
+public class RecommendationWorkItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "run_id", nullable = false, length = 36)
+    private String runId;  // Üretim turu
+    
+    @Column(nullable = false)
+    private Long rangeStart;  // Aralıktaki ilk kullanıcı ID'si (dahil)
+    
+    @Column(nullable = false)
+    private Long rangeEnd;  // Aralıktaki son kullanıcı ID'si (dahil)
+    
+    @Column(nullable = false)
+    private int recommendationsPerUser;
+    
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.PENDING;
+    
+    @Column
+    private String claimedBy;  // İşi sahiplenen düğüm
+    
+    @Column
+    private Date claimedAt;  // Sahiplenme zamanı; kira süresi bu zamandan itibaren sayılır
+    
+    @Column(nullable = false)
+    private int attempts;  // Sahiplenme sayısı
+    
+    @Column
+    private Integer userCount;  // İşlenen kullanıcı sayısı
+    
+    @Column
+    private Integer generatedCount;  // Oluşturulan öneri sayısı
+    
+    @Column(length = 1000)
+    private String errorMessage;
+    
+    @Column
+    private Date createdAt;
+    
+    @Column
+    private Date completedAt;
+    
+    public enum Status {
+        PENDING,    // Sahiplenilmeyi bekliyor
+        CLAIMED,    // Bir düğüm üzerinde çalışıyor
+        DONE,       // Tamamlandı
+        FAILED,     // Deneme sınırı aşıldı
+        CANCELLED   // Tur iptal edildi ya da yerine yenisi başlatıldı
+    }
+}
@@ -0,0 +1,37 @@
+package com.fuar.recommendation.model;
+
+import com.fuar.recommendation.index.FeatureFamily;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Bu sınıf, benzerlik skorundaki bir özellik ailesinin kalıcı ağırlığını temsil eder.
+ * Ağırlıklar tüm uygulama örnekleri tarafından paylaşılır; tablo boşsa yapılandırılan ağırlıklar geçerlidir.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class ScoringWeight {
+    // FeatureFamily adı
+    @Id
+    @Column(length = 20)
+    private String family;
+    
+    // Normalize edilmiş ağırlık
+    @Column(nullable = false)
+    private Double weight;
+    
+    // Ağırlıkların geçerli olmaya başladığı zaman (epoch milisaniye)
+    @Column(name = "updated_at", nullable = false)
+    private Long updatedAt;
+    
+    public ScoringWeight(FeatureFamily family, Double weight, Long updatedAt) {
+        this.family = family.name();
+        this.weight = weight;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -10,14 +10,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Column;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.ElementCollection;
-import java.util.List;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
 import java.util.Map;
 import java.util.HashMap;
 
 /**
  * Bu sınıf, bir kullanıcının özellik vektörünü temsil eder.
  * Özellik vektörü, kullanıcının profilinden çıkarılan özellikleri içerir.
+ * Terimler metin yerine {@link FeatureTerm} kimlikleriyle saklanır.
  */
 @Entity
 @Data
@@ -30,25 +33,45 @@ public class UserFeatureVector {
     @OneToOne
     private User user;
     
-    // Kullanıcının becerileri ve her becerinin ağırlığı (0-1 arasında)
+    // Kullanıcının becerileri ve her becerinin ağırlığı (0-1 arasında, terim kimliğine göre)
     @ElementCollection
-    private Map<String, Double> skillWeights = new HashMap<>();
+    @CollectionTable(name = "user_feature_vector_skill_terms",
+            joinColumns = @JoinColumn(name = "user_feature_vector_id"))
+    @MapKeyColumn(name = "term_id")
+    @Column(name = "weight")
+    private Map<Integer, Double> skillWeights = new HashMap<>();
     
     // Kullanıcının ilgilendiği sektörler ve her sektörün ağırlığı (0-1 arasında)
     @ElementCollection
-    private Map<String, Double> sectorWeights = new HashMap<>();
+    @CollectionTable(name = "user_feature_vector_sector_terms",
+            joinColumns = @JoinColumn(name = "user_feature_vector_id"))
+    @MapKeyColumn(name = "term_id")
+    @Column(name = "weight")
+    private Map<Integer, Double> sectorWeights = new HashMap<>();
     
     // Kullanıcının uzmanlık alanları ve her alanın ağırlığı (0-1 arasında)
     @ElementCollection
-    private Map<String, Double> expertiseWeights = new HashMap<>();
+    @CollectionTable(name = "user_feature_vector_expertise_terms",
+            joinColumns = @JoinColumn(name = "user_feature_vector_id"))
+    @MapKeyColumn(name = "term_id")
+    @Column(name = "weight")
+    private Map<Integer, Double> expertiseWeights = new HashMap<>();
     
     // Genel ilgi alanları
     @ElementCollection
-    private Map<String, Double> interestWeights = new HashMap<>();
+    @CollectionTable(name = "user_feature_vector_interest_terms",
+            joinColumns = @JoinColumn(name = "user_feature_vector_id"))
+    @MapKeyColumn(name = "term_id")
+    @Column(name = "weight")
+    private Map<Integer, Double> interestWeights = new HashMap<>();
     
     // Eğitim alanları
     @ElementCollection
-    private Map<String, Double> educationFieldWeights = new HashMap<>();
+    @CollectionTable(name = "user_feature_vector_education_field_terms",
+            joinColumns = @JoinColumn(name = "user_feature_vector_id"))
+    @MapKeyColumn(name = "term_id")
+    @Column(name = "weight")
+    private Map<Integer, Double> educationFieldWeights = new HashMap<>();
     
     // Son güncelleme zamanı
     @Column
@@ -8,6 +8,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Column;
@@ -15,6 +16,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Table;
 import java.util.Date;
 import java.util.List;
 
@@ -22,6 +24,10 @@ import java.util.List;
  * Bu sınıf, bir kullanıcıya yapılan önerileri temsil eder.
  */
 @Entity
+@Table(indexes = {
+        // Kullanıcının önerilerinin (skor, id) sırasında keyset sayfalaması için
+        @Index(name = "idx_user_recommendation_target_score", columnList = "target_user_id, score, id")
+})
 @Data
 @NoArgsConstructor
 public class UserRecommendation {
@@ -60,6 +66,12 @@ public class UserRecommendation {
     @Column
     private Boolean clicked;  // Tıklanma durumu
     
+    @Column
+    private Integer impressionCount;  // Gösterim sayısı
+    
+    @Column
+    private Integer clickCount;  // Tıklanma sayısı
+    
     @Column
     @Enumerated(EnumType.STRING)
     private RecommendationStatus status = RecommendationStatus.NEW;  // Öneri durumu
@@ -10,12 +10,19 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Column;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import java.util.Date;
 
 /**
  * Bu sınıf, kullanıcılar arasındaki benzerlik skorlarını temsil eder.
+ * Her kullanıcı için yalnızca en benzer K komşu, sıra numarasıyla birlikte saklanır.
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_user_similarity_user1_rank", columnList = "user1_id, neighbor_rank"),
+        @Index(name = "idx_user_similarity_user2", columnList = "user2_id")
+})
 @Data
 @NoArgsConstructor
 public class UserSimilarity {
@@ -57,6 +64,10 @@ public class UserSimilarity {
     @Column
     private String primaryReasonCode;
     
+    // Komşu listesindeki sıra (1 = en benzer kullanıcı)
+    @Column(name = "neighbor_rank")
+    private Integer neighborRank;
+    
     // Son güncelleme zamanı
     @Column
     private Date lastUpdated;
@@ -0,0 +1,31 @@
+package com.fuar.recommendation.repository;
+
+import com.fuar.recommendation.model.FeatureTerm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * FeatureTerm varlığı için veri erişim katmanı.
+ */
+@Repository
+public interface FeatureTermRepository extends JpaRepository<FeatureTerm, Integer> {
+    
+    /**
+     * Normalize edilmiş terimin kaydını bulur.
+     * 
+     * @param term Normalize edilmiş terim
+     * @return Terim kaydı, yoksa boş Optional
+     */
+    Optional<FeatureTerm> findByTerm(String term);
+
+    /**
+     * Verilen kimlikten sonra eklenen terimleri kimlik sırasıyla bulur.
+     *
+     * @param id Bilinen en büyük terim kimliği
+     * @return Daha büyük kimlikli terimler
+     */
+    List<FeatureTerm> findByIdGreaterThanOrderByIdAsc(Integer id);
+}
@@ -0,0 +1,12 @@
+package com.fuar.recommendation.repository;
+
+import com.fuar.recommendation.model.RecommendationGeneration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * RecommendationGeneration varlığı için veri erişim katmanı.
+ */
+@Repository
+public interface RecommendationGenerationRepository extends JpaRepository<RecommendationGeneration, Long> {
+}
@@ -0,0 +1,325 @@
+package com.fuar.recommendation.repository;
+
+import com.fuar.recommendation.index.FeatureFamily;
+import com.fuar.recommendation.index.NeighborList;
+import com.fuar.recommendation.model.RecommendationInteraction;
+import com.fuar.recommendation.model.UserRecommendation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Öneri, öneri nedeni, etkileşim ve komşu satırlarını toplu JDBC ifadeleriyle yazan veri erişim katmanı.
+ * Bu varlıklar IDENTITY kimlik kullandığından Hibernate ekleme işlemlerini gruplayamaz; toplu üretim
+ * yolları satır başına save yerine bu sınıfı kullanır. Çağıranın işlemine (transaction) katılır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RecommendationJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_RECOMMENDATION =
+            "INSERT INTO user_recommendation (id, target_user_id, recommended_user_id, score, status, created_at, last_updated) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_NEIGHBOR =
+            "INSERT INTO user_similarity (user1_id, user2_id, similarity_score, neighbor_rank, last_updated, " +
+            "skill_similarity, sector_similarity, expertise_similarity, interest_similarity, education_similarity) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_GENERATION =
+            "INSERT INTO recommendation_generation (user_id, generated_at, requested_count) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET generated_at = EXCLUDED.generated_at, requested_count = EXCLUDED.requested_count";
+
+    // Olay yalnızca öneri gerçekten bu kullanıcıya yapılmışsa eklenir; önerilen kullanıcı öneriden kopyalanır
+    private static final String INSERT_INTERACTION =
+            "INSERT INTO recommendation_interaction (recommendation_id, user_id, recommended_user_id, type, occurred_at) " +
+            "SELECT id, target_user_id, recommended_user_id, ?, ? FROM user_recommendation WHERE id = ? AND target_user_id = ?";
+
+    private static final String UPDATE_INTERACTION_COUNTS =
+            "UPDATE user_recommendation SET " +
+            "impression_count = COALESCE(impression_count, 0) + ?, " +
+            "click_count = COALESCE(click_count, 0) + ?, " +
+            "seen_at = COALESCE(seen_at, ?), " +
+            "clicked = (COALESCE(clicked, false) OR ?), " +
+            "status = COALESCE(?, CASE WHEN ? AND (status IS NULL OR status = 'NEW') THEN 'VIEWED' ELSE status END), " +
+            "last_updated = ? " +
+            "WHERE id = ? AND target_user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Tablonun kimlik dizisinden (sequence) tek sorguda birden fazla ID ayırır.
+     *
+     * @param tableName Tablo adı
+     * @param count Ayrılacak ID sayısı
+     * @return Ayrılan ID'ler
+     */
+    public long[] allocateIds(String tableName, int count) {
+        if (count == 0) {
+            return new long[0];
+        }
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)",
+                Long.class, tableName, count);
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Kullanıcıların reddedilmemiş önerilerini ve bu önerilere ait nedenleri siler.
+     *
+     * @param targetUserIds Hedef kullanıcı ID'leri
+     * @return Silinen öneri sayısı
+     */
+    public int deleteRecommendationsForUsers(Collection<Long> targetUserIds) {
+        if (targetUserIds.isEmpty()) {
+            return 0;
+        }
+        // Reddedilen öneriler hariç tutma geçmişi olarak korunur
+        MapSqlParameterSource params = new MapSqlParameterSource("userIds", targetUserIds);
+        namedParameterJdbcTemplate.update(
+                "DELETE FROM recommendation_reason WHERE recommendation_id IN " +
+                "(SELECT id FROM user_recommendation WHERE target_user_id IN (:userIds) AND status IS DISTINCT FROM 'REJECTED')", params);
+        return namedParameterJdbcTemplate.update(
+                "DELETE FROM user_recommendation WHERE target_user_id IN (:userIds) AND status IS DISTINCT FROM 'REJECTED'", params);
+    }
+
+    /**
+     * Önerileri toplu olarak ekler. ID'si olmayan önerilere dizi üzerinden ID atanır;
+     * böylece nedenler aynı işlemde önerilere bağlanabilir.
+     *
+     * @param recommendations Eklenecek öneriler
+     * @return Eklenen satır sayısı
+     */
+    public int insertRecommendations(List<UserRecommendation> recommendations) {
+        int missingIds = (int) recommendations.stream().filter(r -> r.getId() == null).count();
+        long[] ids = allocateIds("user_recommendation", missingIds);
+        int next = 0;
+        for (UserRecommendation recommendation : recommendations) {
+            if (recommendation.getId() == null) {
+                recommendation.setId(ids[next++]);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_RECOMMENDATION, recommendations, BATCH_SIZE, (ps, recommendation) -> {
+            ps.setLong(1, recommendation.getId());
+            ps.setLong(2, recommendation.getTargetUser().getId());
+            ps.setLong(3, recommendation.getRecommendedUser().getId());
+            ps.setObject(4, recommendation.getScore(), Types.DOUBLE);
+            ps.setString(5, recommendation.getStatus() != null ? recommendation.getStatus().name() : null);
+            ps.setTimestamp(6, toTimestamp(recommendation.getCreatedAt()));
+            ps.setTimestamp(7, toTimestamp(recommendation.getLastUpdated()));
+        });
+        return recommendations.size();
+    }
+
+    /**
+     * Kullanıcıların önerilerinin oluşturulma zamanını ve istenen öneri sayısını kaydeder.
+     *
+     * @param userIds Kullanıcı ID'leri
+     * @param requestedCount Kullanıcı başına istenen öneri sayısı
+     * @param generatedAt Oluşturulma zamanı
+     */
+    public void recordGenerations(Collection<Long> userIds, int requestedCount, Date generatedAt) {
+        Timestamp timestamp = toTimestamp(generatedAt);
+        jdbcTemplate.batchUpdate(UPSERT_GENERATION, userIds, BATCH_SIZE, (ps, userId) -> {
+            ps.setLong(1, userId);
+            ps.setTimestamp(2, timestamp);
+            ps.setInt(3, requestedCount);
+        });
+    }
+
+    /**
+     * Etkileşim olaylarını günlük tablosuna toplu olarak ekler.
+     * Kullanıcıya ait olmayan önerilere ait olaylar sessizce atlanır.
+     *
+     * @param interactions Eklenecek olaylar
+     * @return Eklenen satır sayısı
+     */
+    public int insertInteractions(List<RecommendationInteraction> interactions) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_INTERACTION, interactions, BATCH_SIZE, (ps, interaction) -> {
+            ps.setString(1, interaction.getType().name());
+            ps.setTimestamp(2, toTimestamp(interaction.getOccurredAt()));
+            ps.setLong(3, interaction.getRecommendationId());
+            ps.setLong(4, interaction.getUserId());
+        });
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                inserted += Math.max(count, 0);
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Etkileşim olaylarını öneri başına toplar ve öneri sayaçlarını öneri başına tek bir güncellemeyle işler:
+     * gösterim ve tıklama sayıları artırılır, ilk gösterim zamanı ve tıklanma bilgisi yazılır.
+     * Kabul ya da red olayı varsa en son olanın durumu, yalnızca gösterim varsa yeni öneri VIEWED olur.
+     *
+     * @param interactions İşlenecek olaylar
+     * @return Güncellenen öneri sayısı
+     */
+    public int applyInteractionCounts(List<RecommendationInteraction> interactions) {
+        Map<Long, InteractionTotals> totals = new LinkedHashMap<>();
+        for (RecommendationInteraction interaction : interactions) {
+            totals.computeIfAbsent(interaction.getRecommendationId(),
+                    id -> new InteractionTotals(id, interaction.getUserId())).add(interaction);
+        }
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        jdbcTemplate.batchUpdate(UPDATE_INTERACTION_COUNTS, totals.values(), BATCH_SIZE, (ps, total) -> {
+            ps.setInt(1, total.impressions);
+            ps.setInt(2, total.clicks);
+            ps.setTimestamp(3, toTimestamp(total.firstSeen));
+            ps.setBoolean(4, total.clicks > 0);
+            ps.setString(5, total.status != null ? total.status.name() : null);
+            ps.setBoolean(6, total.impressions > 0 || total.clicks > 0);
+            ps.setTimestamp(7, now);
+            ps.setLong(8, total.recommendationId);
+            ps.setLong(9, total.userId);
+        });
+        return totals.size();
+    }
+
+    /**
+     * Verilen önerilerin (hedef kullanıcı, önerilen kullanıcı) çiftlerini ve reddedilip reddedilmediklerini döndürür.
+     *
+     * @param recommendationIds Öneri ID'leri
+     * @return {hedef kullanıcı ID'si, önerilen kullanıcı ID'si, reddedildiyse 1 aksi halde 0} üçlüleri
+     */
+    public List<long[]> findDecidedPairs(Collection<Long> recommendationIds) {
+        if (recommendationIds.isEmpty()) {
+            return List.of();
+        }
+        return namedParameterJdbcTemplate.query(
+                "SELECT target_user_id, recommended_user_id, status = 'REJECTED' FROM user_recommendation " +
+                "WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", recommendationIds),
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getBoolean(3) ? 1 : 0});
+    }
+
+    /**
+     * Kullanıcıların komşu listelerini siler ve verilen listelerle yeniden ekler.
+     * Aile benzerlikleri biliniyorsa her satırla birlikte yazılır.
+     *
+     * @param userIds Kullanıcı ID'leri
+     * @param neighbors Aynı sırayla hizalı komşu listeleri
+     * @param offset Dizilerdeki ilk kullanıcının konumu
+     * @param length Yazılacak kullanıcı sayısı
+     * @return Eklenen komşu satırı sayısı
+     */
+    public int replaceNeighbors(Long[] userIds, NeighborList[] neighbors, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        List<Long> chunk = Arrays.asList(userIds).subList(offset, offset + length);
+        namedParameterJdbcTemplate.update(
+                "DELETE FROM user_similarity WHERE user1_id IN (:userIds)",
+                new MapSqlParameterSource("userIds", chunk));
+
+        // Satırlar (kullanıcı konumu, komşu konumu) çiftlerine düzleştirilir ve sabit boyutlu gruplar halinde gönderilir
+        int rowCount = 0;
+        for (int i = offset; i < offset + length; i++) {
+            rowCount += neighbors[i].size();
+        }
+        int[] owners = new int[rowCount];
+        int[] positions = new int[rowCount];
+        int row = 0;
+        for (int i = offset; i < offset + length; i++) {
+            for (int k = 0; k < neighbors[i].size(); k++, row++) {
+                owners[row] = i;
+                positions[row] = k;
+            }
+        }
+
+        FeatureFamily[] families = FeatureFamily.values();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int from = 0; from < rowCount; from += BATCH_SIZE) {
+            int batchStart = from;
+            int batchSize = Math.min(BATCH_SIZE, rowCount - from);
+            jdbcTemplate.batchUpdate(INSERT_NEIGHBOR, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    int r = batchStart + i;
+                    NeighborList list = neighbors[owners[r]];
+                    int k = positions[r];
+                    ps.setLong(1, userIds[owners[r]]);
+                    ps.setLong(2, list.idAt(k));
+                    ps.setDouble(3, list.scoreAt(k));
+                    ps.setInt(4, k + 1);
+                    ps.setTimestamp(5, now);
+                    for (FeatureFamily family : families) {
+                        int parameter = 6 + family.ordinal();
+                        if (list.hasFamilyScores()) {
+                            ps.setDouble(parameter, list.familyScoreAt(k, family));
+                        } else {
+                            ps.setNull(parameter, Types.DOUBLE);
+                        }
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batchSize;
+                }
+            });
+        }
+        return rowCount;
+    }
+
+    /**
+     * Bir önerinin bir grup içindeki etkileşim toplamları.
+     */
+    private static final class InteractionTotals {
+        private final long recommendationId;
+        private final long userId;
+        private int impressions;
+        private int clicks;
+        private Date firstSeen;
+        private Date decidedAt;
+        private UserRecommendation.RecommendationStatus status;
+
+        InteractionTotals(long recommendationId, long userId) {
+            this.recommendationId = recommendationId;
+            this.userId = userId;
+        }
+
+        void add(RecommendationInteraction interaction) {
+            Date occurredAt = interaction.getOccurredAt();
+            switch (interaction.getType()) {
+                case IMPRESSION -> impressions++;
+                case CLICK -> clicks++;
+                default -> {
+                    if (decidedAt == null || !occurredAt.before(decidedAt)) {
+                        decidedAt = occurredAt;
+                        status = interaction.getType().getResultingStatus();
+                    }
+                }
+            }
+            if (firstSeen == null || occurredAt.before(firstSeen)) {
+                firstSeen = occurredAt;
+            }
+        }
+    }
+
+    private static Timestamp toTimestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+}
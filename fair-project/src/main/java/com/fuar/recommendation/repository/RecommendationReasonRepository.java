@@ -4,6 +4,7 @@ import com.fuar.recommendation.model.RecommendationReason;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -35,4 +36,12 @@ public interface RecommendationReasonRepository extends JpaRepository<Recommenda
      * @return Belirtilen öneriye ait öneri nedenleri
      */
     List<RecommendationReason> findByRecommendation(com.fuar.recommendation.model.UserRecommendation recommendation);
+    
+    /**
+     * Birden fazla öneriye ait kayıtlı nedenleri tek sorguda bulur.
+     * 
+     * @param recommendationIds Öneri ID'leri
+     * @return Öneri nedenleri
+     */
+    List<RecommendationReason> findByRecommendationIdIn(Collection<Long> recommendationIds);
 }
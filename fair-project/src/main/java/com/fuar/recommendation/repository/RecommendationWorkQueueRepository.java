@@ -0,0 +1,215 @@
+package com.fuar.recommendation.repository;
+
+import com.fuar.recommendation.model.RecommendationWorkItem;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Dağıtık öneri üretiminin iş kuyruğu olarak kullanılan {@code recommendation_work_item} tablosuna
+ * JDBC ile erişen veri katmanı. Sahiplenme tek bir {@code UPDATE ... WHERE id = (SELECT ... FOR UPDATE SKIP LOCKED)}
+ * ifadesiyle yapılır; aynı anda sorgulayan düğümler birbirini beklemez ve aynı işi almaz.
+ * Zamanlar düğüm saatlerinden bağımsız olması için veritabanı saatiyle ({@code now()}) yazılır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RecommendationWorkQueueRepository {
+
+    // Tam üretim turlarını düğümler arasında tekilleştiren oturum düzeyi danışma kilidi (advisory lock)
+    private static final long GENERATION_LOCK_KEY = 0x5245434F4D4DL;
+
+    private static final String INSERT_ITEM =
+            "INSERT INTO recommendation_work_item (run_id, range_start, range_end, recommendations_per_user, status, attempts, created_at) " +
+            "VALUES (?, ?, ?, ?, 'PENDING', 0, now())";
+
+    private static final String CLAIM_ITEM =
+            "UPDATE recommendation_work_item SET status = 'CLAIMED', claimed_by = ?, claimed_at = now(), attempts = attempts + 1 " +
+            "WHERE id = (SELECT id FROM recommendation_work_item " +
+            "            WHERE (status = 'PENDING' OR (status = 'CLAIMED' AND claimed_at < now() - ? * interval '1 millisecond')) " +
+            "            AND attempts < ? ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+            "RETURNING id, run_id, range_start, range_end, recommendations_per_user, attempts";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Verilen işi, kümedeki başka hiçbir düğüm aynı kilidi tutmuyorsa çalıştırır.
+     * Kilit ayrılmış bir bağlantı üzerinde iş boyunca tutulur; düğüm çökerse bağlantıyla birlikte serbest kalır.
+     *
+     * @param work Çalıştırılacak iş
+     * @return İşin sonucu
+     * @throws IllegalStateException Başka bir düğümde üretim zaten çalışıyorsa
+     */
+    public <T> T withGenerationLock(Supplier<T> work) {
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            boolean locked;
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                ps.setLong(1, GENERATION_LOCK_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    locked = rs.next() && rs.getBoolean(1);
+                }
+            }
+            if (!locked) {
+                throw new IllegalStateException("Recommendation generation is already running on another node");
+            }
+            try {
+                return work.get();
+            } finally {
+                try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                    ps.setLong(1, GENERATION_LOCK_KEY);
+                    ps.execute();
+                }
+            }
+        });
+    }
+
+    /**
+     * Bir üretim turunun iş birimlerini ekler.
+     *
+     * @param runId Tur ID'si
+     * @param ranges {ilk ID, son ID} aralıkları
+     * @param recommendationsPerUser Kullanıcı başına öneri sayısı
+     * @return Eklenen iş sayısı
+     */
+    public int createItems(String runId, List<long[]> ranges, int recommendationsPerUser) {
+        jdbcTemplate.batchUpdate(INSERT_ITEM, ranges, 1000, (ps, range) -> {
+            ps.setString(1, runId);
+            ps.setLong(2, range[0]);
+            ps.setLong(3, range[1]);
+            ps.setInt(4, recommendationsPerUser);
+        });
+        return ranges.size();
+    }
+
+    /**
+     * Bekleyen ya da kira süresi dolmuş bir işi sahiplenir.
+     *
+     * @param nodeId Sahiplenen düğüm
+     * @param leaseMs Kira süresi; bu süreyi aşan sahiplenmeler yeniden alınabilir
+     * @param maxAttempts En fazla sahiplenme sayısı
+     * @return Sahiplenilen iş, uygun iş yoksa boş
+     */
+    public Optional<RecommendationWorkItem> claim(String nodeId, long leaseMs, int maxAttempts) {
+        List<RecommendationWorkItem> claimed = jdbcTemplate.query(CLAIM_ITEM, (rs, rowNum) -> {
+            RecommendationWorkItem item = new RecommendationWorkItem();
+            item.setId(rs.getLong("id"));
+            item.setRunId(rs.getString("run_id"));
+            item.setRangeStart(rs.getLong("range_start"));
+            item.setRangeEnd(rs.getLong("range_end"));
+            item.setRecommendationsPerUser(rs.getInt("recommendations_per_user"));
+            item.setAttempts(rs.getInt("attempts"));
+            item.setStatus(RecommendationWorkItem.Status.CLAIMED);
+            item.setClaimedBy(nodeId);
+            return item;
+        }, nodeId, leaseMs, maxAttempts);
+        return claimed.stream().findFirst();
+    }
+
+    /**
+     * İşin sahipliğini çağıranın işlemi boyunca kilitler. Sahiplenme belirteci (iş, düğüm, deneme numarası)
+     * hâlâ geçerliyse satır {@code FOR UPDATE} ile kilitlenir; kira süresi dolup iş başka bir düğüme ya da
+     * aynı düğümün sonraki denemesine geçtiyse satır bulunmaz. Kilit tutulduğu sürece iş yeniden sahiplenilemez.
+     *
+     * @param itemId İş ID'si
+     * @param nodeId Sahiplenen düğüm
+     * @param attempts Sahiplenme sırasında dönen deneme numarası
+     * @return Sahiplik geçerliyse true
+     */
+    public boolean lockClaim(Long itemId, String nodeId, int attempts) {
+        return !jdbcTemplate.queryForList(
+                "SELECT id FROM recommendation_work_item " +
+                "WHERE id = ? AND claimed_by = ? AND attempts = ? AND status = 'CLAIMED' FOR UPDATE",
+                Long.class, itemId, nodeId, attempts).isEmpty();
+    }
+
+    /**
+     * İşi tamamlandı olarak işaretler. İş bu arada başka bir düğüme geçtiyse hiçbir şey yapılmaz.
+     *
+     * @return İş bu sahiplenme adına tamamlandıysa true
+     */
+    public boolean complete(Long itemId, String nodeId, int attempts, int userCount, int generatedCount) {
+        return jdbcTemplate.update(
+                "UPDATE recommendation_work_item SET status = 'DONE', completed_at = now(), user_count = ?, generated_count = ? " +
+                "WHERE id = ? AND claimed_by = ? AND attempts = ? AND status = 'CLAIMED'",
+                userCount, generatedCount, itemId, nodeId, attempts) > 0;
+    }
+
+    /**
+     * Başarısız işi deneme sınırına göre yeniden kuyruğa alır ya da başarısız olarak işaretler.
+     */
+    public void fail(Long itemId, String nodeId, int maxAttempts, String errorMessage) {
+        jdbcTemplate.update(
+                "UPDATE recommendation_work_item SET status = CASE WHEN attempts < ? THEN 'PENDING' ELSE 'FAILED' END, " +
+                "error_message = ?, claimed_by = NULL, claimed_at = NULL " +
+                "WHERE id = ? AND claimed_by = ? AND status = 'CLAIMED'",
+                maxAttempts, errorMessage, itemId, nodeId);
+    }
+
+    /**
+     * Deneme sınırına ulaşmış ve kira süresi dolmuş işleri başarısız olarak işaretler.
+     *
+     * @return Başarısız işaretlenen iş sayısı
+     */
+    public int failExpired(String runId, long leaseMs, int maxAttempts) {
+        return jdbcTemplate.update(
+                "UPDATE recommendation_work_item SET status = 'FAILED', error_message = 'Lease expired' " +
+                "WHERE run_id = ? AND status = 'CLAIMED' AND attempts >= ? AND claimed_at < now() - ? * interval '1 millisecond'",
+                runId, maxAttempts, leaseMs);
+    }
+
+    /**
+     * Verilen tur dışındaki (ya da tüm) bitmemiş işleri iptal eder.
+     *
+     * @param runId İptal edilecek tur, null ise tüm turlar
+     * @return İptal edilen iş sayısı
+     */
+    public int cancelPending(String runId) {
+        if (runId == null) {
+            return jdbcTemplate.update(
+                    "UPDATE recommendation_work_item SET status = 'CANCELLED' WHERE status IN ('PENDING', 'CLAIMED')");
+        }
+        return jdbcTemplate.update(
+                "UPDATE recommendation_work_item SET status = 'CANCELLED' WHERE run_id = ? AND status = 'PENDING'", runId);
+    }
+
+    /**
+     * Turun iş durumlarını sayar.
+     *
+     * @param runId Tur ID'si
+     * @return Durum başına {iş sayısı, işlenen kullanıcı, oluşturulan öneri}
+     */
+    public Map<RecommendationWorkItem.Status, long[]> summarize(String runId) {
+        Map<RecommendationWorkItem.Status, long[]> summary = new EnumMap<>(RecommendationWorkItem.Status.class);
+        jdbcTemplate.query(
+                "SELECT status, count(*), COALESCE(sum(user_count), 0), COALESCE(sum(generated_count), 0) " +
+                "FROM recommendation_work_item WHERE run_id = ? GROUP BY status",
+                rs -> {
+                    summary.put(RecommendationWorkItem.Status.valueOf(rs.getString(1)),
+                            new long[]{rs.getLong(2), rs.getLong(3), rs.getLong(4)});
+                },
+                runId);
+        return summary;
+    }
+
+    /**
+     * Bitmemiş işi kalmayan en son turun ID'si.
+     *
+     * @return Tur ID'si, henüz tamamlanan tur yoksa boş
+     */
+    public Optional<String> findLatestFinishedRun() {
+        List<String> runIds = jdbcTemplate.queryForList(
+                "SELECT run_id FROM recommendation_work_item GROUP BY run_id " +
+                "HAVING count(*) FILTER (WHERE status IN ('PENDING', 'CLAIMED')) = 0 " +
+                "ORDER BY max(id) DESC LIMIT 1",
+                String.class);
+        return runIds.stream().findFirst();
+    }
+}
@@ -0,0 +1,26 @@
+package com.fuar.recommendation.repository;
+
+import com.fuar.recommendation.model.ScoringWeight;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * ScoringWeight varlığı için veri erişim katmanı.
+ */
+@Repository
+public interface ScoringWeightRepository extends JpaRepository<ScoringWeight, String> {
+    
+    /**
+     * Tüm aile ağırlıklarını işlem sonuna kadar kilitleyerek getirir; eşzamanlı güncellemeler birbirini bekler.
+     * 
+     * @return Aile ağırlıkları
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM ScoringWeight w")
+    List<ScoringWeight> findAllForUpdate();
+}
@@ -3,8 +3,12 @@ package com.fuar.recommendation.repository;
 import com.fuar.model.User;
 import com.fuar.recommendation.model.UserFeatureVector;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,4 +24,13 @@ public interface UserFeatureVectorRepository extends JpaRepository<UserFeatureVe
      * @return Kullanıcının özellik vektörü, yoksa boş Optional
      */
     Optional<UserFeatureVector> findByUser(User user);
+    
+    /**
+     * Verilen kullanıcıların özellik vektörlerini tek sorguda bulur.
+     * 
+     * @param userIds Kullanıcı ID'leri
+     * @return Bulunan özellik vektörleri
+     */
+    @Query("SELECT v FROM UserFeatureVector v WHERE v.user.id IN :userIds")
+    List<UserFeatureVector> findByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
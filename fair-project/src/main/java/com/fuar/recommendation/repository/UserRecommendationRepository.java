@@ -4,12 +4,15 @@ import com.fuar.model.User;
 import com.fuar.recommendation.model.UserRecommendation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * UserRecommendation varlığı için veri erişim katmanı.
@@ -26,6 +29,61 @@ public interface UserRecommendationRepository extends JpaRepository<UserRecommen
      */
     Page<UserRecommendation> findByTargetUserOrderByScoreDesc(User targetUser, Pageable pageable);
     
+    /**
+     * Belirli bir kullanıcıya yapılan, verilen durumda olmayan önerileri bulur.
+     * 
+     * @param targetUser Hedef kullanıcı
+     * @param status Hariç tutulacak durum
+     * @param pageable Sayfalandırma bilgisi
+     * @return Kullanıcıya yapılan öneriler
+     */
+    @EntityGraph(attributePaths = "recommendedUser")
+    Page<UserRecommendation> findByTargetUserAndStatusNotOrderByScoreDesc(
+            User targetUser, UserRecommendation.RecommendationStatus status, Pageable pageable);
+    
+    /**
+     * Kullanıcının önerilerinin ilk sayfasını (skor, id) azalan sırada, önerilen kullanıcıyla birlikte getirir.
+     * 
+     * @param targetUserId Hedef kullanıcı ID'si
+     * @param status Hariç tutulacak durum
+     * @param pageable Sayfa boyutu
+     * @return Öneriler
+     */
+    @Query("SELECT r FROM UserRecommendation r JOIN FETCH r.recommendedUser " +
+           "WHERE r.targetUser.id = :targetUserId AND (r.status IS NULL OR r.status <> :status) " +
+           "ORDER BY r.score DESC, r.id DESC")
+    List<UserRecommendation> findFirstPage(@Param("targetUserId") Long targetUserId,
+                                           @Param("status") UserRecommendation.RecommendationStatus status,
+                                           Pageable pageable);
+    
+    /**
+     * Verilen (skor, id) konumundan sonraki öneri sayfasını getirir (keyset sayfalama).
+     * 
+     * @param targetUserId Hedef kullanıcı ID'si
+     * @param status Hariç tutulacak durum
+     * @param score Önceki sayfanın son skoru
+     * @param id Önceki sayfanın son öneri ID'si
+     * @param pageable Sayfa boyutu
+     * @return Öneriler
+     */
+    @Query("SELECT r FROM UserRecommendation r JOIN FETCH r.recommendedUser " +
+           "WHERE r.targetUser.id = :targetUserId AND (r.status IS NULL OR r.status <> :status) " +
+           "AND (r.score < :score OR (r.score = :score AND r.id < :id)) " +
+           "ORDER BY r.score DESC, r.id DESC")
+    List<UserRecommendation> findPageAfter(@Param("targetUserId") Long targetUserId,
+                                           @Param("status") UserRecommendation.RecommendationStatus status,
+                                           @Param("score") Double score, @Param("id") Long id, Pageable pageable);
+    
+    /**
+     * Öneriyi hedef ve önerilen kullanıcıları ve kayıtlı nedenleriyle birlikte tek sorguda getirir.
+     * 
+     * @param id Öneri ID'si
+     * @return Öneri
+     */
+    @Query("SELECT DISTINCT r FROM UserRecommendation r JOIN FETCH r.targetUser JOIN FETCH r.recommendedUser " +
+           "LEFT JOIN FETCH r.reasons WHERE r.id = :id")
+    Optional<UserRecommendation> findDetailById(@Param("id") Long id);
+    
     /**
      * Eski arayüz uyumluluğu için targetUser -> user alias metodu
      * 
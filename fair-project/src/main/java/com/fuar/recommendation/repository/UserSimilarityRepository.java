@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -61,6 +62,25 @@ public interface UserSimilarityRepository extends JpaRepository<UserSimilarity,
      */
     List<UserSimilarity> findByUser1OrderBySimilarityScoreDesc(User user);
     
+    /**
+     * Komşu listesinde verilen kullanıcı bulunan kullanıcıların ID'lerini bulur.
+     * 
+     * @param userId Komşu kullanıcı ID'si
+     * @return Komşu listesi bu kullanıcıyı içeren kullanıcıların ID'leri
+     */
+    @Query("SELECT us.user1.id FROM UserSimilarity us WHERE us.user2.id = :userId")
+    List<Long> findUserIdsWithNeighbor(Long userId);
+    
+    /**
+     * Verilen kullanıcıların komşu listesi boyutlarını ve en düşük komşu skorlarını bulur.
+     * 
+     * @param userIds Kullanıcı ID'leri
+     * @return [kullanıcı ID'si, komşu sayısı, en düşük skor] satırları
+     */
+    @Query("SELECT us.user1.id, COUNT(us), MIN(us.similarityScore) FROM UserSimilarity us " +
+           "WHERE us.user1.id IN :userIds GROUP BY us.user1.id")
+    List<Object[]> findNeighborThresholds(Collection<Long> userIds);
+    
     /**
      * Belirli bir kullanıcıya ait tüm benzerlikleri siler
      * 
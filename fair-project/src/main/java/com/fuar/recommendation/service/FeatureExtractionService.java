@@ -6,16 +6,25 @@ import com.fuar.model.User;
 import com.fuar.model.UserInfo;
 import com.fuar.model.WorkExperience;
 import com.fuar.model.Publication;
+import com.fuar.recommendation.index.FeatureVectorIndex;
+import com.fuar.recommendation.index.TermDictionary;
+import com.fuar.recommendation.job.GenerationProgress;
 import com.fuar.recommendation.model.UserFeatureVector;
 import com.fuar.recommendation.repository.UserFeatureVectorRepository;
 import com.fuar.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -32,6 +41,12 @@ public class FeatureExtractionService {
     
     private final UserRepository userRepository;
     private final UserFeatureVectorRepository userFeatureVectorRepository;
+    private final FeatureVectorIndex featureVectorIndex;
+    private final TermDictionary termDictionary;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${recommendation.extraction.page-size:500}")
+    private int pageSize = 500;
     
     /**
      * Belirli bir kullanıcı için özellik vektörü oluşturur veya günceller.
@@ -48,6 +63,20 @@ public class FeatureExtractionService {
         UserFeatureVector featureVector = userFeatureVectorRepository.findByUser(user)
                 .orElse(new UserFeatureVector(user));
         
+        // Özellik vektörünü kaydet, işlem onaylanınca bellek içi indekse yansıt ve döndür
+        UserFeatureVector saved = userFeatureVectorRepository.save(extractFeatures(user, featureVector));
+        featureVectorIndex.putAfterCommit(saved);
+        return saved;
+    }
+    
+    /**
+     * Kullanıcının profilinden tüm özellik ailelerini çıkarır; veritabanına yazmaz.
+     * 
+     * @param user Profili yüklenmiş kullanıcı
+     * @param featureVector Güncellenecek özellik vektörü
+     * @return Güncellenen özellik vektörü
+     */
+    private UserFeatureVector extractFeatures(User user, UserFeatureVector featureVector) {
         // Becerileri çıkar
         extractSkillFeatures(user, featureVector);
         
@@ -65,9 +94,7 @@ public class FeatureExtractionService {
         
         // Son güncelleme zamanını ayarla
         featureVector.setLastUpdated(System.currentTimeMillis());
-        
-        // Özellik vektörünü kaydet ve döndür
-        return userFeatureVectorRepository.save(featureVector);
+        return featureVector;
     }
     
     /**
@@ -75,30 +102,93 @@ public class FeatureExtractionService {
      * 
      * @return Oluşturulan özellik vektörleri sayısı
      */
-    @Transactional
     public int extractFeaturesForAllUsers() {
+        return extractFeaturesForAllUsers(GenerationProgress.NONE);
+    }
+    
+    /**
+     * Tüm kullanıcılar için özellik vektörleri oluşturur; her sayfadan önce iptal isteğini kontrol eder.
+     * Kullanıcılar ID sırasına göre sabit boyutlu sayfalar halinde okunur. Her sayfa kendi işleminde
+     * (transaction) profilleriyle birlikte yüklenir, bellekte işlenir ve toplu olarak yazılır; işlem bitince
+     * kalıcılık bağlamı boşaldığı için bellek kullanımı kullanıcı sayısından bağımsızdır.
+     * 
+     * @param progress İlerleme raporu ve iptal kontrolü
+     * @return Oluşturulan özellik vektörleri sayısı
+     */
+    public int extractFeaturesForAllUsers(GenerationProgress progress) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
         int count = 0;
-        List<User> users = userRepository.findAll();
+        Long lastId = 0L;
         
-        for (User user : users) {
+        while (true) {
+            progress.checkCancelled();
+            List<Long> userIds = userRepository.findIdsAfter(lastId, PageRequest.of(0, pageSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            lastId = userIds.get(userIds.size() - 1);
+            
             try {
-                extractFeaturesForUser(user.getId());
-                count++;
+                List<UserFeatureVector> saved = transaction.execute(status -> extractFeaturesForPage(userIds));
+                saved.forEach(featureVectorIndex::put);
+                count += saved.size();
             } catch (Exception e) {
-                log.error("Error extracting features for user: {}", user.getId(), e);
+                // Sayfa bütün olarak yazılamadıysa hatalı kullanıcıyı ayırmak için tek tek dene
+                log.warn("Bulk feature extraction failed for users {}..{}, retrying one by one: {}",
+                        userIds.get(0), lastId, e.getMessage());
+                for (Long userId : userIds) {
+                    try {
+                        // Her kullanıcı kendi işleminde; profil koleksiyonları işlem açıkken yüklenir
+                        List<UserFeatureVector> single = transaction.execute(
+                                status -> extractFeaturesForPage(List.of(userId)));
+                        single.forEach(featureVectorIndex::put);
+                        count += single.size();
+                    } catch (Exception userError) {
+                        log.error("Error extracting features for user: {}", userId, userError);
+                    }
+                }
             }
         }
         
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        log.info("Extracted features for {} users in {} ms ({} users/s)", count, elapsed, count * 1000L / elapsed);
         return count;
     }
     
+    /**
+     * Bir sayfa kullanıcının profillerini tek seferde yükler, özellik vektörlerini çıkarır ve toplu olarak kaydeder.
+     * 
+     * @param userIds Sayfadaki kullanıcı ID'leri
+     * @return Kaydedilen özellik vektörleri
+     */
+    private List<UserFeatureVector> extractFeaturesForPage(List<Long> userIds) {
+        Map<Long, UserFeatureVector> existing = new HashMap<>();
+        for (UserFeatureVector featureVector : userFeatureVectorRepository.findByUserIdIn(userIds)) {
+            existing.put(featureVector.getUser().getId(), featureVector);
+        }
+        
+        List<UserFeatureVector> featureVectors = new ArrayList<>(userIds.size());
+        for (User user : userRepository.findWithProfileByIdIn(userIds)) {
+            UserFeatureVector featureVector = existing.get(user.getId());
+            if (featureVector == null) {
+                featureVector = new UserFeatureVector(user);
+            }
+            featureVectors.add(extractFeatures(user, featureVector));
+        }
+        
+        List<UserFeatureVector> saved = userFeatureVectorRepository.saveAll(featureVectors);
+        userFeatureVectorRepository.flush();
+        return saved;
+    }
+    
     /**
      * Kullanıcının becerilerinden özellikler çıkarır.
      * 
      * @param user Kullanıcı
      * @param featureVector Güncellenecek özellik vektörü
      */
-    private void extractSkillFeatures(User user, UserFeatureVector featureVector) {
+    void extractSkillFeatures(User user, UserFeatureVector featureVector) {
         Map<String, Double> skillWeights = new HashMap<>();
         
         if (user.getUserInfo() != null && user.getUserInfo().getSkills() != null) {
@@ -109,12 +199,12 @@ public class FeatureExtractionService {
             
             for (Skill skill : skills) {
                 if (skill.getName() != null && !skill.getName().trim().isEmpty()) {
-                    skillWeights.put(skill.getName().toLowerCase(), weight);
+                    skillWeights.put(skill.getName().toLowerCase(Locale.ROOT), weight);
                 }
             }
         }
         
-        featureVector.setSkillWeights(skillWeights);
+        featureVector.setSkillWeights(toTermIds(skillWeights));
     }
     
     /**
@@ -123,7 +213,7 @@ public class FeatureExtractionService {
      * @param user Kullanıcı
      * @param featureVector Güncellenecek özellik vektörü
      */
-    private void extractSectorFeatures(User user, UserFeatureVector featureVector) {
+    void extractSectorFeatures(User user, UserFeatureVector featureVector) {
         Map<String, Double> sectorWeights = new HashMap<>();
         
         if (user.getUserInfo() != null && user.getUserInfo().getWorkExperiences() != null) {
@@ -134,7 +224,7 @@ public class FeatureExtractionService {
             
             for (WorkExperience exp : experiences) {
                 if (exp.getSector() != null && !exp.getSector().trim().isEmpty()) {
-                    String sector = exp.getSector().toLowerCase();
+                    String sector = exp.getSector().toLowerCase(Locale.ROOT);
                     sectorCounts.put(sector, sectorCounts.getOrDefault(sector, 0) + 1);
                 }
             }
@@ -147,7 +237,7 @@ public class FeatureExtractionService {
             }
         }
         
-        featureVector.setSectorWeights(sectorWeights);
+        featureVector.setSectorWeights(toTermIds(sectorWeights));
     }
     
     /**
@@ -156,7 +246,7 @@ public class FeatureExtractionService {
      * @param user Kullanıcı
      * @param featureVector Güncellenecek özellik vektörü
      */
-    private void extractExpertiseFeatures(User user, UserFeatureVector featureVector) {
+    void extractExpertiseFeatures(User user, UserFeatureVector featureVector) {
         Map<String, Double> expertiseWeights = new HashMap<>();
         
         // Burada becerilerden, çalışma deneyiminden ve yayınlardan uzmanlık alanları çıkarılabilir
@@ -194,11 +284,11 @@ public class FeatureExtractionService {
             double weight = expertiseAreas.isEmpty() ? 0.0 : 1.0 / expertiseAreas.size();
             
             for (String expertise : expertiseAreas) {
-                expertiseWeights.put(expertise.toLowerCase(), weight);
+                expertiseWeights.put(expertise.toLowerCase(Locale.ROOT), weight);
             }
         }
         
-        featureVector.setExpertiseWeights(expertiseWeights);
+        featureVector.setExpertiseWeights(toTermIds(expertiseWeights));
     }
     
     /**
@@ -207,7 +297,7 @@ public class FeatureExtractionService {
      * @param user Kullanıcı
      * @param featureVector Güncellenecek özellik vektörü
      */
-    private void extractInterestFeatures(User user, UserFeatureVector featureVector) {
+    void extractInterestFeatures(User user, UserFeatureVector featureVector) {
         Map<String, Double> interestWeights = new HashMap<>();
         
         // Şimdilik basit bir yaklaşım kullanıyoruz
@@ -239,11 +329,11 @@ public class FeatureExtractionService {
             double weight = interests.isEmpty() ? 0.0 : 1.0 / interests.size();
             
             for (String interest : interests) {
-                interestWeights.put(interest.toLowerCase(), weight);
+                interestWeights.put(interest.toLowerCase(Locale.ROOT), weight);
             }
         }
         
-        featureVector.setInterestWeights(interestWeights);
+        featureVector.setInterestWeights(toTermIds(interestWeights));
     }
     
     /**
@@ -252,7 +342,7 @@ public class FeatureExtractionService {
      * @param user Kullanıcı
      * @param featureVector Güncellenecek özellik vektörü
      */
-    private void extractEducationFeatures(User user, UserFeatureVector featureVector) {
+    void extractEducationFeatures(User user, UserFeatureVector featureVector) {
         Map<String, Double> educationFieldWeights = new HashMap<>();
         
         if (user.getUserInfo() != null && user.getUserInfo().getEducations() != null) {
@@ -263,11 +353,11 @@ public class FeatureExtractionService {
             
             for (Education edu : educations) {
                 if (edu.getMajor() != null && !edu.getMajor().trim().isEmpty()) {
-                    String field = edu.getMajor().toLowerCase();
+                    String field = edu.getMajor().toLowerCase(Locale.ROOT);
                     fieldCounts.put(field, fieldCounts.getOrDefault(field, 0) + 1);
                 }
                 if (edu.getDegree() != null && !edu.getDegree().trim().isEmpty()) {
-                    String degree = edu.getDegree().toLowerCase();
+                    String degree = edu.getDegree().toLowerCase(Locale.ROOT);
                     fieldCounts.put(degree, fieldCounts.getOrDefault(degree, 0) + 1);
                 }
             }
@@ -282,7 +372,25 @@ public class FeatureExtractionService {
             }
         }
         
-        featureVector.setEducationFieldWeights(educationFieldWeights);
+        featureVector.setEducationFieldWeights(toTermIds(educationFieldWeights));
+    }
+    
+    /**
+     * Terim-ağırlık eşlemesini ortak sözlükteki terim kimliklerine dönüştürür.
+     * Normalize edildikten sonra aynı terime düşen girdilerden en yüksek ağırlık korunur.
+     * 
+     * @param weights Terim-ağırlık eşlemesi
+     * @return Terim kimliği-ağırlık eşlemesi
+     */
+    private Map<Integer, Double> toTermIds(Map<String, Double> weights) {
+        Map<Integer, Double> termWeights = new HashMap<>(weights.size() * 2);
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            int termId = termDictionary.intern(entry.getKey());
+            if (termId >= 0) {
+                termWeights.merge(termId, entry.getValue(), Math::max);
+            }
+        }
+        return termWeights;
     }
     
     /**
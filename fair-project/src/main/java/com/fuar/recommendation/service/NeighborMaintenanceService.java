@@ -0,0 +1,237 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.event.UserProfileChangedEvent;
+import com.fuar.recommendation.index.CandidateIndex;
+import com.fuar.recommendation.index.ExclusionIndex;
+import com.fuar.recommendation.index.FeatureVectorIndex;
+import com.fuar.recommendation.index.NeighborComputationEngine;
+import com.fuar.recommendation.index.ScoreAccumulator;
+import com.fuar.recommendation.index.ScoringWeights;
+import com.fuar.recommendation.index.TopKNeighbors;
+import com.fuar.recommendation.repository.UserSimilarityRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bu servis, profili değişen kullanıcıları "kirli" olarak işaretler ve arka planda yalnızca bu
+ * kullanıcıların özellik vektörlerini yeniden çıkarır; ardından etkilenen komşu listelerini günceller.
+ * Böylece güncelleme maliyeti kullanıcı sayısıyla değil, değişiklik miktarıyla orantılı olur.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NeighborMaintenanceService {
+
+    private static final int THRESHOLD_QUERY_CHUNK = 1000;
+
+    private final FeatureExtractionService featureExtractionService;
+    private final FeatureVectorIndex featureVectorIndex;
+    private final NeighborStoreService neighborStoreService;
+    private final UserSimilarityRepository similarityRepository;
+    private final ExclusionIndex exclusionIndex;
+    private final ScoringWeightsService scoringWeightsService;
+
+    // Kullanıcı ID'si -> son değişiklik zamanı
+    private final Map<Long, Long> dirtyUsers = new ConcurrentHashMap<>();
+
+    // Çalıştırmalar arasında yeniden kullanılan skor tamponu; çalıştırmalar birbirini bekler
+    private ScoreAccumulator accumulator;
+
+    @Value("${recommendation.maintenance.debounce-ms:5000}")
+    private long debounceMs;
+
+    @Value("${recommendation.maintenance.max-batch:500}")
+    private int maxBatch;
+
+    /**
+     * Profil değişikliği işlem (transaction) başarıyla tamamlandıktan sonra kullanıcıyı kirli olarak işaretler.
+     *
+     * @param event Profil değişikliği olayı
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserProfileChanged(UserProfileChangedEvent event) {
+        markDirty(event.getUserId());
+    }
+
+    /**
+     * Kullanıcıyı kirli olarak işaretler. Aynı kullanıcının art arda gelen değişiklikleri birleştirilir.
+     *
+     * @param userId Kullanıcı ID'si
+     */
+    public void markDirty(Long userId) {
+        if (userId != null) {
+            dirtyUsers.put(userId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Bekleyen kirli kullanıcı sayısı.
+     */
+    public int getDirtyCount() {
+        return dirtyUsers.size();
+    }
+
+    /**
+     * Son değişikliğinden bu yana bekleme süresi dolan kirli kullanıcıları işler.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.maintenance.poll-interval-ms:2000}")
+    public synchronized void processDirtyUsers() {
+        List<Long> batch = drainQuietUsers();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            int updated = refreshNeighbors(batch);
+            log.info("Incremental neighbor maintenance: {} dirty users, {} neighbor lists updated in {} ms",
+                    batch.size(), updated, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Error in incremental neighbor maintenance, re-queueing {} users", batch.size(), e);
+            batch.forEach(userId -> dirtyUsers.putIfAbsent(userId, System.currentTimeMillis()));
+        }
+    }
+
+    private List<Long> drainQuietUsers() {
+        long quietSince = System.currentTimeMillis() - debounceMs;
+        List<Long> batch = new ArrayList<>();
+
+        Iterator<Map.Entry<Long, Long>> iterator = dirtyUsers.entrySet().iterator();
+        while (iterator.hasNext() && batch.size() < maxBatch) {
+            Map.Entry<Long, Long> entry = iterator.next();
+            // Son değişiklikten sonra yeni bir değişiklik geldiyse kayıt yerinde kalır
+            if (entry.getValue() <= quietSince && dirtyUsers.remove(entry.getKey(), entry.getValue())) {
+                batch.add(entry.getKey());
+            }
+        }
+        return batch;
+    }
+
+    private ScoreAccumulator accumulatorFor(int userCount) {
+        if (accumulator == null || accumulator.capacity() < userCount) {
+            // Her büyümede yeniden ayırmamak için pay bırakılır
+            accumulator = new ScoreAccumulator(userCount + userCount / 8 + 16);
+        }
+        return accumulator;
+    }
+
+    /**
+     * Kirli kullanıcıların vektörlerini yeniden çıkarır ve etkilenen komşu listelerini yeniden hesaplar.
+     * Etkilenen kullanıcılar: kirli kullanıcıların kendisi, komşu listesinde kirli bir kullanıcı bulunanlar
+     * ve kirli bir kullanıcıyla yeni skoru mevcut listesine girecek kadar yüksek olanlar.
+     *
+     * @param userIds Kirli kullanıcı ID'leri
+     * @return Güncellenen komşu listesi sayısı
+     */
+    private int refreshNeighbors(List<Long> userIds) {
+        for (Long userId : userIds) {
+            try {
+                featureExtractionService.extractFeaturesForUser(userId);
+            } catch (Exception e) {
+                log.warn("Could not re-extract features for user {}, removing from index: {}", userId, e.getMessage());
+                featureVectorIndex.remove(userId);
+            }
+        }
+
+        // Aday indeksi her değişiklikte yeniden oluşturulmaz; değişen vektörler son indeksin üzerine eklenir
+        CandidateIndex candidateIndex = featureVectorIndex.candidateIndex();
+        ScoreAccumulator accumulator = accumulatorFor(candidateIndex.size());
+        ScoringWeights weights = scoringWeightsService.reload();
+
+        Set<Long> affected = new HashSet<>(userIds);
+        Map<Long, Float> candidateScores = new HashMap<>();
+
+        for (Long userId : userIds) {
+            // Eski skorlar artık geçersiz; bu kullanıcıyı listesinde tutan herkes yeniden hesaplanır
+            affected.addAll(similarityRepository.findUserIdsWithNeighbor(userId));
+
+            int denseIndex = candidateIndex.denseIndexOf(userId);
+            if (denseIndex < 0) {
+                continue;
+            }
+            try {
+                candidateIndex.accumulate(candidateIndex.vectorAt(denseIndex), accumulator, weights);
+                for (int k = 0; k < accumulator.touchedCount(); k++) {
+                    int candidate = accumulator.touchedIndex(k);
+                    if (accumulator.score(candidate) <= 0f) {
+                        continue;
+                    }
+                    candidateScores.merge(candidateIndex.vectorAt(candidate).getUserId(),
+                            accumulator.score(candidate), Math::max);
+                }
+            } finally {
+                accumulator.reset();
+            }
+        }
+
+        candidateScores.keySet().removeAll(affected);
+        affected.addAll(candidatesEnteringTopK(candidateScores));
+
+        int updated = 0;
+        for (Long userId : affected) {
+            int denseIndex = candidateIndex.denseIndexOf(userId);
+            TopKNeighbors neighbors = neighborStoreService.newNeighborHeap();
+            if (denseIndex >= 0) {
+                NeighborComputationEngine.computeNeighbors(candidateIndex, candidateIndex.vectorAt(denseIndex), weights,
+                        accumulator, neighbors, exclusionIndex.exclusionsFor(userId));
+            }
+            try {
+                neighborStoreService.replaceNeighbors(userId, neighbors);
+                updated++;
+            } catch (Exception e) {
+                log.error("Error storing neighbors for user {}", userId, e);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * Kirli bir kullanıcıyla yeni skoru, adayın kayıtlı komşu listesine girecek kadar yüksek olan adayları bulur.
+     * Listesi dolu olmayan adaylar her zaman etkilenmiş sayılır.
+     */
+    private Set<Long> candidatesEnteringTopK(Map<Long, Float> candidateScores) {
+        Set<Long> entering = new HashSet<>();
+        if (candidateScores.isEmpty()) {
+            return entering;
+        }
+
+        int topK = neighborStoreService.getTopK();
+        List<Long> candidates = new ArrayList<>(candidateScores.keySet());
+        Set<Long> withFullList = new HashSet<>();
+
+        for (int from = 0; from < candidates.size(); from += THRESHOLD_QUERY_CHUNK) {
+            List<Long> chunk = candidates.subList(from, Math.min(from + THRESHOLD_QUERY_CHUNK, candidates.size()));
+            for (Object[] row : similarityRepository.findNeighborThresholds(chunk)) {
+                Long userId = (Long) row[0];
+                long count = ((Number) row[1]).longValue();
+                double minScore = ((Number) row[2]).doubleValue();
+                if (count >= topK) {
+                    withFullList.add(userId);
+                    if (candidateScores.get(userId) > minScore) {
+                        entering.add(userId);
+                    }
+                }
+            }
+        }
+
+        for (Long candidate : candidates) {
+            if (!withFullList.contains(candidate)) {
+                entering.add(candidate);
+            }
+        }
+        return entering;
+    }
+}
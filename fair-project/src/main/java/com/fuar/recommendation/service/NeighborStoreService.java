@@ -0,0 +1,157 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.model.User;
+import com.fuar.recommendation.index.FeatureVectorIndex;
+import com.fuar.recommendation.index.NeighborList;
+import com.fuar.recommendation.index.NeighborSnapshotStore;
+import com.fuar.recommendation.index.TopKNeighbors;
+import com.fuar.recommendation.job.GenerationProgress;
+import com.fuar.recommendation.repository.RecommendationJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+
+/**
+ * Bu servis, her kullanıcı için sınırlı boyutlu en yakın komşu listesini saklamaktan sorumludur.
+ * Tablo kullanıcı sayısıyla doğrusal büyür (kullanıcı başına en fazla K satır).
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class NeighborStoreService {
+
+    private static final int USERS_PER_BATCH = 500;
+
+    private final RecommendationJdbcRepository jdbcRepository;
+    private final NeighborSnapshotStore snapshotStore;
+    private final FeatureVectorIndex featureVectorIndex;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${recommendation.neighbors.top-k:50}")
+    private int topK;
+
+    /**
+     * Kullanıcı başına saklanan komşu sayısı.
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Yapılandırılan K değeriyle boş bir komşu heap'i oluşturur.
+     */
+    public TopKNeighbors newNeighborHeap() {
+        return new TopKNeighbors(topK);
+    }
+
+    /**
+     * Kullanıcının komşu listesini verilen heap içeriğiyle değiştirir.
+     * Mevcut satırlar silinir ve yeni liste tek bir toplu ekleme ile yazılır.
+     * 
+     * @param user Kullanıcı
+     * @param neighbors Hesaplanan en yakın komşular
+     * @return Saklanan komşu sayısı
+     */
+    @Transactional
+    public int replaceNeighbors(User user, TopKNeighbors neighbors) {
+        return replaceNeighbors(user.getId(), neighbors);
+    }
+    
+    /**
+     * Kullanıcının komşu listesini ID üzerinden değiştirir.
+     * 
+     * @param userId Kullanıcı ID'si
+     * @param neighbors Hesaplanan en yakın komşular
+     * @return Saklanan komşu sayısı
+     */
+    @Transactional
+    public int replaceNeighbors(Long userId, TopKNeighbors neighbors) {
+        return replaceNeighbors(new Long[]{userId}, new TopKNeighbors[]{neighbors});
+    }
+    
+    /**
+     * Bir grup kullanıcının komşu listelerini tek bir toplu yazımla değiştirir.
+     * Her komşu için aile benzerlikleri de yazılır; genel skor okuma anında güncel ağırlıklarla yeniden harmanlanır.
+     * 
+     * @param userIds Kullanıcı ID'leri
+     * @param neighbors Aynı sırayla hizalı komşu listeleri
+     * @return Saklanan komşu sayısı
+     */
+    @Transactional
+    public int replaceNeighbors(Long[] userIds, TopKNeighbors[] neighbors) {
+        NeighborList[] lists = new NeighborList[userIds.length];
+        fillNeighborLists(lists, userIds, neighbors, 0, userIds.length);
+        int stored = jdbcRepository.replaceNeighbors(userIds, lists, 0, userIds.length);
+        
+        // Anlık görüntü katmanı yalnızca işlem başarıyla tamamlanırsa güncellenir
+        Runnable publish = () -> {
+            for (int i = 0; i < userIds.length; i++) {
+                snapshotStore.update(userIds[i], lists[i]);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
+        }
+        return stored;
+    }
+    
+    /**
+     * Paralel hesaplamanın ürettiği tüm komşu listelerini kaydeder.
+     * Satırlar kullanıcı grupları halinde toplu JDBC ifadeleriyle yazılır; her grup kendi kısa işleminde
+     * (transaction) onaylanır. Böylece tek bir dev işlem kilitleri ve geri alma kayıtlarını üretim boyunca
+     * tutmaz; iptal ya da hata durumunda önceki grupların yeni listeleri yerinde kalır.
+     * 
+     * @param userIds Kullanıcı ID'leri
+     * @param neighbors Aynı sırayla hizalı komşu listeleri
+     * @param progress İlerleme raporu ve iptal kontrolü
+     * @return Kaydedilen toplam komşu sayısı
+     */
+    public int replaceAllNeighbors(Long[] userIds, TopKNeighbors[] neighbors, GenerationProgress progress) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        int totalCount = 0;
+        NeighborList[] lists = new NeighborList[userIds.length];
+        
+        for (int from = 0; from < userIds.length; from += USERS_PER_BATCH) {
+            progress.checkCancelled();
+            int offset = from;
+            int length = Math.min(USERS_PER_BATCH, userIds.length - from);
+            fillNeighborLists(lists, userIds, neighbors, offset, length);
+            int written = transaction.execute(status -> jdbcRepository.replaceNeighbors(userIds, lists, offset, length));
+            // Yazılan grubun listeleri bırakılır; aynı anda yalnızca bir grubun aile benzerlikleri bellekte tutulur
+            Arrays.fill(lists, from, from + length, null);
+            progress.rowsWritten(written);
+            totalCount += written;
+        }
+        
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        log.info("Stored {} neighbor rows for {} users in {} ms ({} rows/s)",
+                totalCount, userIds.length, elapsed, totalCount * 1000L / elapsed);
+        return totalCount;
+    }
+    
+    /**
+     * Verilen aralıktaki heap'leri aile benzerlikleriyle birlikte komşu listelerine dönüştürür.
+     */
+    private void fillNeighborLists(NeighborList[] lists, Long[] userIds, TopKNeighbors[] neighbors,
+                                   int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            lists[i] = featureVectorIndex.neighborList(userIds[i], neighbors[i]);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.recommendation.dto.RecommendationDetailDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Son görüntülenen öneri detaylarını tutan, boyutu sınırlı LRU önbellek.
+ * Bildirimden açılan detay görünümleri veritabanına gitmeden sabit zamanda yanıtlanır.
+ * Önerinin durumu değiştiğinde ya da öneriler yeniden oluşturulduğunda ilgili kayıtlar çıkarılır.
+ * Yükleme sürerken yapılan bir çıkarma, yüklenen eski detayın önbelleğe yazılmasını engeller
+ * ({@link #stamp()} ve {@link #putIfUnchanged}).
+ */
+@Component
+public class RecommendationDetailCache {
+
+    private final Map<Long, RecommendationDetailDTO> entries;
+    private long evictions;
+
+    public RecommendationDetailCache(@Value("${recommendation.detail-cache.size:1024}") int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RecommendationDetailDTO> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Önbellekteki öneri detayını döndürür.
+     *
+     * @param recommendationId Öneri ID'si
+     * @return Öneri detayı, önbellekte yoksa null
+     */
+    public synchronized RecommendationDetailDTO get(Long recommendationId) {
+        return entries.get(recommendationId);
+    }
+
+    /**
+     * Önbelleğin çıkarma sayacını döndürür; detay veritabanından yüklenmeden önce okunur.
+     *
+     * @return Şimdiye kadar yapılan çıkarma sayısı
+     */
+    public synchronized long stamp() {
+        return evictions;
+    }
+
+    /**
+     * Detayı, verilen damgadan bu yana hiçbir kayıt çıkarılmadıysa önbelleğe yazar. Yükleme sırasında
+     * onaylanan bir güncellemenin çıkarmasından sonra eski detayın geri yazılmasını önler.
+     *
+     * @param recommendationId Öneri ID'si
+     * @param detail Öneri detayı
+     * @param stamp Yüklemeden önce {@link #stamp()} ile alınan değer
+     */
+    public synchronized void putIfUnchanged(Long recommendationId, RecommendationDetailDTO detail, long stamp) {
+        if (evictions == stamp) {
+            entries.put(recommendationId, detail);
+        }
+    }
+
+    public synchronized void evict(Long recommendationId) {
+        evictions++;
+        entries.remove(recommendationId);
+    }
+
+    /**
+     * Verilen kullanıcılara yapılmış önerilerin detaylarını önbellekten çıkarır.
+     *
+     * @param userIds Hedef kullanıcı ID'leri
+     */
+    public synchronized void evictForUsers(Collection<Long> userIds) {
+        evictions++;
+        entries.values().removeIf(detail -> userIds.contains(detail.getRecommendation().getUserId()));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,147 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.recommendation.index.ExclusionIndex;
+import com.fuar.recommendation.model.RecommendationInteraction;
+import com.fuar.recommendation.repository.RecommendationJdbcRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bu servis, istemcilerden gelen öneri etkileşimlerini (gösterim, tıklama, kabul, red) toplu olarak işler.
+ * Olaylar önce sabit kapasiteli bir tampona eklenir; zamanlanmış bir görev tamponu boşaltır, olayları
+ * eklemeli günlük tablosuna toplu INSERT ile yazar ve öneri sayaçlarını öneri başına tek bir UPDATE ile
+ * günceller. Böylece istemciler olay başına bir işlem açmadan gösterim bildirebilir.
+ * <p>
+ * Kapasite bir semafor ile tutulur: grup eklenmeden önce tüm yeri atomik olarak ayrılır ve yer ancak olaylar
+ * veritabanına yazıldıktan sonra geri verilir. Yazılamayan olaylar tamponun başına geri konur.
+ */
+@Service
+@Slf4j
+public class RecommendationFeedbackService {
+
+    private final RecommendationJdbcRepository jdbcRepository;
+    private final ExclusionIndex exclusionIndex;
+    private final RecommendationDetailCache detailCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentLinkedDeque<RecommendationInteraction> buffer = new ConcurrentLinkedDeque<>();
+    private final Semaphore capacity;
+    private final int bufferSize;
+    private final int flushBatchSize;
+
+    public RecommendationFeedbackService(RecommendationJdbcRepository jdbcRepository,
+                                         ExclusionIndex exclusionIndex,
+                                         RecommendationDetailCache detailCache,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${recommendation.feedback.buffer-size:65536}") int bufferSize,
+                                         @Value("${recommendation.feedback.flush-batch-size:5000}") int flushBatchSize) {
+        this.jdbcRepository = jdbcRepository;
+        this.exclusionIndex = exclusionIndex;
+        this.detailCache = detailCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = new Semaphore(bufferSize);
+        this.bufferSize = bufferSize;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    /**
+     * Bir grup etkileşim olayını tampona ekler. Tamponda grubun tamamına yer yoksa hiçbiri eklenmez;
+     * istemci grubu daha sonra yeniden gönderebilir.
+     *
+     * @param interactions Olaylar
+     * @return Olaylar kabul edildiyse true, tampon doluysa false
+     */
+    public boolean submit(List<RecommendationInteraction> interactions) {
+        if (!capacity.tryAcquire(interactions.size())) {
+            return false;
+        }
+        buffer.addAll(interactions);
+        return true;
+    }
+
+    /**
+     * Tamponda bekleyen ya da yazılmakta olan olay sayısı.
+     */
+    public int getPendingCount() {
+        return bufferSize - capacity.availablePermits();
+    }
+
+    /**
+     * Tamponu boşaltır ve olayları gruplar halinde veritabanına yazar. Bir grup yazılamazsa olaylar
+     * tamponun başına geri konur ve boşaltma bir sonraki çalıştırmaya bırakılır.
+     */
+    @Scheduled(fixedDelayString = "${recommendation.feedback.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<RecommendationInteraction> batch = new ArrayList<>(flushBatchSize);
+        while (true) {
+            RecommendationInteraction interaction;
+            while (batch.size() < flushBatchSize && (interaction = buffer.pollFirst()) != null) {
+                batch.add(interaction);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (!write(batch)) {
+                // Sıra korunarak başa geri koy
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    buffer.addFirst(batch.get(i));
+                }
+                return;
+            }
+            capacity.release(batch.size());
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private boolean write(List<RecommendationInteraction> batch) {
+        long start = System.currentTimeMillis();
+        Set<Long> touched = new LinkedHashSet<>();
+        Set<Long> decided = new LinkedHashSet<>();
+        for (RecommendationInteraction interaction : batch) {
+            touched.add(interaction.getRecommendationId());
+            if (interaction.getType().getResultingStatus() != null) {
+                decided.add(interaction.getRecommendationId());
+            }
+        }
+
+        List<long[]> decidedPairs;
+        try {
+            decidedPairs = transactionTemplate.execute(status -> {
+                jdbcRepository.insertInteractions(batch);
+                jdbcRepository.applyInteractionCounts(batch);
+                return jdbcRepository.findDecidedPairs(decided);
+            });
+        } catch (Exception e) {
+            log.error("Error writing {} recommendation interactions, keeping them for the next flush", batch.size(), e);
+            return false;
+        }
+
+        // İşlem tamamlandı; reddedilen kullanıcılar bir daha önerilmez, reddi geri alınanlar yeniden önerilebilir
+        for (long[] pair : decidedPairs) {
+            if (pair[2] == 1) {
+                exclusionIndex.exclude(pair[0], pair[1]);
+            } else {
+                exclusionIndex.include(pair[0], pair[1]);
+            }
+        }
+        touched.forEach(detailCache::evict);
+        log.debug("Flushed {} recommendation interactions in {} ms", batch.size(), System.currentTimeMillis() - start);
+        return true;
+    }
+}
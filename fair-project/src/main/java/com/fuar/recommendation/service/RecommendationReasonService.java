@@ -0,0 +1,189 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.recommendation.index.CoAttendanceIndex;
+import com.fuar.recommendation.index.FeatureFamily;
+import com.fuar.recommendation.index.FeatureVectorIndex;
+import com.fuar.recommendation.index.SparseFeatureVector;
+import com.fuar.recommendation.index.TermDictionary;
+import com.fuar.recommendation.model.RecommendationReason;
+import com.fuar.recommendation.model.UserRecommendation;
+import com.fuar.recommendation.repository.RecommendationReasonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Bu servis, öneri nedenlerini istek anında üretir.
+ * Nedenler saklanmaz; iki kullanıcının bellek içi özellik vektörleri ve birlikte katılım indeksinden,
+ * veritabanına gitmeden hesaplanır. Eski sürümlerde kaydedilmiş nedenler varsa onlar kullanılır.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RecommendationReasonService {
+
+    private final FeatureVectorIndex featureVectorIndex;
+    private final TermDictionary termDictionary;
+    private final CoAttendanceIndex coAttendanceIndex;
+    private final RecommendationReasonRepository reasonRepository;
+
+    @Value("${recommendation.co-attendance.weight:0.2}")
+    private double coAttendanceWeight = 0.2;
+
+    /**
+     * Önerilerin nedenlerini getirir. Kayıtlı nedenler tek sorguda okunur, diğerleri hesaplanır.
+     *
+     * @param recommendations Öneriler
+     * @return Öneri sırasını koruyan öneri -> nedenler eşlemesi
+     */
+    public Map<UserRecommendation, List<RecommendationReason>> withReasons(List<UserRecommendation> recommendations) {
+        Map<Long, List<RecommendationReason>> persisted = new HashMap<>();
+        if (!recommendations.isEmpty()) {
+            List<Long> ids = recommendations.stream().map(UserRecommendation::getId).collect(Collectors.toList());
+            for (RecommendationReason reason : reasonRepository.findByRecommendationIdIn(ids)) {
+                persisted.computeIfAbsent(reason.getRecommendation().getId(), key -> new ArrayList<>()).add(reason);
+            }
+        }
+
+        Map<UserRecommendation, List<RecommendationReason>> result = new LinkedHashMap<>();
+        for (UserRecommendation recommendation : recommendations) {
+            List<RecommendationReason> reasons = persisted.get(recommendation.getId());
+            result.put(recommendation, reasons != null ? reasons : explain(recommendation));
+        }
+        return result;
+    }
+
+    /**
+     * Bir öneri için nedenleri hesaplar; sonuç kaydedilmez.
+     *
+     * @param recommendation Öneri nesnesi
+     * @return Öneri nedenleri
+     */
+    public List<RecommendationReason> explain(UserRecommendation recommendation) {
+        List<RecommendationReason> reasons = new ArrayList<>();
+        try {
+            Long userId = recommendation.getTargetUser().getId();
+            Long recommendedUserId = recommendation.getRecommendedUser().getId();
+
+            SparseFeatureVector vector1 = featureVectorIndex.get(userId);
+            SparseFeatureVector vector2 = featureVectorIndex.get(recommendedUserId);
+
+            if (vector1 != null && vector2 != null) {
+                // Ortak becerileri bul
+                addReason(reasons, recommendation, "COMMON_SKILLS", "Ortak beceriler: ",
+                        findCommonFeatures(vector1, vector2, FeatureFamily.SKILL, 3), 0.3);
+
+                // Ortak sektörleri bul
+                addReason(reasons, recommendation, "COMMON_SECTORS", "Ortak sektörler: ",
+                        findCommonFeatures(vector1, vector2, FeatureFamily.SECTOR, 2), 0.25);
+
+                // Ortak uzmanlık alanlarını bul
+                addReason(reasons, recommendation, "COMMON_EXPERTISE", "Ortak uzmanlık alanları: ",
+                        findCommonFeatures(vector1, vector2, FeatureFamily.EXPERTISE, 2), 0.25);
+
+                // Ortak ilgi alanlarını bul
+                addReason(reasons, recommendation, "COMMON_INTERESTS", "Ortak ilgi alanları: ",
+                        findCommonFeatures(vector1, vector2, FeatureFamily.INTEREST, 3), 0.2);
+            }
+
+            // Birlikte katılınan etkinlikler
+            int sharedEvents = coAttendanceIndex.sharedEvents(userId, recommendedUserId);
+            if (sharedEvents > 0) {
+                reasons.add(newReason(recommendation, "COMMON_EVENTS",
+                        "Ortak etkinlik sayısı: " + sharedEvents, coAttendanceWeight));
+            }
+
+            if (vector1 != null && vector2 != null) {
+                // Ortak eğitim alanlarını bul
+                addReason(reasons, recommendation, "COMMON_EDUCATION", "Ortak eğitim alanları: ",
+                        findCommonFeatures(vector1, vector2, FeatureFamily.EDUCATION, 2), 0.15);
+            }
+        } catch (Exception e) {
+            log.error("Error building recommendation reasons for user {}: {}",
+                    recommendation.getRecommendedUser().getId(), e.getMessage());
+        }
+        return reasons;
+    }
+
+    private void addReason(List<RecommendationReason> reasons, UserRecommendation recommendation, String code,
+                           String prefix, List<Integer> termIds, double score) {
+        List<String> features = new ArrayList<>(termIds.size());
+        for (int termId : termIds) {
+            String term = termDictionary.termOf(termId);
+            if (term != null) {
+                features.add(term);
+            }
+        }
+        if (!features.isEmpty()) {
+            reasons.add(newReason(recommendation, code, prefix + String.join(", ", features), score));
+        }
+    }
+
+    private RecommendationReason newReason(UserRecommendation recommendation, String code, String description,
+                                           double score) {
+        RecommendationReason reason = new RecommendationReason();
+        reason.setRecommendation(recommendation);
+        reason.setReasonCode(code);
+        reason.setType(code);
+        reason.setDescription(description);
+        reason.setScore(score);
+        return reason;
+    }
+
+    /**
+     * İki vektörün bir ailedeki ortak terimlerini bulur. Terim kimlikleri sıralı olduğundan
+     * ortak terimler tek bir birleştirme (merge) geçişiyle bulunur.
+     *
+     * @param vector1 Birinci vektör
+     * @param vector2 İkinci vektör
+     * @param family Özellik ailesi
+     * @param limit Sonuç sayısı sınırı
+     * @return Ortak terim kimlikleri, ağırlık çarpımına göre azalan sırada
+     */
+    static List<Integer> findCommonFeatures(SparseFeatureVector vector1, SparseFeatureVector vector2,
+                                            FeatureFamily family, int limit) {
+        int[] ids1 = vector1.termIds(family);
+        int[] ids2 = vector2.termIds(family);
+        if (ids1.length == 0 || ids2.length == 0) {
+            return Collections.emptyList();
+        }
+        float[] weights1 = vector1.weights(family);
+        float[] weights2 = vector2.weights(family);
+
+        // Ağırlık çarpımı ve terim kimliği tek bir long içinde paketlenir; sıralama iki anahtarı birlikte taşır
+        long[] common = new long[Math.min(ids1.length, ids2.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ids1.length && j < ids2.length) {
+            if (ids1[i] == ids2[j]) {
+                float product = weights1[i] * weights2[j];
+                common[size++] = ((long) Float.floatToIntBits(product) << 32) | (ids1[i] & 0xFFFFFFFFL);
+                i++;
+                j++;
+            } else if (ids1[i] < ids2[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+
+        // Pozitif float'ların bit gösterimi sayısal sırayı korur
+        Arrays.sort(common, 0, size);
+        List<Integer> result = new ArrayList<>(Math.min(limit, size));
+        for (int k = size - 1; k >= 0 && result.size() < limit; k--) {
+            result.add((int) common[k]);
+        }
+        return result;
+    }
+}
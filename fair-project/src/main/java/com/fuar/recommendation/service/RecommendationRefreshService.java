@@ -0,0 +1,154 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.model.User;
+import com.fuar.recommendation.dto.RecommendationDTO;
+import com.fuar.recommendation.event.RecommendationRefreshRequestedEvent;
+import com.fuar.recommendation.mapper.RecommendationMapper;
+import com.fuar.recommendation.model.UserRecommendation;
+import com.fuar.recommendation.repository.UserRecommendationRepository;
+import com.fuar.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bu servis, okuma sırasında eksik ya da eski bulunan önerileri arka planda yeniler ve
+ * yeni önerileri kullanıcının STOMP kuyruğuna (/user/{id}/queue/recommendations) gönderir.
+ * Aynı kullanıcı için aynı anda en fazla bir yenileme çalışır.
+ */
+@Service
+@Slf4j
+public class RecommendationRefreshService implements DisposableBean {
+
+    private final RecommendationService recommendationService;
+    private final UserRepository userRepository;
+    private final UserRecommendationRepository recommendationRepository;
+    private final RecommendationMapper recommendationMapper;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long minIntervalMs;
+    private final ThreadPoolExecutor executor;
+
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Long> lastRefreshedAt = new ConcurrentHashMap<>();
+
+    public RecommendationRefreshService(
+            RecommendationService recommendationService,
+            UserRepository userRepository,
+            UserRecommendationRepository recommendationRepository,
+            RecommendationMapper recommendationMapper,
+            SimpMessagingTemplate messagingTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${recommendation.refresh.threads:2}") int threads,
+            @Value("${recommendation.refresh.queue-capacity:256}") int queueCapacity,
+            @Value("${recommendation.refresh.min-interval-ms:60000}") long minIntervalMs) {
+        this.recommendationService = recommendationService;
+        this.userRepository = userRepository;
+        this.recommendationRepository = recommendationRepository;
+        this.recommendationMapper = recommendationMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.minIntervalMs = minIntervalMs;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "recommendation-refresh-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Yenileme isteğini kuyruğa ekler. Kullanıcı için bir yenileme zaten bekliyor ya da çalışıyorsa,
+     * veya son yenileme yakın zamanda yapıldıysa istek yok sayılır.
+     *
+     * @param event Yenileme isteği
+     */
+    @EventListener
+    public void onRefreshRequested(RecommendationRefreshRequestedEvent event) {
+        requestRefresh(event.getUserId(), event.getCount());
+    }
+
+    /**
+     * Kullanıcının önerilerini arka planda yenilemek üzere kuyruğa ekler.
+     *
+     * @param userId Kullanıcı ID'si
+     * @param count Öneri sayısı
+     * @return İstek kuyruğa eklendiyse true
+     */
+    public boolean requestRefresh(Long userId, int count) {
+        Long last = lastRefreshedAt.get(userId);
+        if (last != null && System.currentTimeMillis() - last < minIntervalMs) {
+            return false;
+        }
+        if (!inFlight.add(userId)) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> refresh(userId, count));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(userId);
+            log.warn("Recommendation refresh queue is full, skipping refresh for user {}", userId);
+            return false;
+        }
+    }
+
+    private void refresh(Long userId, int count) {
+        long start = System.currentTimeMillis();
+        try {
+            recommendationService.generateRecommendationsForUser(userId, count);
+            lastRefreshedAt.put(userId, System.currentTimeMillis());
+
+            List<RecommendationDTO> recommendations = readOnlyTransaction.execute(status -> {
+                User user = userRepository.getReferenceById(userId);
+                return recommendationRepository.findByTargetUserAndStatusNotOrderByScoreDesc(
+                        user, UserRecommendation.RecommendationStatus.REJECTED, PageRequest.of(0, count))
+                        .stream()
+                        .map(recommendationMapper::toRecommendationDTO)
+                        .collect(Collectors.toList());
+            });
+
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("userId", userId);
+            payload.put("recommendations", recommendations);
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/recommendations", payload);
+
+            log.debug("Recommendations refreshed for user {} in {} ms", userId, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Error refreshing recommendations for user {}", userId, e);
+        } finally {
+            inFlight.remove(userId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
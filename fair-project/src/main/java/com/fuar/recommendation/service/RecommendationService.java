@@ -1,19 +1,37 @@
 package com.fuar.recommendation.service;
 
 import com.fuar.model.User;
+import com.fuar.recommendation.dto.RecommendationDetailDTO;
+import com.fuar.recommendation.event.RecommendationRefreshRequestedEvent;
+import com.fuar.recommendation.index.CoAttendanceIndex;
+import com.fuar.recommendation.index.ExclusionIndex;
+import com.fuar.recommendation.index.TopKNeighbors;
+import com.fuar.recommendation.job.GenerationProgress;
+import com.fuar.recommendation.mapper.RecommendationMapper;
+import com.fuar.recommendation.model.RecommendationGeneration;
 import com.fuar.recommendation.model.RecommendationReason;
 import com.fuar.recommendation.model.UserRecommendation;
 import com.fuar.recommendation.model.UserSimilarity;
+import com.fuar.recommendation.repository.RecommendationGenerationRepository;
+import com.fuar.recommendation.repository.RecommendationJdbcRepository;
 import com.fuar.recommendation.repository.RecommendationReasonRepository;
 import com.fuar.recommendation.repository.UserRecommendationRepository;
 import com.fuar.recommendation.repository.UserSimilarityRepository;
 import com.fuar.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 /**
@@ -24,12 +42,31 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RecommendationService {
 
+    private static final long DEFAULT_MAX_AGE_MS = 24L * 60 * 60 * 1000;
+    private static final int USERS_PER_BATCH = 200;
+
     private final UserRepository userRepository;
     private final UserSimilarityRepository similarityRepository;
     private final UserRecommendationRepository recommendationRepository;
     private final RecommendationReasonRepository reasonRepository;
+    private final RecommendationJdbcRepository jdbcRepository;
+    private final RecommendationGenerationRepository generationRepository;
     private final SimilarityService similarityService;
     private final FeatureExtractionService featureExtractionService;
+    private final RecommendationReasonService reasonService;
+    private final RecommendationDetailCache detailCache;
+    private final RecommendationMapper recommendationMapper;
+    private final ExclusionIndex exclusionIndex;
+    private final ScoringWeightsService scoringWeightsService;
+    private final CoAttendanceIndex coAttendanceIndex;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Value("${recommendation.refresh.max-age-ms:" + DEFAULT_MAX_AGE_MS + "}")
+    private long maxAgeMs = DEFAULT_MAX_AGE_MS;
+    
+    @Value("${recommendation.co-attendance.weight:0.2}")
+    private double coAttendanceWeight = 0.2;
 
     /**
      * Belirli bir kullanıcı için öneriler oluşturur.
@@ -49,178 +86,133 @@ public class RecommendationService {
         // Kullanıcının benzerliklerini hesapla
         similarityService.computeAndStoreSimilaritiesForUser(userId);
         
-        // Mevcut önerileri temizle
-        recommendationRepository.deleteByUser(user);
-        
-        // En benzer kullanıcıları bul
-        List<UserSimilarity> similarities = similarityService.findMostSimilarUsers(userId, count * 2);
-        
-        int generatedCount = 0;
+        return rebuildRecommendationsFromNeighbors(user, count);
+    }
+    
+    /**
+     * Kullanıcının önerilerini kayıtlı komşu listesinden yeniden oluşturur.
+     * Özellik vektörü ve komşu listesinin güncel olduğu varsayılır.
+     * 
+     * @param user Kullanıcı
+     * @param count Öneri sayısı
+     * @return Oluşturulan öneri sayısı
+     */
+    private int rebuildRecommendationsFromNeighbors(User user, int count) {
+        return rebuildRecommendationsFromNeighbors(List.of(user), count);
+    }
+    
+    /**
+     * Bir grup kullanıcının önerilerini kayıtlı komşu listelerinden ve birlikte katılım indeksinden yeniden oluşturur.
+     * Öneriler önce bellekte hazırlanır, ardından toplu JDBC ifadeleriyle yazılır. Nedenler saklanmaz;
+     * öneriler listelenirken {@link RecommendationReasonService} tarafından hesaplanır.
+     * 
+     * @param users Kullanıcılar
+     * @param count Kullanıcı başına öneri sayısı
+     * @return Oluşturulan öneri sayısı
+     */
+    private int rebuildRecommendationsFromNeighbors(List<User> users, int count) {
+        List<UserRecommendation> recommendations = new ArrayList<>();
+        Date now = new Date(System.currentTimeMillis());
         
-        for (UserSimilarity similarity : similarities) {
-            if (generatedCount >= count) {
-                break;
-            }
-            
-            // Düşük benzerlik skoruna sahip kullanıcıları atlayalım
-            if (similarity.getSimilarityScore() < 0.1) {
-                continue;
-            }
-            
-            try {
+        // Hata işlemi (transaction) geri alınmak üzere işaretleyebileceği için burada yakalanmaz; çağıran taraf
+        // grubu bütün olarak yeniden dener ya da kullanıcıları tek tek ayrı işlemlerde işler
+        for (User user : users) {
+            for (RankedCandidate candidate : rankCandidates(user.getId(), count)) {
                 // Yeni bir öneri oluştur
                 UserRecommendation recommendation = new UserRecommendation();
                 recommendation.setUser(user);
-                recommendation.setRecommendedUser(similarity.getUser2());
-                recommendation.setScore(similarity.getSimilarityScore());
+                recommendation.setRecommendedUser(candidate.user);
+                recommendation.setScore(candidate.score);
                 recommendation.setStatus(UserRecommendation.RecommendationStatus.NEW);
-                recommendation.setCreatedAt(new Date(System.currentTimeMillis()));
-                recommendation.setLastUpdated(new Date(System.currentTimeMillis()));
-                
-                // Öneriyi kaydet
-                UserRecommendation savedRecommendation = recommendationRepository.save(recommendation);
-                
-                // Öneri nedenleri oluştur
-                generateRecommendationReasons(savedRecommendation);
-                
-                generatedCount++;
-            } catch (Exception e) {
-                log.error("Error generating recommendation for user {} with similar user {}", 
-                        userId, similarity.getUser2().getId(), e);
+                recommendation.setCreatedAt(now);
+                recommendation.setLastUpdated(now);
+                recommendations.add(recommendation);
             }
         }
         
-        return generatedCount;
+        // Mevcut önerileri (ve eski sürümlerden kalan nedenlerini) temizle, yenilerini toplu olarak yaz
+        List<Long> userIds = users.stream().map(User::getId).collect(Collectors.toList());
+        jdbcRepository.deleteRecommendationsForUsers(userIds);
+        jdbcRepository.insertRecommendations(recommendations);
+        jdbcRepository.recordGenerations(userIds, count, now);
+        evictAfterCommit(() -> detailCache.evictForUsers(userIds));
+        
+        return recommendations.size();
     }
     
     /**
-     * Bir öneri için nedenler oluşturur.
+     * Kullanıcının öneri adaylarını profil benzerliği ve birlikte etkinlik katılımını harmanlayarak sıralar.
+     * Adaylar kayıtlı komşu listesinden ve en çok etkinlik paylaşılan kullanıcılardan gelir; her aday için
+     * skor (1 - w) · profil benzerliği + w · birlikte katılım skorudur. Hariç tutulan kullanıcılar atlanır.
      * 
-     * @param recommendation Öneri nesnesi
+     * @param userId Kullanıcı ID'si
+     * @param count Öneri sayısı
+     * @return Skora göre azalan sırada en fazla count aday
      */
-    private void generateRecommendationReasons(UserRecommendation recommendation) {
-        try {
-            User user1 = recommendation.getUser();
-            User user2 = recommendation.getRecommendedUser();
-            
-            // Kullanıcıların özellik vektörlerini al
-            var vector1 = featureExtractionService.getUserFeatureVector(user1.getId());
-            var vector2 = featureExtractionService.getUserFeatureVector(user2.getId());
-            
-            if (vector1 == null || vector2 == null) {
-                return;
-            }
-            
-            // Ortak becerileri bul
-            List<String> commonSkills = findCommonFeatures(vector1.getSkillWeights(), vector2.getSkillWeights(), 3);
-            if (!commonSkills.isEmpty()) {
-                try {
-                    RecommendationReason reason = new RecommendationReason();
-                    reason.setRecommendation(recommendation);
-                    reason.setReasonCode("COMMON_SKILLS");
-                    reason.setType("COMMON_SKILLS");
-                    reason.setDescription("Ortak beceriler: " + String.join(", ", commonSkills));
-                    reason.setScore(0.3); // Beceriler için yüksek ağırlık
-                    reasonRepository.save(reason);
-                } catch (Exception e) {
-                    log.error("Error saving COMMON_SKILLS reason for recommendation {}: {}", recommendation.getId(), e.getMessage());
-                }
-            }
-            
-            // Ortak sektörleri bul
-            List<String> commonSectors = findCommonFeatures(vector1.getSectorWeights(), vector2.getSectorWeights(), 2);
-            if (!commonSectors.isEmpty()) {
-                try {
-                    RecommendationReason reason = new RecommendationReason();
-                    reason.setRecommendation(recommendation);
-                    reason.setReasonCode("COMMON_SECTORS");
-                    reason.setType("COMMON_SECTORS");
-                    reason.setDescription("Ortak sektörler: " + String.join(", ", commonSectors));
-                    reason.setScore(0.25);
-                    reasonRepository.save(reason);
-                } catch (Exception e) {
-                    log.error("Error saving COMMON_SECTORS reason for recommendation {}: {}", recommendation.getId(), e.getMessage());
-                }
-            }
-            
-            // Ortak uzmanlık alanlarını bul
-            List<String> commonExpertise = findCommonFeatures(vector1.getExpertiseWeights(), vector2.getExpertiseWeights(), 2);
-            if (!commonExpertise.isEmpty()) {
-                try {
-                    RecommendationReason reason = new RecommendationReason();
-                    reason.setRecommendation(recommendation);
-                    reason.setReasonCode("COMMON_EXPERTISE");
-                    reason.setType("COMMON_EXPERTISE");
-                    reason.setDescription("Ortak uzmanlık alanları: " + String.join(", ", commonExpertise));
-                    reason.setScore(0.25);
-                    reasonRepository.save(reason);
-                } catch (Exception e) {
-                    log.error("Error saving COMMON_EXPERTISE reason for recommendation {}: {}", recommendation.getId(), e.getMessage());
-                }
+    private List<RankedCandidate> rankCandidates(Long userId, int count) {
+        LongPredicate excluded = exclusionIndex.exclusionsFor(userId);
+        Map<Long, RankedCandidate> candidates = new HashMap<>();
+        
+        // Profil benzerliğine göre en yakın komşular
+        for (UserSimilarity similarity : similarityService.findMostSimilarUsers(userId, count * 2)) {
+            // Reddedilen, zaten konuşulan kullanıcılar ve kullanıcının kendisi önerilmez
+            if (!excluded.test(similarity.getUser2().getId())) {
+                candidates.put(similarity.getUser2().getId(),
+                        new RankedCandidate(similarity.getUser2(), similarity.getSimilarityScore()));
             }
-            
-            // Ortak ilgi alanlarını bul
-            List<String> commonInterests = findCommonFeatures(vector1.getInterestWeights(), vector2.getInterestWeights(), 3);
-            if (!commonInterests.isEmpty()) {
-                try {
-                    RecommendationReason reason = new RecommendationReason();
-                    reason.setRecommendation(recommendation);
-                    reason.setReasonCode("COMMON_INTERESTS");
-                    reason.setType("COMMON_INTERESTS");
-                    reason.setDescription("Ortak ilgi alanları: " + String.join(", ", commonInterests));
-                    reason.setScore(0.2);
-                    reasonRepository.save(reason);
-                } catch (Exception e) {
-                    log.error("Error saving COMMON_INTERESTS reason for recommendation {}: {}", recommendation.getId(), e.getMessage());
-                }
+        }
+        
+        // Aynı etkinliklere katılan kullanıcılar; profil benzerlikleri aday başına sorgu yapılmadan
+        // yalnızca bellek içi indeksten hesaplanır
+        if (coAttendanceWeight > 0) {
+            TopKNeighbors coAttendees = coAttendanceIndex.topCoAttendees(userId, count * 2, excluded);
+            for (long candidateId : coAttendees.sortedIds()) {
+                candidates.computeIfAbsent(candidateId, id -> new RankedCandidate(
+                        userRepository.getReferenceById(id), similarityService.indexedSimilarity(userId, id)));
             }
-            
-            // Ortak eğitim alanlarını bul
-            List<String> commonEducation = findCommonFeatures(vector1.getEducationFieldWeights(), vector2.getEducationFieldWeights(), 2);
-            if (!commonEducation.isEmpty()) {
-                try {
-                    RecommendationReason reason = new RecommendationReason();
-                    reason.setRecommendation(recommendation);
-                    reason.setReasonCode("COMMON_EDUCATION");
-                    reason.setType("COMMON_EDUCATION");
-                    reason.setDescription("Ortak eğitim alanları: " + String.join(", ", commonEducation));
-                    reason.setScore(0.15);
-                    reasonRepository.save(reason);
-                } catch (Exception e) {
-                    log.error("Error saving COMMON_EDUCATION reason for recommendation {}: {}", recommendation.getId(), e.getMessage());
-                }
+        }
+        
+        List<RankedCandidate> ranked = new ArrayList<>(candidates.size());
+        for (Map.Entry<Long, RankedCandidate> entry : candidates.entrySet()) {
+            RankedCandidate candidate = entry.getValue();
+            double coAttendance = coAttendanceWeight > 0 ? coAttendanceIndex.score(userId, entry.getKey()) : 0.0;
+            candidate.score = (1 - coAttendanceWeight) * candidate.score + coAttendanceWeight * coAttendance;
+            // Düşük skorlu adayları atlayalım
+            if (candidate.score >= 0.1) {
+                ranked.add(candidate);
             }
-        } catch (Exception e) {
-            log.error("Error in generateRecommendationReasons for recommendation {}: {}", recommendation.getId(), e.getMessage());
+        }
+        ranked.sort((c1, c2) -> Double.compare(c2.score, c1.score));
+        return ranked.size() > count ? ranked.subList(0, count) : ranked;
+    }
+    
+    /**
+     * Öneri adayı ve harmanlanmış skoru.
+     */
+    private static class RankedCandidate {
+        private final User user;
+        private double score;
+        
+        RankedCandidate(User user, double score) {
+            this.user = user;
+            this.score = score;
         }
     }
     
     /**
-     * İki özellik vektörü arasındaki ortak özellikleri bulur.
+     * Verilen kullanıcıların önerilerini kayıtlı komşu listelerinden yeniden oluşturur.
+     * Dağıtık üretimde her iş birimi kendi kullanıcı aralığı için bu metodu çağırır.
      * 
-     * @param features1 Birinci özellik vektörü
-     * @param features2 İkinci özellik vektörü
-     * @param limit Sonuç sayısı sınırı
-     * @return Ortak özelliklerin listesi
+     * @param userIds Kullanıcı ID'leri
+     * @param count Kullanıcı başına öneri sayısı
+     * @return Oluşturulan öneri sayısı
      */
-    private List<String> findCommonFeatures(Map<String, Double> features1, Map<String, Double> features2, int limit) {
-        if (features1 == null || features2 == null || features1.isEmpty() || features2.isEmpty()) {
-            return Collections.emptyList();
+    @Transactional
+    public int generateRecommendationsForUsers(List<Long> userIds, int count) {
+        if (userIds.isEmpty()) {
+            return 0;
         }
-        
-        // Ortak anahtarları bul
-        Set<String> commonKeys = new HashSet<>(features1.keySet());
-        commonKeys.retainAll(features2.keySet());
-        
-        // Ortak anahtarları ağırlığa göre sırala
-        return commonKeys.stream()
-                .sorted((k1, k2) -> {
-                    double w1 = features1.get(k1) * features2.get(k1);
-                    double w2 = features1.get(k2) * features2.get(k2);
-                    return Double.compare(w2, w1); // Azalan sıralama
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
+        return rebuildRecommendationsFromNeighbors(userRepository.findAllById(userIds), count);
     }
     
     /**
@@ -229,62 +221,111 @@ public class RecommendationService {
      * @param recommendationsPerUser Her kullanıcı için oluşturulacak öneri sayısı
      * @return Toplam oluşturulan öneri sayısı
      */
-    @Transactional
     public int generateRecommendationsForAllUsers(int recommendationsPerUser) {
-        // Öncelikle tüm kullanıcılar için özellik vektörlerini ve benzerliklerini güncelle
-        featureExtractionService.extractFeaturesForAllUsers();
-        similarityService.computeAndStoreAllSimilarities();
+        return generateRecommendationsForAllUsers(recommendationsPerUser, GenerationProgress.NONE);
+    }
+    
+    /**
+     * Tüm kullanıcılar için öneriler oluşturur; ilerlemeyi raporlar ve iptal isteğini kontrol eder.
+     * 
+     * @param recommendationsPerUser Her kullanıcı için oluşturulacak öneri sayısı
+     * @param progress İlerleme raporu ve iptal kontrolü
+     * @return Toplam oluşturulan öneri sayısı
+     * @throws java.util.concurrent.CancellationException İptal istenirse
+     */
+    public int generateRecommendationsForAllUsers(int recommendationsPerUser, GenerationProgress progress) {
+        // Öncelikle tüm kullanıcılar için özellik vektörlerini ve komşu listelerini paralel olarak güncelle
+        similarityService.computeAndStoreAllSimilarities(progress);
         
-        List<User> allUsers = userRepository.findAll();
+        progress.phase(GenerationProgress.Phase.GENERATING_RECOMMENDATIONS);
+        coAttendanceIndex.rebuild();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
         int totalCount = 0;
+        int userCount = 0;
+        Long lastId = 0L;
         
-        // Her kullanıcı için öneriler oluştur
-        for (User user : allUsers) {
+        // Öneriler kullanıcı grupları halinde, her grup kendi kısa işleminde komşu listelerinden oluşturulur.
+        // Kullanıcı ID'leri anahtar sırasıyla sayfalanır ve varlıklar yalnızca grubun işleminde yüklenir;
+        // böylece bellekte aynı anda tek bir grubun kullanıcıları bulunur.
+        while (true) {
+            progress.checkCancelled();
+            List<Long> batch = userRepository.findIdsAfter(lastId, PageRequest.of(0, USERS_PER_BATCH));
+            if (batch.isEmpty()) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1);
+            
+            int generated;
             try {
-                int count = generateRecommendationsForUser(user.getId(), recommendationsPerUser);
-                totalCount += count;
+                generated = transactionTemplate.execute(status ->
+                        rebuildRecommendationsFromNeighbors(userRepository.findAllById(batch), recommendationsPerUser));
             } catch (Exception e) {
-                log.error("Error generating recommendations for user: {}", user.getId(), e);
+                // Grup bütün olarak yazılamadıysa hatalı kullanıcıyı ayırmak için her kullanıcıyı kendi işleminde dene
+                log.warn("Generating recommendations failed for users {}..{}, retrying one by one: {}",
+                        batch.get(0), lastId, e.getMessage());
+                generated = 0;
+                for (Long userId : batch) {
+                    try {
+                        generated += transactionTemplate.execute(status -> rebuildRecommendationsFromNeighbors(
+                                userRepository.findAllById(List.of(userId)), recommendationsPerUser));
+                    } catch (Exception userError) {
+                        log.error("Error generating recommendations for user {}", userId, userError);
+                    }
+                }
             }
+            progress.rowsWritten(generated);
+            totalCount += generated;
+            userCount += batch.size();
         }
         
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        log.info("Generated {} recommendations for {} users in {} ms ({} rows/s)",
+                totalCount, userCount, elapsed, totalCount * 1000L / elapsed);
         return totalCount;
     }
     
     /**
-     * Belirli bir kullanıcı için önerileri getirir.
+     * Belirli bir kullanıcı için kayıtlı önerileri hemen getirir.
+     * Öneriler eksik ya da eskiyse arka planda yenileme istenir; yeni öneriler hazır olduğunda
+     * kullanıcının /user/queue/recommendations kuyruğuna gönderilir.
      * 
      * @param userId Kullanıcı ID'si
      * @param limit Sonuç sayısı sınırı
      * @return Öneriler listesi
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public List<UserRecommendation> getRecommendationsForUser(Long userId, int limit) {
         User user = userRepository.findById(userId).orElse(null);
         if (user == null) {
             return Collections.emptyList();
         }
         
-        // Önerileri getir ve skor sırasına göre sırala
-        List<UserRecommendation> recommendations = recommendationRepository.findByUserOrderByScoreDesc(user)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Önerileri skor sırasına göre, yalnızca istenen kadar getir
+        List<UserRecommendation> recommendations = recommendationRepository
+                .findByTargetUserAndStatusNotOrderByScoreDesc(
+                        user, UserRecommendation.RecommendationStatus.REJECTED, PageRequest.of(0, limit))
+                .getContent();
         
-        // Eğer öneri yoksa veya yeterli öneri yoksa, yeni öneriler oluştur
-        if (recommendations.size() < limit) {
-            generateRecommendationsForUser(userId, limit);
-            
-            // Yeniden önerileri getir
-            recommendations = recommendationRepository.findByUserOrderByScoreDesc(user)
-                    .stream()
-                    .limit(limit)
-                    .collect(Collectors.toList());
+        // Öneriler hiç oluşturulmadıysa, eskiyse ya da son üretimde daha az öneri istendiyse arka planda yenile.
+        // Satır sayısına bakılmaz: yeterli adayı olmayan kullanıcının listesi her istekte eksik görünür.
+        if (isStale(generationRepository.findById(userId).orElse(null), limit)) {
+            eventPublisher.publishEvent(new RecommendationRefreshRequestedEvent(userId, limit));
         }
         
         return recommendations;
     }
     
+    private boolean isStale(RecommendationGeneration generation, int limit) {
+        if (generation == null || generation.getRequestedCount() < limit) {
+            return true;
+        }
+        // Skor ağırlıkları öneriler oluşturulduktan sonra değiştiyse öneriler yeni ağırlıklarla yeniden sıralanır
+        long oldestAllowed = Math.max(System.currentTimeMillis() - maxAgeMs,
+                scoringWeightsService.reload().getUpdatedAt());
+        return generation.getGeneratedAt().getTime() < oldestAllowed;
+    }
+    
     /**
      * Belirli bir öneri için nedenler listesini getirir.
      * 
@@ -297,7 +338,40 @@ public class RecommendationService {
             return Collections.emptyList();
         }
         
-        return reasonRepository.findByRecommendation(recommendation);
+        // Eski sürümlerde kaydedilmiş nedenler varsa onları kullan, yoksa bellekten hesapla
+        List<RecommendationReason> reasons = reasonRepository.findByRecommendation(recommendation);
+        return reasons.isEmpty() ? reasonService.explain(recommendation) : reasons;
+    }
+    
+    /**
+     * Bir önerinin detayını (kullanıcılar ve nedenlerle birlikte) getirir.
+     * Son görüntülenen detaylar önbellekten döner; önbellekte yoksa öneri birincil anahtarla tek sorguda yüklenir.
+     * Öneri yalnızca yapıldığı kullanıcıya döner; başka bir kullanıcının önerisi yokmuş gibi davranılır.
+     * 
+     * @param recommendationId Öneri ID'si
+     * @param userId İsteği yapan kullanıcının ID'si
+     * @return Öneri detayı, öneri yoksa ya da kullanıcıya ait değilse boş
+     */
+    @Transactional(readOnly = true)
+    public Optional<RecommendationDetailDTO> getRecommendationDetail(Long recommendationId, Long userId) {
+        RecommendationDetailDTO cached = detailCache.get(recommendationId);
+        if (cached != null) {
+            return userId.equals(cached.getRecommendation().getUserId()) ? Optional.of(cached) : Optional.empty();
+        }
+        
+        long stamp = detailCache.stamp();
+        return recommendationRepository.findDetailById(recommendationId)
+                .filter(recommendation -> userId.equals(recommendation.getTargetUser().getId()))
+                .map(recommendation -> {
+                    // Eski sürümlerde kaydedilmiş nedenler varsa onları kullan, yoksa bellekten hesapla
+                    List<RecommendationReason> reasons = recommendation.getReasons();
+                    if (reasons == null || reasons.isEmpty()) {
+                        reasons = reasonService.explain(recommendation);
+                    }
+                    RecommendationDetailDTO detail = recommendationMapper.toDetailDTO(recommendation, reasons);
+                    detailCache.putIfUnchanged(recommendationId, detail, stamp);
+                    return detail;
+                });
     }
     
     /**
@@ -307,18 +381,34 @@ public class RecommendationService {
      * @param limit Sonuç sayısı sınırı
      * @return Öneriler ve nedenlerin listesi (öneri ID -> nedenler listesi)
      */
-    @Transactional
+    @Transactional(readOnly = true)
     public Map<UserRecommendation, List<RecommendationReason>> getRecommendationsWithReasonsForUser(Long userId, int limit) {
-        List<UserRecommendation> recommendations = getRecommendationsForUser(userId, limit);
-        
-        Map<UserRecommendation, List<RecommendationReason>> result = new LinkedHashMap<>();
+        return reasonService.withReasons(getRecommendationsForUser(userId, limit));
+    }
+    
+    /**
+     * Kullanıcının önerilerinin bir sayfasını nedenleriyle birlikte getirir.
+     * Sayfalama (skor, id) üzerinden anahtar kümesiyle (keyset) yapılır: bir sonraki sayfa son öğenin
+     * skorundan ve ID'sinden sonra başlar, böylece derin sayfalarda OFFSET taraması olmaz.
+     * Reddedilen öneriler listelenmez.
+     * 
+     * @param userId Kullanıcı ID'si
+     * @param afterScore Önceki sayfanın son skoru, ilk sayfa için null
+     * @param afterId Önceki sayfanın son öneri ID'si, ilk sayfa için null
+     * @param size Sayfa boyutu
+     * @return Öneriler ve nedenleri, skor sırasında
+     */
+    @Transactional(readOnly = true)
+    public Map<UserRecommendation, List<RecommendationReason>> getRecommendationPage(
+            Long userId, Double afterScore, Long afterId, int size) {
+        PageRequest page = PageRequest.of(0, size);
+        UserRecommendation.RecommendationStatus rejected = UserRecommendation.RecommendationStatus.REJECTED;
         
-        for (UserRecommendation recommendation : recommendations) {
-            List<RecommendationReason> reasons = reasonRepository.findByRecommendation(recommendation);
-            result.put(recommendation, reasons);
-        }
+        List<UserRecommendation> recommendations = afterScore == null || afterId == null
+                ? recommendationRepository.findFirstPage(userId, rejected, page)
+                : recommendationRepository.findPageAfter(userId, rejected, afterScore, afterId, page);
         
-        return result;
+        return reasonService.withReasons(recommendations);
     }
     
     /**
@@ -333,6 +423,7 @@ public class RecommendationService {
         UserRecommendation recommendation = recommendationRepository.findById(recommendationId)
                 .orElseThrow(() -> new RuntimeException("Recommendation not found with id: " + recommendationId));
         
+        UserRecommendation.RecommendationStatus previousStatus = recommendation.getStatus();
         try {
             UserRecommendation.RecommendationStatus status = UserRecommendation.RecommendationStatus.valueOf(statusStr);
             recommendation.setStatus(status);
@@ -341,6 +432,49 @@ public class RecommendationService {
             throw new RuntimeException("Invalid recommendation status: " + statusStr);
         }
         
+        evictAfterCommit(() -> detailCache.evict(recommendationId));
+        
+        Long userId = recommendation.getTargetUser().getId();
+        Long recommendedUserId = recommendation.getRecommendedUser().getId();
+        if (recommendation.getStatus() == UserRecommendation.RecommendationStatus.REJECTED) {
+            runAfterCommit(() -> exclusionIndex.exclude(userId, recommendedUserId));
+        } else if (previousStatus == UserRecommendation.RecommendationStatus.REJECTED) {
+            // Ret geri alındı; kullanıcı yeniden önerilebilir
+            runAfterCommit(() -> exclusionIndex.include(userId, recommendedUserId));
+        }
+        
         return recommendationRepository.save(recommendation);
     }
+    
+    /**
+     * Hariç tutma indeksindeki değişikliği işlem başarıyla tamamlandığında uygular.
+     */
+    private void runAfterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+    
+    /**
+     * Önbellekten çıkarma işlemini hemen ve işlem tamamlandığında tekrar yapar; böylece işlem
+     * sürerken okunup önbelleğe alınan eski bir detay da temizlenir.
+     */
+    private void evictAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
 }
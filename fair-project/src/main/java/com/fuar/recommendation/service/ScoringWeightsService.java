@@ -0,0 +1,128 @@
+package com.fuar.recommendation.service;
+
+import com.fuar.recommendation.index.FeatureFamily;
+import com.fuar.recommendation.index.ScoringWeights;
+import com.fuar.recommendation.model.ScoringWeight;
+import com.fuar.recommendation.repository.ScoringWeightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Benzerlik skorunu oluşturan aile ağırlıklarının güncel anlık görüntüsünü tutar.
+ * Ağırlıklar değiştirildiğinde komşular yeniden hesaplanmaz; saklanan aile benzerlikleri okuma anında
+ * yeni ağırlıklarla harmanlanır. Okuyucular her zaman tutarlı bir ağırlık setinin tamamını görür.
+ * <p>
+ * Değiştirilen ağırlıklar veritabanında saklanır ve tüm uygulama örnekleri tarafından paylaşılır; her örnek
+ * hesaplamalardan ve okumalardan önce {@link #reload()} ile güncel değerleri alır. Tabloda kayıt yoksa
+ * yapılandırılan ağırlıklar geçerlidir.
+ */
+@Service
+@Slf4j
+public class ScoringWeightsService {
+
+    private final ScoringWeightRepository repository;
+    private final ScoringWeights configured;
+    private final AtomicReference<ScoringWeights> current;
+
+    public ScoringWeightsService(ScoringWeightRepository repository,
+                                 @Value("${recommendation.weights.skill:0.3}") double skill,
+                                 @Value("${recommendation.weights.sector:0.2}") double sector,
+                                 @Value("${recommendation.weights.expertise:0.2}") double expertise,
+                                 @Value("${recommendation.weights.interest:0.15}") double interest,
+                                 @Value("${recommendation.weights.education:0.15}") double education) {
+        Map<FeatureFamily, Double> weights = new EnumMap<>(FeatureFamily.class);
+        weights.put(FeatureFamily.SKILL, skill);
+        weights.put(FeatureFamily.SECTOR, sector);
+        weights.put(FeatureFamily.EXPERTISE, expertise);
+        weights.put(FeatureFamily.INTEREST, interest);
+        weights.put(FeatureFamily.EDUCATION, education);
+        // Yapılandırılan ağırlıklar kayıtlı önerileri eski saymaz; yalnızca çalışma anındaki değişiklikler sayar
+        this.repository = repository;
+        this.configured = ScoringWeights.of(weights, 0L);
+        this.current = new AtomicReference<>(configured);
+    }
+
+    /**
+     * Güncel ağırlıklar.
+     */
+    public ScoringWeights current() {
+        return current.get();
+    }
+
+    /**
+     * Kalıcı ağırlıkları veritabanından yeniden okur; başka bir uygulama örneğinde yapılan değişiklikler
+     * böylece bu örnekte de geçerli olur.
+     *
+     * @return Güncel ağırlıklar
+     */
+    public ScoringWeights reload() {
+        ScoringWeights loaded = fromRows(repository.findAll());
+        ScoringWeights previous = current.getAndSet(loaded);
+        if (previous.getUpdatedAt() != loaded.getUpdatedAt()) {
+            log.info("Scoring weights reloaded: {}", loaded.asMap());
+        }
+        return loaded;
+    }
+
+    /**
+     * Ağırlıkları değiştirir ve veritabanına kaydeder. Verilmeyen aileler kayıtlı değerlerini korur;
+     * sonuç yeniden normalize edilir. Eşzamanlı değişiklikler kayıtlar kilitlenerek sıraya sokulur.
+     *
+     * @param weights Aile ağırlıkları
+     * @return Yeni ağırlıklar
+     * @throws IllegalArgumentException Ağırlıklar geçersizse
+     */
+    @Transactional
+    public ScoringWeights update(Map<FeatureFamily, Double> weights) {
+        Map<FeatureFamily, Double> merged = fromRows(repository.findAllForUpdate()).asMap();
+        weights.forEach((family, weight) -> {
+            if (weight != null) {
+                merged.put(family, weight);
+            }
+        });
+        ScoringWeights updated = ScoringWeights.of(merged, System.currentTimeMillis());
+
+        List<ScoringWeight> rows = new ArrayList<>();
+        for (FeatureFamily family : FeatureFamily.values()) {
+            rows.add(new ScoringWeight(family, updated.weight(family), updated.getUpdatedAt()));
+        }
+        repository.saveAll(rows);
+
+        // Bellekteki ağırlıklar yalnızca kayıt kalıcı olduktan sonra değişir
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    current.set(updated);
+                }
+            });
+        } else {
+            current.set(updated);
+        }
+        log.info("Scoring weights updated: {}", updated.asMap());
+        return updated;
+    }
+
+    private ScoringWeights fromRows(List<ScoringWeight> rows) {
+        if (rows.isEmpty()) {
+            return configured;
+        }
+        Map<FeatureFamily, Double> weights = new EnumMap<>(FeatureFamily.class);
+        long updatedAt = 0L;
+        for (ScoringWeight row : rows) {
+            weights.put(FeatureFamily.valueOf(row.getFamily()), row.getWeight());
+            updatedAt = Math.max(updatedAt, row.getUpdatedAt());
+        }
+        return ScoringWeights.of(weights, updatedAt);
+    }
+}
@@ -1,9 +1,20 @@
 package com.fuar.recommendation.service;
 
 import com.fuar.model.User;
+import com.fuar.recommendation.index.CandidateIndex;
+import com.fuar.recommendation.index.ExclusionIndex;
+import com.fuar.recommendation.index.FeatureFamily;
+import com.fuar.recommendation.index.FeatureVectorIndex;
+import com.fuar.recommendation.index.NeighborComputationEngine;
+import com.fuar.recommendation.index.NeighborList;
+import com.fuar.recommendation.index.NeighborSnapshotStore;
+import com.fuar.recommendation.index.ScoreAccumulator;
+import com.fuar.recommendation.index.ScoringWeights;
+import com.fuar.recommendation.index.SparseFeatureVector;
+import com.fuar.recommendation.index.TopKNeighbors;
+import com.fuar.recommendation.job.GenerationProgress;
 import com.fuar.recommendation.model.UserFeatureVector;
 import com.fuar.recommendation.model.UserSimilarity;
-import com.fuar.recommendation.repository.UserFeatureVectorRepository;
 import com.fuar.recommendation.repository.UserSimilarityRepository;
 import com.fuar.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -11,8 +22,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Bu servis, kullanıcılar arasındaki benzerlikleri hesaplamaktan sorumludur.
@@ -23,12 +36,18 @@ import java.util.stream.Collectors;
 public class SimilarityService {
 
     private final UserRepository userRepository;
-    private final UserFeatureVectorRepository featureVectorRepository;
     private final UserSimilarityRepository userSimilarityRepository;
     private final FeatureExtractionService featureExtractionService;
+    private final FeatureVectorIndex featureVectorIndex;
+    private final NeighborStoreService neighborStoreService;
+    private final NeighborComputationEngine computationEngine;
+    private final NeighborSnapshotStore snapshotStore;
+    private final ExclusionIndex exclusionIndex;
+    private final ScoringWeightsService scoringWeightsService;
 
     /**
      * İki kullanıcı arasındaki benzerliği hesaplar.
+     * Vektörler bellek içi indeksten okunur; kullanıcı çifti başına veritabanı sorgusu yapılmaz.
      * 
      * @param user1Id İlk kullanıcı ID'si
      * @param user2Id İkinci kullanıcı ID'si
@@ -36,189 +55,209 @@ public class SimilarityService {
      */
     public double calculateSimilarity(Long user1Id, Long user2Id) {
         // Her iki kullanıcı için özellik vektörlerini al
-        UserFeatureVector vector1 = featureExtractionService.getUserFeatureVector(user1Id);
-        UserFeatureVector vector2 = featureExtractionService.getUserFeatureVector(user2Id);
+        SparseFeatureVector vector1 = getIndexedVector(user1Id);
+        SparseFeatureVector vector2 = getIndexedVector(user2Id);
         
         if (vector1 == null || vector2 == null) {
             return 0.0;
         }
         
-        // Benzerlik skorunu hesapla
-        double skillSimilarity = calculateCosineSimilarity(vector1.getSkillWeights(), vector2.getSkillWeights());
-        double sectorSimilarity = calculateCosineSimilarity(vector1.getSectorWeights(), vector2.getSectorWeights());
-        double expertiseSimilarity = calculateCosineSimilarity(vector1.getExpertiseWeights(), vector2.getExpertiseWeights());
-        double interestSimilarity = calculateCosineSimilarity(vector1.getInterestWeights(), vector2.getInterestWeights());
-        double educationSimilarity = calculateCosineSimilarity(vector1.getEducationFieldWeights(), vector2.getEducationFieldWeights());
-        
-        // Farklı özelliklerin ağırlıklı ortalamasını hesapla
-        // Burada farklı özelliklere farklı ağırlıklar verilebilir
-        double weightedSimilarity = (
-            skillSimilarity * 0.3 +
-            sectorSimilarity * 0.2 +
-            expertiseSimilarity * 0.2 +
-            interestSimilarity * 0.15 +
-            educationSimilarity * 0.15
-        );
-        
-        return weightedSimilarity;
+        // Farklı özelliklerin güncel ağırlıklarla ağırlıklı ortalamasını hesapla
+        return vector1.similarity(vector2, scoringWeightsService.current());
     }
     
     /**
-     * İki özellik vektörü arasındaki kosinüs benzerliğini hesaplar.
+     * İki kullanıcı arasındaki benzerliği yalnızca bellek içi indeksten hesaplar; veritabanına gidilmez.
+     * Toplu öneri üretiminde aday başına sorgu yapmamak için kullanılır; indekste olmayan kullanıcının
+     * benzerliği 0 kabul edilir.
      * 
-     * @param vector1 Birinci özellik vektörü (anahtar-ağırlık eşlemeleri)
-     * @param vector2 İkinci özellik vektörü (anahtar-ağırlık eşlemeleri)
-     * @return Kosinüs benzerlik skoru (0-1 arasında)
+     * @param user1Id İlk kullanıcı ID'si
+     * @param user2Id İkinci kullanıcı ID'si
+     * @return Benzerlik skoru, kullanıcılardan biri indekste yoksa 0
      */
-    private double calculateCosineSimilarity(Map<String, Double> vector1, Map<String, Double> vector2) {
-        if (vector1 == null || vector2 == null || vector1.isEmpty() || vector2.isEmpty()) {
-            return 0.0;
-        }
-        
-        // Ortak anahtarları bul
-        Set<String> commonKeys = new HashSet<>(vector1.keySet());
-        commonKeys.retainAll(vector2.keySet());
-        
-        if (commonKeys.isEmpty()) {
+    public double indexedSimilarity(Long user1Id, Long user2Id) {
+        SparseFeatureVector vector1 = featureVectorIndex.get(user1Id);
+        SparseFeatureVector vector2 = featureVectorIndex.get(user2Id);
+        if (vector1 == null || vector2 == null) {
             return 0.0;
         }
-        
-        // Dot product hesapla
-        double dotProduct = 0.0;
-        for (String key : commonKeys) {
-            dotProduct += vector1.get(key) * vector2.get(key);
+        return vector1.similarity(vector2, scoringWeightsService.current());
+    }
+    
+    /**
+     * Kullanıcının kompakt özellik vektörünü indeksten getirir.
+     * İndekste yoksa (ör. yeni kullanıcı) özellik vektörü oluşturulup indekse eklenir.
+     * 
+     * @param userId Kullanıcı ID'si
+     * @return Kompakt özellik vektörü, kullanıcı yoksa null
+     */
+    private SparseFeatureVector getIndexedVector(Long userId) {
+        SparseFeatureVector vector = featureVectorIndex.get(userId);
+        if (vector != null) {
+            return vector;
         }
         
-        // Vektör boyutlarını hesapla
-        double magnitude1 = Math.sqrt(
-            vector1.values().stream().mapToDouble(value -> value * value).sum()
-        );
-        
-        double magnitude2 = Math.sqrt(
-            vector2.values().stream().mapToDouble(value -> value * value).sum()
-        );
-        
-        // Kosinüs benzerliğini hesapla ve döndür
-        if (magnitude1 > 0 && magnitude2 > 0) {
-            return dotProduct / (magnitude1 * magnitude2);
-        } else {
-            return 0.0;
-        }
+        UserFeatureVector featureVector = featureExtractionService.getUserFeatureVector(userId);
+        return featureVector != null ? featureVectorIndex.putAfterCommit(featureVector) : null;
     }
     
     /**
-     * Belirli bir kullanıcı için tüm kullanıcılarla benzerlik skorlarını hesaplar ve veritabanına kaydeder.
+     * Belirli bir kullanıcı için tüm kullanıcılarla benzerlik skorlarını hesaplar ve
+     * en benzer K kullanıcıyı komşu listesi olarak veritabanına kaydeder.
      * 
      * @param userId Kullanıcı ID'si
-     * @return Hesaplanan benzerlik kayıtları sayısı
+     * @return Kaydedilen komşu sayısı
      */
     @Transactional
     public int computeAndStoreSimilaritiesForUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         
-        List<User> allUsers = userRepository.findAll();
-        int count = 0;
+        SparseFeatureVector vector = getIndexedVector(userId);
+        if (vector == null) {
+            return 0;
+        }
         
-        // Mevcut benzerlik kayıtlarını temizle
-        userSimilarityRepository.deleteByUser1(user);
+        // Yalnızca aday indeksinin döndürdüğü kullanıcılar (varsayılan: en az bir ortak terimi olanlar) skorlanır
+        CandidateIndex candidateIndex = featureVectorIndex.candidateIndex();
+        ScoreAccumulator accumulator = new ScoreAccumulator(candidateIndex.size());
+        TopKNeighbors neighbors = neighborStoreService.newNeighborHeap();
         
-        for (User otherUser : allUsers) {
-            // Kendisiyle benzerlik hesaplama
-            if (otherUser.getId().equals(userId)) {
-                continue;
-            }
-            
-            try {
-                // Benzerlik skorunu hesapla
-                double similarityScore = calculateSimilarity(userId, otherUser.getId());
-                
-                // Benzerlik skorunu veritabanına kaydet
-                UserSimilarity similarity = new UserSimilarity();
-                similarity.setUser1(user);
-                similarity.setUser2(otherUser);
-                similarity.setSimilarityScore(similarityScore);
-                similarity.setLastUpdated(new Date(System.currentTimeMillis()));
-                
-                userSimilarityRepository.save(similarity);
-                count++;
-            } catch (Exception e) {
-                log.error("Error computing similarity between users {} and {}", userId, otherUser.getId(), e);
-            }
-        }
+        // Diğer uygulama örneklerinde değiştirilen ağırlıklar da hesaba katılır
+        NeighborComputationEngine.computeNeighbors(candidateIndex, vector, scoringWeightsService.reload(),
+                accumulator, neighbors, exclusionIndex.exclusionsFor(userId));
         
-        return count;
+        return neighborStoreService.replaceNeighbors(user, neighbors);
     }
     
     /**
-     * Tüm kullanıcılar için benzerlik skorlarını hesaplar ve veritabanına kaydeder.
+     * Tüm kullanıcılar için benzerlik skorlarını hesaplar ve her kullanıcının
+     * en benzer K komşusunu veritabanına kaydeder.
+     * Hesaplama değiştirilemez vektör anlık görüntüsü üzerinde paralel yapılır; yazma işlemi
+     * hesaplama bittikten sonra kullanıcı grupları halinde, her grup kendi işleminde (transaction) gerçekleşir.
      * 
-     * @return Hesaplanan benzerlik kayıtları sayısı
+     * @return Kaydedilen komşu kayıtları sayısı
      */
-    @Transactional
     public int computeAndStoreAllSimilarities() {
+        return computeAndStoreAllSimilarities(GenerationProgress.NONE);
+    }
+    
+    /**
+     * Tüm kullanıcılar için komşu listelerini hesaplar ve kaydeder; ilerlemeyi raporlar.
+     * 
+     * @param progress İlerleme raporu ve iptal kontrolü
+     * @return Kaydedilen komşu kayıtları sayısı
+     */
+    public int computeAndStoreAllSimilarities(GenerationProgress progress) {
         // Önce tüm kullanıcılar için özellik vektörlerini oluştur
-        featureExtractionService.extractFeaturesForAllUsers();
-        
-        List<User> allUsers = userRepository.findAll();
-        int totalCount = 0;
-        
-        // Mevcut tüm benzerlik kayıtlarını temizle
-        userSimilarityRepository.deleteAll();
-        
-        // Her kullanıcı çifti için benzerlik hesapla
-        for (int i = 0; i < allUsers.size(); i++) {
-            User user1 = allUsers.get(i);
-            
-            for (int j = i + 1; j < allUsers.size(); j++) {
-                User user2 = allUsers.get(j);
-                
-                try {
-                    // Benzerlik skorunu hesapla
-                    double similarityScore = calculateSimilarity(user1.getId(), user2.getId());
-                    
-                    // İlk kullanıcıdan ikinci kullanıcıya benzerlik
-                    UserSimilarity similarity1 = new UserSimilarity();
-                    similarity1.setUser1(user1);
-                    similarity1.setUser2(user2);
-                    similarity1.setSimilarityScore(similarityScore);
-                    similarity1.setLastUpdated(new Date(System.currentTimeMillis()));
-                    userSimilarityRepository.save(similarity1);
-                    
-                    // İkinci kullanıcıdan ilk kullanıcıya benzerlik
-                    UserSimilarity similarity2 = new UserSimilarity();
-                    similarity2.setUser1(user2);
-                    similarity2.setUser2(user1);
-                    similarity2.setSimilarityScore(similarityScore);
-                    similarity2.setLastUpdated(new Date(System.currentTimeMillis()));
-                    userSimilarityRepository.save(similarity2);
-                    
-                    totalCount += 2;
-                } catch (Exception e) {
-                    log.error("Error computing similarity between users {} and {}", user1.getId(), user2.getId(), e);
-                }
-            }
+        progress.phase(GenerationProgress.Phase.EXTRACTING_FEATURES);
+        featureExtractionService.extractFeaturesForAllUsers(progress);
+        
+        progress.phase(GenerationProgress.Phase.COMPUTING_NEIGHBORS);
+        // Bu andan sonra artımlı olarak güncellenen komşu listeleri yeni anlık görüntüden daha yenidir
+        NeighborSnapshotStore.Mark computationStart = snapshotStore.mark();
+        CandidateIndex candidateIndex = featureVectorIndex.compactedCandidateIndex();
+        TopKNeighbors[] neighbors = computationEngine.computeAll(candidateIndex, neighborStoreService.getTopK(),
+                scoringWeightsService.reload(), progress);
+        
+        Long[] userIds = new Long[candidateIndex.size()];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = candidateIndex.vectorAt(i).getUserId();
         }
         
-        return totalCount;
+        progress.phase(GenerationProgress.Phase.STORING_NEIGHBORS);
+        int stored = neighborStoreService.replaceAllNeighbors(userIds, neighbors, progress);
+        
+        // Veritabanı yazımı tamamlandıktan sonra okuma yolunun kullandığı anlık görüntüyü değiştir
+        snapshotStore.publish(userIds, neighbors, neighborStoreService.getTopK(), computationStart);
+        return stored;
     }
     
     /**
      * Belirli bir kullanıcı için en benzer kullanıcıları bulur.
+     * Komşu listesinin tamamı okunur ve saklanan aile benzerlikleri güncel ağırlıklarla yeniden harmanlanarak
+     * sıralanır. Komşu kümesi hesaplama anındaki ağırlıklarla seçilmiştir; ağırlık değişikliği yalnızca
+     * bu küme içindeki sıralamayı ve skorları etkiler.
      * 
      * @param userId Kullanıcı ID'si
      * @param limit Sonuç sayısı sınırı
      * @return Benzerlik skoru yüksek olan kullanıcıların listesi
      */
     public List<UserSimilarity> findMostSimilarUsers(Long userId, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        ScoringWeights weights = scoringWeightsService.current();
+        
+        // Anlık görüntü varsa komşular veritabanına gitmeden bellek eşlemeli dosyadan okunur
+        NeighborList snapshotNeighbors = snapshotStore.find(userId);
+        if (snapshotNeighbors != null) {
+            NeighborList neighbors = snapshotNeighbors.reweighted(weights);
+            User user = userRepository.getReferenceById(userId);
+            int count = Math.min(limit, neighbors.size());
+            List<UserSimilarity> similarities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                UserSimilarity similarity = new UserSimilarity(user, userRepository.getReferenceById(neighbors.idAt(i)));
+                similarity.setSimilarityScore((double) neighbors.scoreAt(i));
+                similarity.setNeighborRank(i + 1);
+                if (neighbors.hasFamilyScores()) {
+                    similarity.setSkillSimilarity((double) neighbors.familyScoreAt(i, FeatureFamily.SKILL));
+                    similarity.setSectorSimilarity((double) neighbors.familyScoreAt(i, FeatureFamily.SECTOR));
+                    similarity.setExpertiseSimilarity((double) neighbors.familyScoreAt(i, FeatureFamily.EXPERTISE));
+                    similarity.setInterestSimilarity((double) neighbors.familyScoreAt(i, FeatureFamily.INTEREST));
+                    similarity.setEducationSimilarity((double) neighbors.familyScoreAt(i, FeatureFamily.EDUCATION));
+                }
+                similarities.add(similarity);
+            }
+            return similarities;
+        }
+        
         User user = userRepository.findById(userId).orElse(null);
         if (user == null) {
             return Collections.emptyList();
         }
         
-        return userSimilarityRepository.findByUser1OrderBySimilarityScoreDesc(user)
-                .stream()
-                .limit(limit)
-                .collect(Collectors.toList());
+        // Liste kullanıcı başına en fazla K satırdır; yeniden sıralama için tamamı okunur
+        List<UserSimilarity> stored = userSimilarityRepository.findByUser1OrderBySimilarityScoreDesc(user);
+        if (stored.isEmpty() || !stored.stream().allMatch(SimilarityService::hasFamilySimilarities)) {
+            return stored.subList(0, Math.min(limit, stored.size()));
+        }
+        
+        // Yönetilen varlıklar değiştirilmez; yeniden skorlanan değerler kopyalara yazılır
+        List<UserSimilarity> similarities = new ArrayList<>(stored.size());
+        for (UserSimilarity source : stored) {
+            UserSimilarity similarity = new UserSimilarity(source.getUser1(), source.getUser2());
+            similarity.setSkillSimilarity(source.getSkillSimilarity());
+            similarity.setSectorSimilarity(source.getSectorSimilarity());
+            similarity.setExpertiseSimilarity(source.getExpertiseSimilarity());
+            similarity.setInterestSimilarity(source.getInterestSimilarity());
+            similarity.setEducationSimilarity(source.getEducationSimilarity());
+            similarity.setLastUpdated(source.getLastUpdated());
+            similarity.setSimilarityScore(blend(similarity, weights));
+            similarities.add(similarity);
+        }
+        similarities.sort(Comparator.comparingDouble(UserSimilarity::getSimilarityScore).reversed());
+        
+        List<UserSimilarity> result = similarities.subList(0, Math.min(limit, similarities.size()));
+        for (int i = 0; i < result.size(); i++) {
+            result.get(i).setNeighborRank(i + 1);
+        }
+        return result;
+    }
+    
+    private static boolean hasFamilySimilarities(UserSimilarity similarity) {
+        return similarity.getSkillSimilarity() != null
+                && similarity.getSectorSimilarity() != null
+                && similarity.getExpertiseSimilarity() != null
+                && similarity.getInterestSimilarity() != null
+                && similarity.getEducationSimilarity() != null;
+    }
+    
+    private static double blend(UserSimilarity similarity, ScoringWeights weights) {
+        return similarity.getSkillSimilarity() * weights.weight(FeatureFamily.SKILL)
+                + similarity.getSectorSimilarity() * weights.weight(FeatureFamily.SECTOR)
+                + similarity.getExpertiseSimilarity() * weights.weight(FeatureFamily.EXPERTISE)
+                + similarity.getInterestSimilarity() * weights.weight(FeatureFamily.INTEREST)
+                + similarity.getEducationSimilarity() * weights.weight(FeatureFamily.EDUCATION);
     }
 }
@@ -1,11 +1,13 @@
 package com.fuar.repository;
 
 import com.fuar.model.Conversation;
-import com.fuar.model.User;
+import com.fuar.model.Message;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +22,60 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
            "ORDER BY c.updatedAt DESC")
     List<Conversation> findConversationsByUserId(@Param("userId") Long userId);
     
+    /**
+     * Find the inbox of a user: conversations with both participants and the last message in one query.
+     * Unread counts are read from the conversation row, so the cost does not grow with chat history.
+     * @param userId The user ID
+     * @return List of conversations, most recently active first
+     */
+    @Query("SELECT c FROM Conversation c JOIN FETCH c.initiator JOIN FETCH c.recipient " +
+           "LEFT JOIN FETCH c.lastMessage " +
+           "WHERE c.initiator.id = :userId OR c.recipient.id = :userId " +
+           "ORDER BY c.updatedAt DESC")
+    List<Conversation> findInboxByUserId(@Param("userId") Long userId);
+    
+    /**
+     * Lock the conversation row until the end of the transaction and read its newest sequence number.
+     * Senders in the same conversation are serialized here, so sequence numbers never repeat or skip.
+     * @param conversationId The conversation ID
+     * @return The sequence number of the newest message, 0 if there are none
+     */
+    @Query(value = "SELECT last_sequence FROM conversations WHERE id = :conversationId FOR UPDATE", nativeQuery = true)
+    long lockLastSequence(@Param("conversationId") Long conversationId);
+    
+    /**
+     * Point the conversation at a newly sent message and count it as unread for the other participant
+     * @param conversationId The conversation ID
+     * @param message The new message
+     * @param sequence The new message's sequence number
+     * @param senderId The sender's user ID
+     * @param updatedAt The new activity timestamp
+     * @return Number of updated conversations
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessage = :message, c.lastSequence = :sequence, c.updatedAt = :updatedAt, " +
+           "c.initiatorUnreadCount = c.initiatorUnreadCount + (CASE WHEN c.initiator.id = :senderId THEN 0 ELSE 1 END), " +
+           "c.recipientUnreadCount = c.recipientUnreadCount + (CASE WHEN c.recipient.id = :senderId THEN 0 ELSE 1 END) " +
+           "WHERE c.id = :conversationId")
+    int recordMessage(@Param("conversationId") Long conversationId,
+                      @Param("message") Message message,
+                      @Param("sequence") long sequence,
+                      @Param("senderId") Long senderId,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * Reset the unread counter of a participant
+     * @param conversationId The conversation ID
+     * @param userId The user ID who read the messages
+     * @return Number of updated conversations
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.initiatorUnreadCount = (CASE WHEN c.initiator.id = :userId THEN 0 ELSE c.initiatorUnreadCount END), " +
+           "c.recipientUnreadCount = (CASE WHEN c.recipient.id = :userId THEN 0 ELSE c.recipientUnreadCount END) " +
+           "WHERE c.id = :conversationId")
+    int resetUnreadCount(@Param("conversationId") Long conversationId, @Param("userId") Long userId);
+    
     /**
      * Find a conversation between two users
      * @param user1Id First user ID
@@ -32,14 +88,4 @@ public interface ConversationRepository extends JpaRepository<Conversation, Long
     Optional<Conversation> findConversationBetweenUsers(
             @Param("user1Id") Long user1Id, 
             @Param("user2Id") Long user2Id);
-    
-    /**
-     * Count unread messages for a user
-     * @param userId The user ID
-     * @return Count of unread messages
-     */
-    @Query("SELECT COUNT(m) FROM Conversation c JOIN c.messages m " +
-           "WHERE (c.initiator.id = :userId OR c.recipient.id = :userId) " +
-           "AND m.sender.id <> :userId AND m.read = false")
-    Long countUnreadMessagesForUser(@Param("userId") Long userId);
 }
@@ -1,11 +1,13 @@
 package com.fuar.repository;
 
 import com.fuar.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
@@ -17,6 +19,61 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
      */
     List<Message> findByConversation_IdOrderByTimestampAsc(Long conversationId);
     
+    /**
+     * Find the newest messages in a conversation
+     * @param conversationId The conversation ID
+     * @param pageable Page size (page number is ignored by callers, always 0)
+     * @return Messages, newest first
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Message> findLatestMessages(@Param("conversationId") Long conversationId, Pageable pageable);
+    
+    /**
+     * Find messages older than a (timestamp, id) position in a conversation
+     * @param conversationId The conversation ID
+     * @param timestamp Timestamp of the position
+     * @param id Message ID of the position
+     * @param pageable Page size
+     * @return Messages, newest first
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Message> findMessagesBefore(@Param("conversationId") Long conversationId,
+                                     @Param("timestamp") LocalDateTime timestamp,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+    
+    /**
+     * Find messages newer than a (timestamp, id) position in a conversation
+     * @param conversationId The conversation ID
+     * @param timestamp Timestamp of the position
+     * @param id Message ID of the position
+     * @param pageable Page size
+     * @return Messages, oldest first
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "AND (m.timestamp > :timestamp OR (m.timestamp = :timestamp AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<Message> findMessagesAfter(@Param("conversationId") Long conversationId,
+                                    @Param("timestamp") LocalDateTime timestamp,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+    
+    /**
+     * Find messages with a sequence number greater than the given one
+     * @param conversationId The conversation ID
+     * @param sequence The last sequence number the client has
+     * @param pageable Page size
+     * @return Messages in sequence order
+     */
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId " +
+           "AND m.sequence > :sequence ORDER BY m.sequence ASC")
+    List<Message> findMessagesAfterSequence(@Param("conversationId") Long conversationId,
+                                            @Param("sequence") Long sequence,
+                                            Pageable pageable);
+    
     /**
      * Find unread messages for a specific user in a conversation
      * @param conversationId The conversation ID
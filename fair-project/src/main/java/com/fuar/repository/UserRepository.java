@@ -4,9 +4,14 @@ import com.fuar.model.Role;
 import com.fuar.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long>, PagingAndSortingRepository<User, Long> {
@@ -19,4 +24,17 @@ public interface UserRepository extends JpaRepository<User, Long>, PagingAndSort
     
     // Added search functionality with pagination
     Page<User> findByNameContainingIgnoreCaseOrEmailContainingIgnoreCase(String name, String email, Pageable pageable);
+    
+    // Keyset pagination over user ids for bulk jobs
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // User ids of a closed id range, used by distributed recommendation work items
+    @Query("SELECT u.id FROM User u WHERE u.id BETWEEN :fromId AND :toId ORDER BY u.id")
+    List<Long> findIdsBetween(@Param("fromId") Long fromId, @Param("toId") Long toId);
+    
+    // Loads users with profile and skills in one query; remaining profile collections are batch-fetched
+    @EntityGraph(attributePaths = {"userInfo", "userInfo.skills"})
+    @Query("SELECT u FROM User u WHERE u.id IN :ids")
+    List<User> findWithProfileByIdIn(@Param("ids") Collection<Long> ids);
 }
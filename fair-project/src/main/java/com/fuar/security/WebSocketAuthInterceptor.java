@@ -81,8 +81,6 @@ public class WebSocketAuthInterceptor implements ChannelInterceptor {
                                 
                                 // Kullanıcının hangi abonelik deseninde mesaj alacağını doğrulamak için hata ayıklama kaydı
                                 System.out.println("Bu kullanıcı /user/" + userId + "/queue/messages adresinden mesaj alacak");
-                                System.out.println("Bu kullanıcı /queue/messages/" + userId + " adresinden de mesaj alacak");
-                                System.out.println("Bu kullanıcı /topic/messages/" + userId + " adresinden de mesaj alacak");
                             } else {
                                 // Yedek olarak kullanıcı adına dön
                                 accessor.setUser(() -> username);
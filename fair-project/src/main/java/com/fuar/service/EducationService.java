@@ -1,11 +1,13 @@
 package com.fuar.service;
 
+import com.fuar.event.UserProfileChangedEvent;
 import com.fuar.model.Education;
 import com.fuar.model.UserInfo;
 import com.fuar.dto.EducationDTO;
 import com.fuar.repository.EducationRepository;
 import com.fuar.repository.UserInfoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,6 +19,7 @@ import java.util.stream.Collectors;
 public class EducationService {
     private final EducationRepository educationRepository;
     private final UserInfoRepository userInfoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<EducationDTO> getUserEducation(Long userId) {
         UserInfo userInfo = userInfoRepository.findByUser_Id(userId)
@@ -33,7 +36,9 @@ public class EducationService {
                 .orElseThrow(() -> new RuntimeException("UserInfo not found"));
 
         education.setUserInfo(userInfo);
-        return educationRepository.save(education);
+        Education saved = educationRepository.save(education);
+        publishProfileChanged(userInfo);
+        return saved;
     }
 
     @Transactional
@@ -50,14 +55,17 @@ public class EducationService {
         education.setGrade(educationDetails.getGrade());
         education.setActivities(educationDetails.getActivities());
 
-        return educationRepository.save(education);
+        Education saved = educationRepository.save(education);
+        publishProfileChanged(education.getUserInfo());
+        return saved;
     }
 
+    @Transactional
     public void deleteEducation(Long id) {
-        if (!educationRepository.existsById(id)) {
-            throw new RuntimeException("Education not found");
-        }
-        educationRepository.deleteById(id);
+        Education education = educationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Education not found"));
+        educationRepository.delete(education);
+        publishProfileChanged(education.getUserInfo());
     }
 
     public Education getEducationById(Long id) {
@@ -73,6 +81,12 @@ public class EducationService {
         return educationRepository.findByInstitutionAndFieldOfStudy(institution, fieldOfStudy);
     }
 
+    private void publishProfileChanged(UserInfo userInfo) {
+        if (userInfo != null && userInfo.getUser() != null) {
+            eventPublisher.publishEvent(new UserProfileChangedEvent(userInfo.getUser().getId()));
+        }
+    }
+
     private EducationDTO convertToDTO(Education education) {
         return EducationDTO.builder()
             .id(education.getId())
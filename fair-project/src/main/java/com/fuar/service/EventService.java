@@ -1,5 +1,6 @@
 package com.fuar.service;
 
+import com.fuar.event.EventAttendanceChangedEvent;
 import com.fuar.exception.BadRequestException;
 import com.fuar.exception.ResourceNotFoundException;
 import com.fuar.model.Event;
@@ -7,6 +8,7 @@ import com.fuar.model.User;
 import com.fuar.repository.EventRepository;
 import com.fuar.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +20,7 @@ import java.util.List;
 public class EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<Event> getAllEvents() {
@@ -106,6 +109,7 @@ public class EventService {
         }
 
         event.getAttendees().add(attendee);
+        eventPublisher.publishEvent(new EventAttendanceChangedEvent(eventId, userId, true));
         return eventRepository.save(event);
     }
 
@@ -116,6 +120,7 @@ public class EventService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
         event.getAttendees().remove(attendee);
+        eventPublisher.publishEvent(new EventAttendanceChangedEvent(eventId, userId, false));
         return eventRepository.save(event);
     }
 
@@ -195,6 +200,7 @@ public class EventService {
         for (Event event : events) {
             event.getAttendees().remove(user);
             eventRepository.save(event);
+            eventPublisher.publishEvent(new EventAttendanceChangedEvent(event.getId(), userId, false));
         }
     }
 
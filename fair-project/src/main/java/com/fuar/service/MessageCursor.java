@@ -0,0 +1,50 @@
+package com.fuar.service;
+
+import com.fuar.exception.BadRequestException;
+import com.fuar.model.Message;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for message history: a (timestamp, id) position encoded as URL-safe base64.
+ */
+final class MessageCursor {
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    private MessageCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    static String encode(Message message) {
+        String raw = message.getTimestamp() + "|" + message.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator < 0) {
+                throw new BadRequestException("Invalid message cursor");
+            }
+            return new MessageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid message cursor");
+        }
+    }
+
+    LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,123 @@
+package com.fuar.service;
+
+import com.fuar.event.MessageSentEvent;
+import com.fuar.event.MessagesReadEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers chat messages and read receipts over WebSocket once the transaction that produced them
+ * has committed, so a recipient never sees a message that was rolled back and no database connection
+ * is held while sending.
+ * <p>
+ * Deliveries are handed to a bounded dispatcher pool and sent to a single canonical user destination
+ * ({@code /user/{id}/queue/...}). Failed sends are retried with a linear backoff on a scheduler thread,
+ * never on the request thread. When the queue is full or all attempts fail the delivery is dropped;
+ * the client still finds the message through the REST history.
+ */
+@Service
+@Slf4j
+public class MessageDeliveryService implements DisposableBean {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService retryScheduler;
+
+    public MessageDeliveryService(
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${messaging.delivery.threads:4}") int threads,
+            @Value("${messaging.delivery.queue-capacity:10000}") int queueCapacity,
+            @Value("${messaging.delivery.max-attempts:3}") int maxAttempts,
+            @Value("${messaging.delivery.retry-delay-ms:200}") long retryDelayMs) {
+        this.messagingTemplate = messagingTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMs = retryDelayMs;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "message-delivery-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "message-delivery-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends a new message to the recipient's message queue.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        dispatch(event.getRecipientId(), "/queue/messages", event.getMessage(), 1);
+    }
+
+    /**
+     * Sends a read receipt to the other participant of the conversation.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        Map<String, Object> readData = new HashMap<>();
+        readData.put("conversationId", event.getConversationId());
+        readData.put("readerId", event.getReaderId());
+        readData.put("count", event.getCount());
+
+        dispatch(event.getNotifyUserId(), "/queue/read", readData, 1);
+    }
+
+    private void dispatch(Long userId, String destination, Object payload, int attempt) {
+        try {
+            executor.execute(() -> deliver(userId, destination, payload, attempt));
+        } catch (RejectedExecutionException e) {
+            log.warn("Message delivery queue is full, dropping {} delivery to user {}", destination, userId);
+        }
+    }
+
+    private void deliver(Long userId, String destination, Object payload, int attempt) {
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), destination, payload);
+        } catch (Exception e) {
+            if (attempt >= maxAttempts) {
+                log.warn("Giving up {} delivery to user {} after {} attempts: {}",
+                        destination, userId, attempt, e.getMessage());
+                return;
+            }
+            try {
+                retryScheduler.schedule(() -> dispatch(userId, destination, payload, attempt + 1),
+                        retryDelayMs * attempt, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException rejected) {
+                log.warn("Message delivery is shutting down, dropping {} delivery to user {}", destination, userId);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+    }
+}
@@ -4,6 +4,12 @@ import com.fuar.dto.ConversationDTO;
 import com.fuar.dto.ConversationListDTO;
 import com.fuar.dto.ConversationSummaryDTO;
 import com.fuar.dto.MessageDTO;
+import com.fuar.dto.MessagePageDTO;
+import com.fuar.dto.MessageResumeDTO;
+import com.fuar.event.ConversationStartedEvent;
+import com.fuar.event.MessageSentEvent;
+import com.fuar.event.MessagesReadEvent;
+import com.fuar.exception.BadRequestException;
 import com.fuar.exception.ResourceNotFoundException;
 import com.fuar.mapper.MessageMapper;
 import com.fuar.model.Conversation;
@@ -13,60 +19,61 @@ import com.fuar.repository.ConversationRepository;
 import com.fuar.repository.MessageRepository;
 import com.fuar.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MessageService {
     
+    // Messages returned when a conversation is opened; older ones are loaded page by page
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    
     private final ConversationRepository conversationRepository;
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final MessageMapper messageMapper;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
-     * Get all conversations for a user
+     * Get all conversations for a user.
+     * The inbox is served from the conversation rows alone: last message and unread counters are
+     * maintained on send and mark-read, so this is one indexed query regardless of chat history size.
      */
+    @Transactional(readOnly = true)
     public ConversationListDTO getUserConversations(Long userId) {
-        User currentUser = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-        
-        List<Conversation> conversations = conversationRepository.findConversationsByUserId(userId);
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
         
-        List<ConversationSummaryDTO> conversationSummaries = conversations.stream()
-                .map(conversation -> {
-                    // Get unread count for this conversation and user
-                    List<Message> unreadMessages = messageRepository.findUnreadMessagesInConversation(
-                            conversation.getId(), userId);
-                    
-                    return messageMapper.toConversationSummaryDTO(
-                            conversation, 
-                            currentUser, 
-                            unreadMessages.size());
-                })
-                .collect(Collectors.toList());
+        List<Conversation> conversations = conversationRepository.findInboxByUserId(userId);
         
-        // Get total unread count
-        Long totalUnread = conversationRepository.countUnreadMessagesForUser(userId);
+        int totalUnread = 0;
+        List<ConversationSummaryDTO> conversationSummaries = new ArrayList<>(conversations.size());
+        for (Conversation conversation : conversations) {
+            int unreadCount = conversation.getUnreadCountFor(userId);
+            totalUnread += unreadCount;
+            conversationSummaries.add(messageMapper.toConversationSummaryDTO(conversation, userId, unreadCount));
+        }
         
         return ConversationListDTO.builder()
                 .conversations(conversationSummaries)
-                .totalUnreadCount(totalUnread.intValue())
+                .totalUnreadCount(totalUnread)
                 .build();
     }
     
     /**
-     * Get a conversation by ID with messages
+     * Get a conversation by ID with its newest page of messages
      */
+    @Transactional(readOnly = true)
     public ConversationDTO getConversation(Long conversationId, Long userId) {
         Conversation conversation = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Conversation not found with id: " + conversationId));
@@ -77,17 +84,11 @@ public class MessageService {
             throw new IllegalArgumentException("User is not part of this conversation");
         }
         
-        // Get messages in conversation
-        List<Message> messages = messageRepository.findByConversation_IdOrderByTimestampAsc(conversationId);
-        
-        // Get unread count
-        List<Message> unreadMessages = messageRepository.findUnreadMessagesInConversation(conversationId, userId);
-        
-        return messageMapper.toConversationDTO(conversation, messages, unreadMessages.size());
+        return toConversationDTO(conversation, userId);
     }
     
     /**
-     * Get or create a conversation between two users
+     * Get or create a conversation between two users, with its newest page of messages
      */
     @Transactional
     public ConversationDTO getOrCreateConversation(Long initiatorId, Long recipientId) {
@@ -95,15 +96,143 @@ public class MessageService {
             throw new IllegalArgumentException("Cannot create conversation with yourself");
         }
         
-        User initiator = userRepository.findById(initiatorId)
-                .orElseThrow(() -> new ResourceNotFoundException("Initiator user not found with id: " + initiatorId));
+        Conversation conversation = findOrCreateConversation(initiatorId, recipientId);
+        
+        return toConversationDTO(conversation, initiatorId);
+    }
+    
+    /**
+     * Get one page of a conversation's history using keyset pagination on (timestamp, id).
+     * Without a cursor the newest page is returned; "before" pages backwards through older
+     * messages and "after" fetches messages newer than the cursor. Messages are returned oldest first.
+     */
+    @Transactional(readOnly = true)
+    public MessagePageDTO getMessages(Long conversationId, Long userId, String before, String after, int size) {
+        if (before != null && after != null) {
+            throw new BadRequestException("Only one of before and after can be given");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found with id: " + conversationId));
+        
+        // Check if user is part of the conversation
+        if (!conversation.getInitiator().getId().equals(userId) && 
+            !conversation.getRecipient().getId().equals(userId)) {
+            throw new IllegalArgumentException("User is not part of this conversation");
+        }
+        
+        PageRequest page = PageRequest.of(0, size);
+        if (after != null) {
+            MessageCursor cursor = MessageCursor.decode(after);
+            List<Message> messages = messageRepository.findMessagesAfter(
+                    conversationId, cursor.getTimestamp(), cursor.getId(), page);
+            
+            return MessagePageDTO.builder()
+                    .messages(toMessageDTOs(messages))
+                    .beforeCursor(messages.isEmpty() ? null : MessageCursor.encode(messages.get(0)))
+                    .afterCursor(messages.isEmpty() ? after : MessageCursor.encode(messages.get(messages.size() - 1)))
+                    .build();
+        }
+        
+        List<Message> newestFirst;
+        if (before != null) {
+            MessageCursor cursor = MessageCursor.decode(before);
+            newestFirst = messageRepository.findMessagesBefore(
+                    conversationId, cursor.getTimestamp(), cursor.getId(), page);
+        } else {
+            newestFirst = messageRepository.findLatestMessages(conversationId, page);
+        }
+        return toMessagePage(newestFirst, size);
+    }
+    
+    /**
+     * Get the messages a client missed: everything after the given sequence number, in sequence order.
+     * Served from a range scan of the (conversation_id, sequence) index, so a reconnecting client
+     * only pays for the gap. A full batch means more messages follow.
+     */
+    @Transactional(readOnly = true)
+    public MessageResumeDTO getMessagesSince(Long conversationId, Long userId, long sequence, int limit) {
+        if (sequence < 0) {
+            throw new BadRequestException("Sequence must not be negative");
+        }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Conversation not found with id: " + conversationId));
+        
+        // Check if user is part of the conversation
+        if (!conversation.getInitiator().getId().equals(userId) && 
+            !conversation.getRecipient().getId().equals(userId)) {
+            throw new IllegalArgumentException("User is not part of this conversation");
+        }
+        
+        List<Message> messages = sequence >= conversation.getLastSequence()
+                ? Collections.emptyList()
+                : messageRepository.findMessagesAfterSequence(conversationId, sequence, PageRequest.of(0, limit));
+        
+        return MessageResumeDTO.builder()
+                .conversationId(conversationId)
+                .messages(toMessageDTOs(messages))
+                .lastSequence(conversation.getLastSequence())
+                .hasMore(messages.size() == limit)
+                .build();
+    }
+    
+    /**
+     * Convert a conversation with only its newest page of messages
+     */
+    private ConversationDTO toConversationDTO(Conversation conversation, Long userId) {
+        List<Message> newestFirst = messageRepository.findLatestMessages(
+                conversation.getId(), PageRequest.of(0, DEFAULT_PAGE_SIZE));
+        MessagePageDTO page = toMessagePage(newestFirst, DEFAULT_PAGE_SIZE);
+        
+        return messageMapper.toConversationDTO(conversation, page.getMessages(), page.getBeforeCursor(),
+                conversation.getUnreadCountFor(userId));
+    }
+    
+    /**
+     * Build a page from messages read newest first. A page shorter than the requested size
+     * reached the start of the history, so it gets no "before" cursor.
+     */
+    private MessagePageDTO toMessagePage(List<Message> newestFirst, int size) {
+        List<Message> messages = new ArrayList<>(newestFirst);
+        Collections.reverse(messages);
         
-        User recipient = userRepository.findById(recipientId)
-                .orElseThrow(() -> new ResourceNotFoundException("Recipient user not found with id: " + recipientId));
+        String beforeCursor = messages.size() == size ? MessageCursor.encode(messages.get(0)) : null;
+        String afterCursor = messages.isEmpty() ? null : MessageCursor.encode(messages.get(messages.size() - 1));
         
-        // Check if conversation already exists
-        Conversation conversation = conversationRepository.findConversationBetweenUsers(initiatorId, recipientId)
+        return MessagePageDTO.builder()
+                .messages(toMessageDTOs(messages))
+                .beforeCursor(beforeCursor)
+                .afterCursor(afterCursor)
+                .build();
+    }
+    
+    private List<MessageDTO> toMessageDTOs(List<Message> messages) {
+        List<MessageDTO> dtos = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            dtos.add(messageMapper.toMessageDTO(message));
+        }
+        return dtos;
+    }
+    
+    /**
+     * Find the conversation between two users, creating it if it does not exist yet
+     */
+    private Conversation findOrCreateConversation(Long initiatorId, Long recipientId) {
+        return conversationRepository.findConversationBetweenUsers(initiatorId, recipientId)
                 .orElseGet(() -> {
+                    User initiator = userRepository.findById(initiatorId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Initiator user not found with id: " + initiatorId));
+                    
+                    User recipient = userRepository.findById(recipientId)
+                            .orElseThrow(() -> new ResourceNotFoundException("Recipient user not found with id: " + recipientId));
+                    
                     // Create new conversation
                     Conversation newConversation = Conversation.builder()
                             .initiator(initiator)
@@ -112,17 +241,9 @@ public class MessageService {
                             .updatedAt(LocalDateTime.now())
                             .build();
                     
+                    eventPublisher.publishEvent(new ConversationStartedEvent(initiatorId, recipientId));
                     return conversationRepository.save(newConversation);
                 });
-        
-        // Get messages
-        List<Message> messages = messageRepository.findByConversation_IdOrderByTimestampAsc(conversation.getId());
-        
-        // Get unread count
-        List<Message> unreadMessages = messageRepository.findUnreadMessagesInConversation(
-                conversation.getId(), initiatorId);
-        
-        return messageMapper.toConversationDTO(conversation, messages, unreadMessages.size());
     }
     
     /**
@@ -134,14 +255,20 @@ public class MessageService {
             // Log the request
             System.out.println("Sending message: senderId=" + senderId + ", recipientId=" + recipientId);
             
-            // Get or create conversation
-            ConversationDTO conversationDTO = getOrCreateConversation(senderId, recipientId);
-            Conversation conversation = conversationRepository.findById(conversationDTO.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Conversation not found"));
+            if (senderId.equals(recipientId)) {
+                throw new IllegalArgumentException("Cannot create conversation with yourself");
+            }
+            
+            // Get or create conversation (without loading its history)
+            Conversation conversation = findOrCreateConversation(senderId, recipientId);
             
             User sender = userRepository.findById(senderId)
                     .orElseThrow(() -> new ResourceNotFoundException("Sender user not found with id: " + senderId));
             
+            // Lock the conversation and take the next sequence number; the lock is held until commit,
+            // so messages of one conversation are numbered in commit order without gaps
+            long sequence = conversationRepository.lockLastSequence(conversation.getId()) + 1;
+            
             // Create message
             Message message = Message.builder()
                     .conversation(conversation)
@@ -149,6 +276,7 @@ public class MessageService {
                     .content(content)
                     .timestamp(LocalDateTime.now())
                     .read(false)
+                    .sequence(sequence)
                     .build();
             
             // Log message details before saving
@@ -161,16 +289,17 @@ public class MessageService {
                 Message savedMessage = messageRepository.saveAndFlush(message);
                 System.out.println("Message saved with ID: " + savedMessage.getId());
                 
-                // Update conversation's updatedAt timestamp and save
-                conversation.setUpdatedAt(LocalDateTime.now());
-                conversationRepository.save(conversation);
+                // Update the inbox row in place: last message, activity time and the recipient's unread counter.
+                // A single UPDATE keeps the counter exact under concurrent sends.
+                conversationRepository.recordMessage(conversation.getId(), savedMessage, sequence, senderId,
+                        savedMessage.getTimestamp());
                 System.out.println("Conversation updated with ID: " + conversation.getId());
                 
                 // Convert to DTO
                 MessageDTO messageDTO = messageMapper.toMessageDTO(savedMessage);
                 
-                // Send WebSocket notification
-                sendMessageNotification(senderId, recipientId, messageDTO);
+                // Delivered over WebSocket only after this transaction commits
+                eventPublisher.publishEvent(new MessageSentEvent(recipientId, messageDTO));
                 
                 return messageDTO;
             } catch (Exception e) {
@@ -204,20 +333,18 @@ public class MessageService {
                 ? conversation.getRecipient().getId() 
                 : conversation.getInitiator().getId();
         
-        // Mark messages as read
-        List<Message> unreadMessages = messageRepository.findUnreadMessagesInConversation(conversationId, userId);
-        int count = unreadMessages.size();
+        // Always run the update, even if the counter is 0, so messages missed by the counter are still marked.
+        // Reset the counter before marking messages: the conversation row lock orders this against
+        // concurrent sends, so a message committed meanwhile is either marked read here or counted again
+        conversationRepository.resetUnreadCount(conversationId, userId);
+        int updatedCount = messageRepository.markMessagesAsRead(conversationId, userId);
         
-        if (count > 0) {
-            int updatedCount = messageRepository.markMessagesAsRead(conversationId, userId);
-            
-            // Send read receipt notification
-            sendReadNotification(userId, otherUserId, conversationId, count);
-            
-            return updatedCount;
+        if (updatedCount > 0) {
+            // Read receipt is delivered over WebSocket only after this transaction commits
+            eventPublisher.publishEvent(new MessagesReadEvent(conversationId, userId, otherUserId, updatedCount));
         }
         
-        return 0;
+        return updatedCount;
     }
     
     /**
@@ -236,94 +363,4 @@ public class MessageService {
             throw new IllegalArgumentException("User is not part of this conversation");
         }
     }
-
-    /**
-     * Send WebSocket notification for new message
-     */
-    private void sendMessageNotification(Long senderId, Long recipientId, MessageDTO message) {
-        try {
-            System.out.println("-------------------------------------");
-            System.out.println("URGENT: Preparing to send WebSocket notification to recipient: " + recipientId);
-            System.out.println("Message data: conversationId=" + message.getConversationId() + ", sender=" + message.getSender().getId());
-            System.out.println("Content: " + message.getContent());
-            System.out.println("Timestamp: " + System.currentTimeMillis());
-            
-            // Validate message data to ensure it has all required fields
-            if (message.getConversationId() == null) {
-                System.err.println("ERROR: Message is missing conversationId!");
-                System.err.println("Attempting to fix missing conversationId in notification");
-            }
-            
-            if (message.getSender() == null) {
-                System.err.println("ERROR: Message sender is null!");
-                return;
-            }
-            
-            // Try all possible destination patterns to ensure delivery
-            try {
-                // Method 1: Standard Spring user destination
-                messagingTemplate.convertAndSendToUser(
-                        recipientId.toString(),
-                        "/queue/messages",
-                        message
-                );
-                System.out.println("Message sent via standard pattern to: /user/" + recipientId + "/queue/messages");
-                
-                // Method 2: Direct queue destination
-                messagingTemplate.convertAndSend(
-                        "/queue/messages/" + recipientId,
-                        message
-                );
-                System.out.println("Message sent via direct queue to: /queue/messages/" + recipientId);
-                
-                // Method 3: Topic destination
-                messagingTemplate.convertAndSend(
-                        "/topic/messages/" + recipientId,
-                        message
-                );
-                System.out.println("Message sent via topic to: /topic/messages/" + recipientId);
-                
-                System.out.println("WebSocket notification IMMEDIATELY sent via multiple channels");
-                System.out.println("Delivery timestamp: " + System.currentTimeMillis());
-                
-            } catch (Exception e) {
-                System.err.println("URGENT: Failed to send WebSocket notification: " + e.getMessage());
-                e.printStackTrace();
-                
-                // Retry once with a small delay
-                try {
-                    Thread.sleep(50);
-                    messagingTemplate.convertAndSendToUser(
-                            recipientId.toString(),
-                            "/queue/messages",
-                            message
-                    );
-                    System.out.println("Second attempt successful!");
-                } catch (Exception retryEx) {
-                    System.err.println("Second attempt also failed: " + retryEx.getMessage());
-                    System.err.println("Message will not be delivered via WebSocket. Client will need to fetch it via REST API.");
-                }
-            }
-            System.out.println("-------------------------------------");
-        } catch (Exception e) {
-            System.err.println("Error in sendMessageNotification: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-    
-    /**
-     * Send WebSocket notification for read messages
-     */
-    private void sendReadNotification(Long readerId, Long notifyUserId, Long conversationId, int count) {
-        Map<String, Object> readData = new HashMap<>();
-        readData.put("conversationId", conversationId);
-        readData.put("readerId", readerId);
-        readData.put("count", count);
-        
-        messagingTemplate.convertAndSendToUser(
-                notifyUserId.toString(),
-                "/queue/read",
-                readData
-        );
-    }
 }
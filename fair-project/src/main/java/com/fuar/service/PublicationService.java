@@ -1,11 +1,13 @@
 package com.fuar.service;
 
+import com.fuar.event.UserProfileChangedEvent;
 import com.fuar.model.Publication;
 import com.fuar.model.PublicationType;
 import com.fuar.model.UserInfo;
 import com.fuar.repository.PublicationRepository;
 import com.fuar.repository.UserInfoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +18,7 @@ import java.util.List;
 public class PublicationService {
     private final PublicationRepository publicationRepository;
     private final UserInfoRepository userInfoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Publication> getUserPublications(Long userInfoId) {
         return publicationRepository.findByUserInfo_IdOrderByPublicationDateDesc(userInfoId);
@@ -27,7 +30,9 @@ public class PublicationService {
                 .orElseThrow(() -> new RuntimeException("UserInfo not found"));
 
         publication.setUserInfo(userInfo);
-        return publicationRepository.save(publication);
+        Publication saved = publicationRepository.save(publication);
+        publishProfileChanged(userInfo);
+        return saved;
     }
 
     @Transactional
@@ -44,14 +49,17 @@ public class PublicationService {
         publication.setAuthors(publicationDetails.getAuthors());
         publication.setPublicationType(publicationDetails.getPublicationType());
 
-        return publicationRepository.save(publication);
+        Publication saved = publicationRepository.save(publication);
+        publishProfileChanged(publication.getUserInfo());
+        return saved;
     }
 
+    @Transactional
     public void deletePublication(Long id) {
-        if (!publicationRepository.existsById(id)) {
-            throw new RuntimeException("Publication not found");
-        }
-        publicationRepository.deleteById(id);
+        Publication publication = publicationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Publication not found"));
+        publicationRepository.delete(publication);
+        publishProfileChanged(publication.getUserInfo());
     }
 
     public Publication getPublicationById(Long id) {
@@ -70,4 +78,10 @@ public class PublicationService {
     public List<Publication> findByDoi(String doi) {
         return publicationRepository.findByDoi(doi);
     }
+
+    private void publishProfileChanged(UserInfo userInfo) {
+        if (userInfo != null && userInfo.getUser() != null) {
+            eventPublisher.publishEvent(new UserProfileChangedEvent(userInfo.getUser().getId()));
+        }
+    }
 }
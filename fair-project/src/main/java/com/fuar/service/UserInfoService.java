@@ -1,5 +1,6 @@
 package com.fuar.service;
 
+import com.fuar.event.UserProfileChangedEvent;
 import com.fuar.model.User;
 import com.fuar.model.UserInfo;
 import com.fuar.model.Skill;
@@ -7,12 +8,12 @@ import com.fuar.repository.UserRepository;
 import com.fuar.repository.UserInfoRepository;
 import com.fuar.repository.SkillRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +21,7 @@ public class UserInfoService {
     private final UserInfoRepository userInfoRepository;
     private final SkillRepository skillRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public UserInfo getUserInfo(Long userId) {
         return userInfoRepository.findByUser_Id(userId)
@@ -188,7 +190,9 @@ public class UserInfoService {
         userInfo.setOrcidId(userInfoDTO.getOrcidId());
         
         // Save and return the updated entity
-        return userInfoRepository.save(userInfo);
+        UserInfo saved = userInfoRepository.save(userInfo);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
+        return saved;
     }
     
     @Transactional
@@ -198,7 +202,9 @@ public class UserInfoService {
                 .orElseThrow(() -> new RuntimeException("Skill not found"));
 
         userInfo.getSkills().add(skill);
-        return userInfoRepository.save(userInfo);
+        UserInfo saved = userInfoRepository.save(userInfo);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
+        return saved;
     }
 
     @Transactional
@@ -208,7 +214,9 @@ public class UserInfoService {
                 .orElseThrow(() -> new RuntimeException("Skill not found"));
 
         userInfo.getSkills().remove(skill);
-        return userInfoRepository.save(userInfo);
+        UserInfo saved = userInfoRepository.save(userInfo);
+        eventPublisher.publishEvent(new UserProfileChangedEvent(userId));
+        return saved;
     }
 
     public List<UserInfo> searchUserInfos(String keyword) {
@@ -1,10 +1,12 @@
 package com.fuar.service;
 
+import com.fuar.event.UserProfileChangedEvent;
 import com.fuar.model.WorkExperience;
 import com.fuar.model.UserInfo;
 import com.fuar.repository.WorkExperienceRepository;
 import com.fuar.repository.UserInfoRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,6 +17,7 @@ import java.util.List;
 public class WorkExperienceService {
     private final WorkExperienceRepository workExperienceRepository;
     private final UserInfoRepository userInfoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<WorkExperience> getUserWorkExperiences(Long userId) {
         UserInfo userInfo = userInfoRepository.findByUser_Id(userId)
@@ -28,7 +31,9 @@ public class WorkExperienceService {
                 .orElseThrow(() -> new RuntimeException("UserInfo not found"));
 
         workExperience.setUserInfo(userInfo);
-        return workExperienceRepository.save(workExperience);
+        WorkExperience saved = workExperienceRepository.save(workExperience);
+        publishProfileChanged(userInfo);
+        return saved;
     }
 
     @Transactional
@@ -45,14 +50,17 @@ public class WorkExperienceService {
         workExperience.setLocation(workExperienceDetails.getLocation());
         workExperience.setCompanyUrl(workExperienceDetails.getCompanyUrl());
 
-        return workExperienceRepository.save(workExperience);
+        WorkExperience saved = workExperienceRepository.save(workExperience);
+        publishProfileChanged(workExperience.getUserInfo());
+        return saved;
     }
 
+    @Transactional
     public void deleteWorkExperience(Long id) {
-        if (!workExperienceRepository.existsById(id)) {
-            throw new RuntimeException("Work experience not found");
-        }
-        workExperienceRepository.deleteById(id);
+        WorkExperience workExperience = workExperienceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Work experience not found"));
+        workExperienceRepository.delete(workExperience);
+        publishProfileChanged(workExperience.getUserInfo());
     }
 
     public WorkExperience getWorkExperienceById(Long id) {
@@ -67,4 +75,10 @@ public class WorkExperienceService {
     public List<WorkExperience> findCurrentWorkExperiencesByCompany(String company) {
         return workExperienceRepository.findByCompanyAndCurrent(company, true);
     }
+
+    private void publishProfileChanged(UserInfo userInfo) {
+        if (userInfo != null && userInfo.getUser() != null) {
+            eventPublisher.publishEvent(new UserProfileChangedEvent(userInfo.getUser().getId()));
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package com.fuar.config;
+
+import com.fuar.FairApplication;
+import com.fuar.model.Role;
+import com.fuar.model.User;
+import com.fuar.repository.UserRepository;
+import com.fuar.security.JwtService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Verifies the STOMP broker relay (messaging.broker.mode=relay) with two application contexts sharing an
+ * embedded Artemis broker. Node A is the test's own context; node B is started separately and holds the
+ * user's WebSocket session, so a message sent to the user on node A can only arrive through the broker.
+ */
+@SpringBootTest(classes = FairApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class WebSocketBrokerRelayTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final int STOMP_PORT = freePort();
+    private static final EmbeddedActiveMQ BROKER = startBroker();
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void nodeProperties(DynamicPropertyRegistry registry) {
+        nodeProperties().forEach(property -> {
+            int separator = property.indexOf('=');
+            registry.add(property.substring(0, separator), () -> property.substring(separator + 1));
+        });
+    }
+
+    @BeforeAll
+    static void startNodeB() {
+        List<String> properties = nodeProperties();
+        properties.add("server.port=0");
+        // Command line arguments take precedence over application.yml
+        nodeB = new SpringApplicationBuilder(FairApplication.class)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    @AfterAll
+    static void stop() throws Exception {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        BROKER.stop();
+    }
+
+    @Test
+    void messageSentToUserOnOneNodeReachesSessionOnTheOther() throws Exception {
+        User user = userRepository.save(User.builder()
+                .name("Relay User")
+                .email("relay@example.com")
+                .password("secret")
+                .role(Role.USER)
+                .build());
+        String token = nodeB.getBean(JwtService.class).generateToken(user);
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new StringMessageConverter());
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+        int nodeBPort = nodeB.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        StompSession session = stompClient.connectAsync("ws://localhost:" + nodeBPort + "/ws/websocket",
+                new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() { })
+                .get(10, TimeUnit.SECONDS);
+        try {
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            session.subscribe("/user/queue/relay-test", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return String.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    received.add((String) payload);
+                }
+            });
+
+            // The subscription reaches node B's user registry and the broker asynchronously, so send until it arrives
+            String payload = null;
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (payload == null && System.currentTimeMillis() < deadline) {
+                messagingTemplate.convertAndSendToUser(user.getId().toString(), "/queue/relay-test", "hello from node A");
+                payload = received.poll(500, TimeUnit.MILLISECONDS);
+            }
+            assertEquals("hello from node A", payload);
+        } finally {
+            session.disconnect();
+            stompClient.stop();
+        }
+    }
+
+    /**
+     * Settings shared by both nodes.
+     */
+    private static List<String> nodeProperties() {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=" + POSTGRES.getJdbcUrl("postgres", "postgres"));
+        properties.add("spring.datasource.username=postgres");
+        properties.add("spring.datasource.password=postgres");
+        properties.add("spring.jpa.show-sql=false");
+        properties.add("app.upload.dir=" + temporaryDirectory("uploads"));
+        properties.add("messaging.broker.mode=relay");
+        properties.add("messaging.broker.relay.host=localhost");
+        properties.add("messaging.broker.relay.port=" + STOMP_PORT);
+        return properties;
+    }
+
+    private static EmbeddedActiveMQ startBroker() {
+        ConfigurationImpl configuration = new ConfigurationImpl();
+        configuration.setPersistenceEnabled(false);
+        configuration.setSecurityEnabled(false);
+        try {
+            // The prefixes map /queue/ to anycast and /topic/ to multicast addresses, as the relay expects
+            configuration.addAcceptorConfiguration("stomp", "tcp://localhost:" + STOMP_PORT +
+                    "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+            EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+            broker.setConfiguration(configuration);
+            broker.start();
+            return broker;
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not start the embedded STOMP broker", e);
+        }
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String temporaryDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.fuar.recommendation.controller;
+
+import com.fuar.FairApplication;
+import com.fuar.recommendation.job.RecommendationJobService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Öneri üretim işlerini yöneten uç noktaların yalnızca yöneticilere açık olduğunu doğrular.
+ */
+@SpringBootTest(classes = FairApplication.class)
+@AutoConfigureMockMvc
+class RecommendationControllerTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RecommendationJobService recommendationJobService;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("app.upload.dir", () -> temporaryDirectory("uploads"));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void userCannotManageGenerationJobs() throws Exception {
+        mockMvc.perform(post("/api/v1/recommendations/generate")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/recommendations/jobs")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/recommendations/jobs/job-1")).andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/v1/recommendations/jobs/job-1")).andExpect(status().isForbidden());
+
+        verify(recommendationJobService, never()).submit(anyInt());
+        verify(recommendationJobService, never()).cancel(anyString());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void adminCanListGenerationJobs() throws Exception {
+        when(recommendationJobService.getRecentJobs()).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/recommendations/jobs")).andExpect(status().isOk());
+    }
+
+    private static String temporaryDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.fuar.recommendation.index;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hariç tutma indeksinin ret geçmişini ve konuşmaları izlediğini, geri alınan retleri listeden çıkardığını
+ * ve yeniden okumada listeleri veritabanındaki durumla değiştirdiğini doğrular.
+ */
+class ExclusionIndexTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+
+    private ExclusionIndex exclusionIndex;
+
+    @BeforeAll
+    static void startPostgres() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        jdbcTemplate.execute("CREATE TABLE user_recommendation (id bigserial PRIMARY KEY, " +
+                "target_user_id bigint NOT NULL, recommended_user_id bigint NOT NULL, status varchar(20))");
+        jdbcTemplate.execute("CREATE TABLE conversations (id bigserial PRIMARY KEY, " +
+                "initiator_id bigint NOT NULL, recipient_id bigint NOT NULL)");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE user_recommendation, conversations");
+        exclusionIndex = new ExclusionIndex(jdbcTemplate);
+    }
+
+    @Test
+    void reversedRejectionIsIncludedAgain() {
+        long id = reject(1L, 2L);
+        exclusionIndex.exclude(1L, 2L);
+        assertTrue(exclusionIndex.isExcluded(1L, 2L));
+
+        jdbcTemplate.update("UPDATE user_recommendation SET status = 'ACCEPTED' WHERE id = ?", id);
+        exclusionIndex.include(1L, 2L);
+
+        assertFalse(exclusionIndex.isExcluded(1L, 2L));
+    }
+
+    @Test
+    void conversationPartnerStaysExcludedWhenRejectionIsReversed() {
+        long id = reject(1L, 2L);
+        jdbcTemplate.update("INSERT INTO conversations (initiator_id, recipient_id) VALUES (2, 1)");
+        assertTrue(exclusionIndex.isExcluded(1L, 2L));
+
+        jdbcTemplate.update("UPDATE user_recommendation SET status = 'VIEWED' WHERE id = ?", id);
+        exclusionIndex.include(1L, 2L);
+
+        assertTrue(exclusionIndex.isExcluded(1L, 2L));
+    }
+
+    @Test
+    void rebuildReplacesListsWithTheDatabaseState() {
+        long id = reject(1L, 2L);
+        reject(1L, 3L);
+        assertTrue(exclusionIndex.isExcluded(1L, 2L));
+
+        // Başka bir düğümde ret geri alındı; bu düğüme olay gelmez
+        jdbcTemplate.update("UPDATE user_recommendation SET status = 'ACCEPTED' WHERE id = ?", id);
+        exclusionIndex.rebuild();
+
+        assertFalse(exclusionIndex.isExcluded(1L, 2L));
+        assertTrue(exclusionIndex.isExcluded(1L, 3L));
+    }
+
+    private long reject(long userId, long candidateId) {
+        return jdbcTemplate.queryForObject("INSERT INTO user_recommendation (target_user_id, recommended_user_id, status) " +
+                "VALUES (?, ?, 'REJECTED') RETURNING id", Long.class, userId, candidateId);
+    }
+}
@@ -0,0 +1,229 @@
+package com.fuar.recommendation.job;
+
+import com.fuar.FairApplication;
+import com.fuar.model.Role;
+import com.fuar.model.Skill;
+import com.fuar.model.User;
+import com.fuar.model.UserInfo;
+import com.fuar.recommendation.index.FeatureFamily;
+import com.fuar.recommendation.index.NeighborSnapshotStore;
+import com.fuar.recommendation.index.ScoringWeights;
+import com.fuar.recommendation.model.RecommendationWorkItem;
+import com.fuar.recommendation.repository.RecommendationWorkQueueRepository;
+import com.fuar.recommendation.service.ScoringWeightsService;
+import com.fuar.repository.SkillRepository;
+import com.fuar.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aynı veritabanını paylaşan iki uygulama bağlamıyla (düğüm A ve düğüm B) dağıtık öneri üretimini doğrular.
+ * Düğüm A testin kendi bağlamıdır ve üretimi koordine eder; düğüm B ayrı bir bağlam olarak başlatılır ve
+ * işleri zamanlanmış görevle sahiplenir.
+ */
+@SpringBootTest(classes = FairApplication.class, properties = {
+        "recommendation.distributed.node-id=node-a"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class RecommendationWorkQueueServiceTest {
+
+    private static final int USER_COUNT = 30;
+    private static final int RECOMMENDATIONS_PER_USER = 5;
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Autowired
+    private RecommendationWorkQueueService workQueueService;
+
+    @Autowired
+    private RecommendationWorkQueueRepository workQueueRepository;
+
+    @Autowired
+    private NeighborSnapshotStore snapshotStore;
+
+    @Autowired
+    private ScoringWeightsService scoringWeightsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SkillRepository skillRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void nodeProperties(DynamicPropertyRegistry registry) {
+        nodeProperties().forEach(property -> {
+            int separator = property.indexOf('=');
+            registry.add(property.substring(0, separator), () -> property.substring(separator + 1));
+        });
+    }
+
+    @BeforeAll
+    static void startNodeB() {
+        List<String> properties = nodeProperties();
+        properties.add("recommendation.distributed.node-id=node-b");
+        properties.add("server.port=0");
+        // Komut satırı argümanları application.yml'deki değerlerin önüne geçer
+        nodeB = new SpringApplicationBuilder(FairApplication.class)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+    }
+
+    @Test
+    void generationRunsOnBothNodesAndEveryNodePublishesTheSnapshot() throws InterruptedException {
+        List<Long> userIds = createUsers();
+
+        int generated = workQueueService.runExclusively(
+                () -> workQueueService.generate(RECOMMENDATIONS_PER_USER, GenerationProgress.NONE));
+
+        assertTrue(generated > 0);
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM recommendation_work_item WHERE status <> 'DONE'", Integer.class));
+        assertEquals(userIds.size(), jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT target_user_id) FROM user_recommendation", Integer.class));
+
+        // Koordinatör anlık görüntüsünü tur biter bitmez, düğüm B bir sonraki sorgulamasında yeniler
+        NeighborSnapshotStore nodeBSnapshot = nodeB.getBean(NeighborSnapshotStore.class);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (nodeBSnapshot.find(userIds.get(0)) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        for (Long userId : userIds) {
+            assertNotNull(snapshotStore.find(userId), "node A snapshot misses user " + userId);
+            assertNotNull(nodeBSnapshot.find(userId), "node B snapshot misses user " + userId);
+        }
+    }
+
+    @Test
+    void staleClaimCannotWriteAfterTheItemIsReclaimed() {
+        Long itemId = jdbcTemplate.queryForObject(
+                "INSERT INTO recommendation_work_item (run_id, range_start, range_end, recommendations_per_user, " +
+                "status, claimed_by, claimed_at, attempts, created_at) " +
+                "VALUES ('fencing-run', 1, 1, 5, 'CLAIMED', 'node-b', now(), 1, now()) RETURNING id",
+                Long.class);
+
+        // Kira süresi dolmuş sayılır ve düğüm A işi yeniden sahiplenir
+        Optional<RecommendationWorkItem> reclaimed = workQueueRepository.claim("node-a", 0, 3);
+        assertTrue(reclaimed.isPresent());
+        assertEquals(itemId, reclaimed.get().getId());
+        assertEquals(2, reclaimed.get().getAttempts());
+
+        RecommendationWorkQueueRepository nodeBRepository = nodeB.getBean(RecommendationWorkQueueRepository.class);
+        TransactionTemplate nodeBTransaction = new TransactionTemplate(nodeB.getBean(PlatformTransactionManager.class));
+        Boolean staleLocked = nodeBTransaction.execute(status -> nodeBRepository.lockClaim(itemId, "node-b", 1));
+        assertEquals(Boolean.FALSE, staleLocked);
+        assertFalse(nodeBRepository.complete(itemId, "node-b", 1, 1, 1));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Boolean locked = transaction.execute(status -> workQueueRepository.lockClaim(itemId, "node-a", 2));
+        assertEquals(Boolean.TRUE, locked);
+        assertTrue(workQueueRepository.complete(itemId, "node-a", 2, 1, 1));
+    }
+
+    @Test
+    void scoringWeightsChangedOnOneNodeApplyOnTheOther() {
+        ScoringWeights updated = scoringWeightsService.update(Map.of(FeatureFamily.SKILL, 1.0));
+
+        ScoringWeights nodeBWeights = nodeB.getBean(ScoringWeightsService.class).reload();
+        assertEquals(updated.getUpdatedAt(), nodeBWeights.getUpdatedAt());
+        for (FeatureFamily family : FeatureFamily.values()) {
+            assertEquals(updated.weight(family), nodeBWeights.weight(family), 1e-9);
+        }
+    }
+
+    private List<Long> createUsers() {
+        List<Skill> skills = new ArrayList<>();
+        for (String name : List.of("java", "spring", "postgresql", "kotlin")) {
+            skills.add(skillRepository.save(Skill.builder().name(name).build()));
+        }
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < USER_COUNT; i++) {
+            UserInfo userInfo = UserInfo.builder()
+                    .skills(Set.of(skills.get(i % skills.size()), skills.get((i + 1) % skills.size())))
+                    .build();
+            User user = User.builder()
+                    .name("User " + i)
+                    .email("user" + i + "@example.com")
+                    .password("secret")
+                    .role(Role.USER)
+                    .userInfo(userInfo)
+                    .build();
+            userIds.add(userRepository.save(user).getId());
+        }
+        return userIds;
+    }
+
+    /**
+     * İki düğümün ortak ayarları; her düğüm kendi anlık görüntü ve yükleme dizinini kullanır.
+     */
+    private static List<String> nodeProperties() {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=" + POSTGRES.getJdbcUrl("postgres", "postgres"));
+        properties.add("spring.datasource.username=postgres");
+        properties.add("spring.datasource.password=postgres");
+        properties.add("spring.jpa.show-sql=false");
+        properties.add("app.upload.dir=" + temporaryDirectory("uploads"));
+        properties.add("recommendation.distributed.enabled=true");
+        properties.add("recommendation.distributed.range-size=5");
+        properties.add("recommendation.distributed.poll-interval-ms=200");
+        properties.add("recommendation.snapshot.dir=" + temporaryDirectory("neighbor-snapshot"));
+        return properties;
+    }
+
+    private static String temporaryDirectory(String prefix) {
+        try {
+            return Files.createTempDirectory(prefix).toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}